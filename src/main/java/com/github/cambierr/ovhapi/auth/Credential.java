@@ -23,12 +23,15 @@
  */
 package com.github.cambierr.ovhapi.auth;
 
+import com.github.cambierr.ovhapi.common.ClockSync;
+import com.github.cambierr.ovhapi.common.Deadline;
+import com.github.cambierr.ovhapi.common.EndpointSelector;
 import com.github.cambierr.ovhapi.common.Method;
+import com.github.cambierr.ovhapi.common.OvhClient;
+import com.github.cambierr.ovhapi.common.PreparedRequest;
 import com.github.cambierr.ovhapi.exception.InvalidConsumerKeyException;
 import com.github.cambierr.ovhapi.exception.UnclaimedConsumerKeyException;
 import com.mashape.unirest.request.HttpRequest;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import rx.Observable;
 import rx.Subscriber;
 
@@ -41,11 +44,33 @@ public class Credential {
     private final String applicationKey;
     private final String applicationSecret;
     private final String consumerKey;
+    private final OvhClient client;
+    private final Deadline deadline;
+    private final EndpointSelector endpoints;
+    private final byte[] signaturePrefix;
 
     protected Credential(String _applicationKey, String _applicationSecret, String _consumerKey) {
+        this(OvhClient.getDefault(), _applicationKey, _applicationSecret, _consumerKey);
+    }
+
+    protected Credential(OvhClient _client, String _applicationKey, String _applicationSecret, String _consumerKey) {
         applicationKey = _applicationKey;
         applicationSecret = _applicationSecret;
         consumerKey = _consumerKey;
+        client = _client;
+        signaturePrefix = Signer.prefix(_applicationSecret, _consumerKey);
+        deadline = null;
+        endpoints = null;
+    }
+
+    private Credential(Credential _credential, Deadline _deadline, EndpointSelector _endpoints) {
+        applicationKey = _credential.applicationKey;
+        applicationSecret = _credential.applicationSecret;
+        consumerKey = _credential.consumerKey;
+        client = _credential.client;
+        signaturePrefix = _credential.signaturePrefix;
+        deadline = _deadline;
+        endpoints = _endpoints;
     }
 
     /**
@@ -58,8 +83,22 @@ public class Credential {
      * @return an Observable Credential
      */
     public static Observable<Credential> build(String _applicationKey, String _applicationSecret, String _consumerKey) {
+        return build(OvhClient.getDefault(), _applicationKey, _applicationSecret, _consumerKey);
+    }
+
+    /**
+     * Creates a credential object bound to a specific client
+     *
+     * @param _client the client to send requests with
+     * @param _applicationKey the OVH API application key
+     * @param _applicationSecret the OVH API application secret
+     * @param _consumerKey the OVH API consumer key
+     *
+     * @return an Observable Credential
+     */
+    public static Observable<Credential> build(OvhClient _client, String _applicationKey, String _applicationSecret, String _consumerKey) {
         return Observable
-                .just(new Credential(_applicationKey, _applicationSecret, _consumerKey))
+                .just(new Credential(_client, _applicationKey, _applicationSecret, _consumerKey))
                 .flatMap((Credential t) -> Observable.create((Subscriber<? super Credential> t1) -> {
                     try {
                         t.check();
@@ -79,36 +118,35 @@ public class Credential {
      * @param _body the request body (if any)
      */
     public void sign(HttpRequest _request, Method _method, String _body) {
-        long time = System.currentTimeMillis() / 1000;
+        long time = currentTime();
+
+        _request.header("X-Ovh-Timestamp", Long.toString(time));
+        _request.header("X-Ovh-Signature", signature(_method, _request.getUrl(), _body, time));
+        _request.header("X-Ovh-Application", this.applicationKey);
+        _request.header("X-Ovh-Consumer", this.consumerKey);
+    }
 
-        String preHash = this.applicationSecret
-                + "+" + this.consumerKey
-                + "+" + _method.name()
-                + "+" + _request.getUrl()
-                + "+" + ((_body == null) ? "" : _body)
-                + "+" + time;
+    /**
+     * Signs a prepared API request
+     *
+     * @param _request the request
+     */
+    public void sign(PreparedRequest _request) {
+        long time = currentTime();
 
         _request.header("X-Ovh-Timestamp", Long.toString(time));
-        _request.header("X-Ovh-Signature", "$1$" + toSHA1(preHash));
+        _request.header("X-Ovh-Signature", signature(_request.getMethod(), _request.getUrl(), _request.getBody(), time));
         _request.header("X-Ovh-Application", this.applicationKey);
         _request.header("X-Ovh-Consumer", this.consumerKey);
     }
 
-    private String toSHA1(String _preHash) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-1");
-            return bytesToHex(md.digest(_preHash.getBytes()));
-        } catch (NoSuchAlgorithmException ex) {
-            throw new RuntimeException(ex);
-        }
+    private long currentTime() {
+        ClockSync clock = (client == null) ? null : client.getClockSync();
+        return (clock == null) ? System.currentTimeMillis() / 1000 : clock.currentTime();
     }
 
-    private String bytesToHex(byte[] _bytes) {
-        String result = "";
-        for (int i = 0; i < _bytes.length; i++) {
-            result += Integer.toString((_bytes[i] & 0xff) + 0x100, 16).substring(1);
-        }
-        return result;
+    private String signature(Method _method, String _url, String _body, long _time) {
+        return Signer.sign(signaturePrefix, _method.name(), _url, _body, _time);
     }
 
     /**
@@ -130,4 +168,74 @@ public class Credential {
         return this.consumerKey;
     }
 
+    /**
+     * Returns the application key of this credential
+     *
+     * @return the application key of this credential
+     */
+    public String getApplicationKey() {
+        return this.applicationKey;
+    }
+
+    /**
+     * Returns a copy of this credential whose requests must complete before a
+     * deadline
+     *
+     * <p>
+     * The deadline follows the credential: objects loaded with it (projects,
+     * instances, ...) make their own requests under the same deadline.</p>
+     *
+     * @param _deadline the deadline (null = no deadline)
+     *
+     * @return a credential bound to the provided deadline
+     */
+    public Credential withDeadline(Deadline _deadline) {
+        return new Credential(this, _deadline, endpoints);
+    }
+
+    /**
+     * Returns the deadline of the requests of this credential
+     *
+     * @return the deadline of this credential, or null
+     */
+    public Deadline getDeadline() {
+        return this.deadline;
+    }
+
+    /**
+     * Returns a copy of this credential whose requests are sent to its own
+     * endpoints, instead of the ones of its client
+     *
+     * <p>
+     * Application and consumer keys are bound to an API (Europe, North
+     * America, ...): a credential created on another API than the one of its
+     * client must be sent to this API.</p>
+     *
+     * @param _endpoints the endpoints (null = the endpoints of the client)
+     *
+     * @return a credential bound to the provided endpoints
+     */
+    public Credential withEndpoints(EndpointSelector _endpoints) {
+        return new Credential(this, deadline, _endpoints);
+    }
+
+    /**
+     * Returns the endpoints the requests of this credential are sent to
+     *
+     * @return the endpoints of this credential, or null to use the ones of its
+     * client
+     */
+    public EndpointSelector getEndpoints() {
+        return this.endpoints;
+    }
+
+    /**
+     * Returns the client this credential sends its requests with
+     *
+     * @return the client of this credential
+     */
+    public OvhClient getClient() {
+        return this.client;
+    }
+
 }
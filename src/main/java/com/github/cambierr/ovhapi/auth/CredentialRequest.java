@@ -24,6 +24,7 @@
 package com.github.cambierr.ovhapi.auth;
 
 import com.github.cambierr.ovhapi.common.Method;
+import com.github.cambierr.ovhapi.common.OvhClient;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
 import com.github.cambierr.ovhapi.common.SafeResponse;
 import com.github.cambierr.ovhapi.exception.TokenNotLinkedException;
@@ -40,6 +41,7 @@ public class CredentialRequest {
     private final String applicationSecret;
     private final String consumerKey;
     private final String validationUrl;
+    private final OvhClient client;
     private boolean linked;
 
     /**
@@ -53,16 +55,32 @@ public class CredentialRequest {
      * @return an Observable CredentialRequest
      */
     public static Observable<CredentialRequest> build(String _applicationKey, String _applicationSecret, AccessRules _rules, String _redirection) {
-        return new RequestBuilder("/auth/credential", Method.POST, _applicationKey)
+        return build(OvhClient.getDefault(), _applicationKey, _applicationSecret, _rules, _redirection);
+    }
+
+    /**
+     * Creates a credential request to get a CK using a specific client
+     *
+     * @param _client the client to send requests with
+     * @param _applicationKey the OVH API application key
+     * @param _applicationSecret the OVH API application secret
+     * @param _rules the list of rules to be granted by the CK
+     * @param _redirection the redirection url for after-connection
+     *
+     * @return an Observable CredentialRequest
+     */
+    public static Observable<CredentialRequest> build(OvhClient _client, String _applicationKey, String _applicationSecret, AccessRules _rules, String _redirection) {
+        return new RequestBuilder("/auth/credential", Method.POST, _applicationKey, _client)
                 .body(new JSONObject().put("redirection", _redirection).put("accessRules", _rules.toJson()).toString())
                 .build()
                 .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
                 .map((JSONObject token) -> {
-                    return new CredentialRequest(_applicationKey, _applicationSecret, token.getString("consumerKey"), token.getString("validationUrl"));
+                    return new CredentialRequest(_client, _applicationKey, _applicationSecret, token.getString("consumerKey"), token.getString("validationUrl"));
                 });
     }
 
-    private CredentialRequest(String _applicationKey, String _applicationSecret, String _consumerKey, String _validationUrl) {
+    private CredentialRequest(OvhClient _client, String _applicationKey, String _applicationSecret, String _consumerKey, String _validationUrl) {
+        client = _client;
         applicationKey = _applicationKey;
         applicationSecret = _applicationSecret;
         consumerKey = _consumerKey;
@@ -113,6 +131,6 @@ public class CredentialRequest {
         if (!isLinked()) {
             throw new TokenNotLinkedException();
         }
-        return new Credential(applicationKey, applicationSecret, consumerKey);
+        return new Credential(client, applicationKey, applicationSecret, consumerKey);
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the OVH request signatures, reusing a SHA-1 digest and its buffers
+ * per thread
+ *
+ * <p>
+ * The pre-hash is encoded directly into a reusable byte buffer, so signing a
+ * request only allocates the resulting signature.</p>
+ *
+ * @author cambierr
+ */
+final class Signer {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<Signer> SIGNERS = ThreadLocal.withInitial(Signer::new);
+
+    private final MessageDigest sha1;
+    private final byte[] digest = new byte[20];
+    private final char[] signature = new char[3 + 2 * 20];
+    private byte[] buffer = new byte[512];
+
+    private Signer() {
+        try {
+            sha1 = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex);
+        }
+        signature[0] = '$';
+        signature[1] = '1';
+        signature[2] = '$';
+    }
+
+    /**
+     * Encodes the constant part of the pre-hash of a credential
+     *
+     * @param _applicationSecret the application secret
+     * @param _consumerKey the consumer key
+     *
+     * @return the encoded "secret+consumerKey+" prefix
+     */
+    static byte[] prefix(String _applicationSecret, String _consumerKey) {
+        return (_applicationSecret + "+" + _consumerKey + "+").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Signs a request with the calling thread's signer
+     *
+     * @param _prefix the encoded "secret+consumerKey+" prefix
+     * @param _method the request method
+     * @param _url the complete url of the request
+     * @param _body the request body (can be null)
+     * @param _time the request timestamp, in seconds
+     *
+     * @return the "$1$" prefixed hexadecimal signature
+     */
+    static String sign(byte[] _prefix, String _method, String _url, String _body, long _time) {
+        return SIGNERS.get().compute(_prefix, _method, _url, _body, _time);
+    }
+
+    private String compute(byte[] _prefix, String _method, String _url, String _body, long _time) {
+        int length = append(0, _method);
+        buffer[length++] = '+';
+        length = append(length, _url);
+        buffer[length++] = '+';
+        if (_body != null) {
+            length = append(length, _body);
+        }
+        buffer[length++] = '+';
+        length = append(length, _time);
+
+        sha1.reset();
+        sha1.update(_prefix);
+        sha1.update(buffer, 0, length);
+        try {
+            sha1.digest(digest, 0, digest.length);
+        } catch (DigestException ex) {
+            throw new RuntimeException(ex);
+        }
+        if (buffer.length > MAX_RETAINED_BUFFER) {
+            buffer = new byte[512];
+        }
+
+        for (int i = 0; i < digest.length; i++) {
+            signature[3 + 2 * i] = HEX[(digest[i] >> 4) & 0xf];
+            signature[4 + 2 * i] = HEX[digest[i] & 0xf];
+        }
+        return new String(signature);
+    }
+
+    /**
+     * Appends a string, encoded in UTF-8, leaving room for one more byte
+     */
+    private int append(int _offset, String _value) {
+        int length = _value.length();
+        ensureCapacity(_offset + length + 1);
+        for (int i = 0; i < length; i++) {
+            char c = _value.charAt(i);
+            if (c >= 0x80) {
+                byte[] tail = _value.substring(i).getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(_offset + i + tail.length + 1);
+                System.arraycopy(tail, 0, buffer, _offset + i, tail.length);
+                return _offset + i + tail.length;
+            }
+            buffer[_offset + i] = (byte) c;
+        }
+        return _offset + length;
+    }
+
+    /**
+     * Appends the decimal representation of a number
+     */
+    private int append(int _offset, long _value) {
+        ensureCapacity(_offset + 20);
+        if (_value < 0) {
+            buffer[_offset++] = '-';
+            _value = -_value;
+        }
+        int end = _offset;
+        long remaining = _value;
+        do {
+            end++;
+            remaining /= 10;
+        } while (remaining != 0);
+        for (int i = end - 1; i >= _offset; i--) {
+            buffer[i] = (byte) ('0' + (_value % 10));
+            _value /= 10;
+        }
+        return end;
+    }
+
+    private void ensureCapacity(int _capacity) {
+        if (_capacity > buffer.length) {
+            byte[] larger = new byte[Math.max(_capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, larger, 0, buffer.length);
+            buffer = larger;
+        }
+    }
+
+}
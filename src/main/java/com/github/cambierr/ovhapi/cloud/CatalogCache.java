@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.cloud;
+
+import com.github.cambierr.ovhapi.common.CacheConfig;
+import com.github.cambierr.ovhapi.common.CacheStats;
+import com.github.cambierr.ovhapi.common.TtlCache;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+/**
+ * Caches the regions, flavors and images catalogs of a project
+ *
+ * <p>
+ * Each listing (per region, flavor and OS type filters) is cached separately
+ * and weighs its number of elements.</p>
+ *
+ * @author cambierr
+ */
+public class CatalogCache {
+
+    private final Project project;
+    private final TtlCache<String, List<Region>> regions;
+    private final TtlCache<String, Catalog<Flavor>> flavors;
+    private final TtlCache<String, Catalog<Image>> images;
+
+    /**
+     * Creates a catalog cache
+     *
+     * @param _project the project whose catalogs are cached
+     * @param _regions the settings of the regions cache
+     * @param _flavors the settings of the flavors cache
+     * @param _images the settings of the images cache
+     */
+    public CatalogCache(Project _project, CacheConfig _regions, CacheConfig _flavors, CacheConfig _images) {
+        project = _project;
+        regions = new TtlCache<>(_regions, (List<Region> t) -> t.size(), Schedulers.immediate());
+        flavors = new TtlCache<>(_flavors, (Catalog<Flavor> t) -> t.list.size(), Schedulers.immediate());
+        images = new TtlCache<>(_images, (Catalog<Image> t) -> t.list.size(), Schedulers.immediate());
+    }
+
+    /**
+     * Lists the regions of the project, from the cache if possible
+     *
+     * @return Zero to several observable Region objects
+     */
+    public Observable<Region> regions() {
+        return regions.get("", () -> Region.fetch(project).toList())
+                .flatMap((List<Region> t) -> Observable.from(t));
+    }
+
+    /**
+     * Lists the flavors of the project, from the cache if possible
+     *
+     * @param _region The region to list flavors from (null = all regions)
+     *
+     * @return Zero to several observable Flavor objects
+     */
+    public Observable<Flavor> flavors(Region _region) {
+        return flavorCatalog((_region == null) ? null : _region.getName())
+                .flatMap((Catalog<Flavor> t) -> Observable.from(t.list));
+    }
+
+    /**
+     * Lists the images of the project, from the cache if possible
+     *
+     * @param _region The region to list images from (null = all regions)
+     * @param _flavor The flavor to be compatible with (null = no compatibility
+     * requirement)
+     * @param _osType The OS type of the image (null = no requirement)
+     *
+     * @return Zero to several observable Image objects
+     */
+    public Observable<Image> images(Region _region, Flavor _flavor, String _osType) {
+        return imageCatalog((_region == null) ? null : _region.getName(), (_flavor == null) ? null : _flavor.getId(), _osType)
+                .flatMap((Catalog<Image> t) -> Observable.from(t.list));
+    }
+
+    /**
+     * Loads the flavors and images of all regions in the background, unless
+     * they are already cached or could not be cached (disabled cache, or
+     * catalog heavier than the maximum weight)
+     */
+    public void warm() {
+        if (flavors.accepts(flavorKey(null))) {
+            flavorCatalog(null).subscribe((Catalog<Flavor> t) -> {
+            }, (Throwable t) -> {
+            });
+        }
+        if (images.accepts(imageKey(null, null, null))) {
+            imageCatalog(null, null, null).subscribe((Catalog<Image> t) -> {
+            }, (Throwable t) -> {
+            });
+        }
+    }
+
+    /**
+     * Returns a cached flavor, without loading the catalog
+     *
+     * @param _id the flavor id
+     *
+     * @return the cached Flavor, or null if it is not cached
+     */
+    public Flavor getFlavorIfPresent(String _id) {
+        Catalog<Flavor> catalog = flavors.getIfPresent(flavorKey(null));
+        return (catalog == null) ? null : catalog.byId.get(_id);
+    }
+
+    /**
+     * Returns a cached image, without loading the catalog
+     *
+     * @param _id the image id
+     *
+     * @return the cached Image, or null if it is not cached
+     */
+    public Image getImageIfPresent(String _id) {
+        Catalog<Image> catalog = images.getIfPresent(imageKey(null, null, null));
+        return (catalog == null) ? null : catalog.byId.get(_id);
+    }
+
+    /**
+     * Drops the cached regions
+     */
+    public void invalidateRegions() {
+        regions.invalidateAll();
+    }
+
+    /**
+     * Drops the cached flavors
+     */
+    public void invalidateFlavors() {
+        flavors.invalidateAll();
+    }
+
+    /**
+     * Drops the cached images
+     */
+    public void invalidateImages() {
+        images.invalidateAll();
+    }
+
+    /**
+     * Drops all cached catalogs
+     */
+    public void invalidateAll() {
+        invalidateRegions();
+        invalidateFlavors();
+        invalidateImages();
+    }
+
+    /**
+     * Returns the statistics of the regions cache
+     *
+     * @return the statistics of the regions cache
+     */
+    public CacheStats getRegionStats() {
+        return regions.getStats();
+    }
+
+    /**
+     * Returns the statistics of the flavors cache
+     *
+     * @return the statistics of the flavors cache
+     */
+    public CacheStats getFlavorStats() {
+        return flavors.getStats();
+    }
+
+    /**
+     * Returns the statistics of the images cache
+     *
+     * @return the statistics of the images cache
+     */
+    public CacheStats getImageStats() {
+        return images.getStats();
+    }
+
+    private Observable<Catalog<Flavor>> flavorCatalog(String _region) {
+        return flavors.get(flavorKey(_region), () -> Flavor.fetch(project, _region)
+                .toList()
+                .map((List<Flavor> t) -> {
+                    Map<String, Flavor> byId = new HashMap<>();
+                    t.forEach((Flavor f) -> byId.put(f.getId(), f));
+                    return new Catalog<>(t, byId);
+                }));
+    }
+
+    private Observable<Catalog<Image>> imageCatalog(String _region, String _flavor, String _osType) {
+        return images.get(imageKey(_region, _flavor, _osType), () -> Image.fetch(project, _region, _flavor, _osType)
+                .toList()
+                .map((List<Image> t) -> {
+                    Map<String, Image> byId = new HashMap<>();
+                    t.forEach((Image i) -> byId.put(i.getId(), i));
+                    return new Catalog<>(t, byId);
+                }));
+    }
+
+    private static String flavorKey(String _region) {
+        return (_region == null) ? "" : _region;
+    }
+
+    private static String imageKey(String _region, String _flavor, String _osType) {
+        return ((_region == null) ? "" : _region) + "&" + ((_flavor == null) ? "" : _flavor) + "&" + ((_osType == null) ? "" : _osType);
+    }
+
+    private static class Catalog<T> {
+
+        private final List<T> list;
+        private final Map<String, T> byId;
+
+        private Catalog(List<T> _list, Map<String, T> _byId) {
+            list = Collections.unmodifiableList(_list);
+            byId = Collections.unmodifiableMap(_byId);
+        }
+    }
+
+}
@@ -23,12 +23,12 @@
  */
 package com.github.cambierr.ovhapi.cloud;
 
+import com.github.cambierr.ovhapi.common.JsonReader;
 import com.github.cambierr.ovhapi.common.Method;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
 import com.github.cambierr.ovhapi.common.SafeResponse;
 import com.github.cambierr.ovhapi.exception.PartialObjectException;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.json.JSONException;
 import rx.Observable;
 
 /**
@@ -38,15 +38,15 @@ import rx.Observable;
 public class Flavor {
 
     private final String id;
-    private int disk;
+    private volatile int disk;
     private final Region region;
-    private String name;
-    private int vcpus;
-    private String type;
-    private String osType;
-    private int ram;
+    private volatile String name;
+    private volatile int vcpus;
+    private volatile String type;
+    private volatile String osType;
+    private volatile int ram;
 
-    private boolean partial = false;
+    private volatile boolean partial = false;
     private final Project project;
 
     protected Flavor(Project _project, String _id, int _disk, Region _region, String _name, int _vcpus, String _type, String _osType, int _ram) {
@@ -71,14 +71,47 @@ public class Flavor {
      * @return a Flavor object
      */
     protected static Flavor byId(Project _project, String _id, Region _region) {
-        Flavor temp = new Flavor(_project, _id, 0, _region, null, 0, null, null, 0);
-        temp.partial = true;
-        return temp;
+        return _project.flavor(_id, (String t) -> {
+            Flavor temp = new Flavor(_project, t, 0, _region, null, 0, null, null, 0);
+            temp.partial = true;
+            return temp;
+        });
+    }
+
+    /**
+     * For internal use only
+     *
+     * <p>
+     * The fields are volatile and partial is written last, so a reader that
+     * sees this flavor complete also sees all its fields.</p>
+     *
+     * @param _flavor a loaded copy of this flavor
+     *
+     * @return this flavor, completed with the provided copy if it is not
+     * partial
+     */
+    Flavor hydrate(Flavor _flavor) {
+        if (_flavor != this && !_flavor.partial) {
+            synchronized (this) {
+                this.disk = _flavor.disk;
+                this.name = _flavor.name;
+                this.vcpus = _flavor.vcpus;
+                this.type = _flavor.type;
+                this.osType = _flavor.osType;
+                this.ram = _flavor.ram;
+                this.partial = false;
+            }
+        }
+        return this;
     }
 
     /**
      * Completes a partial Flavor object
      *
+     * <p>
+     * Flavors of a same region completed within a short time window are loaded
+     * by a single list request.</p>
+     *
      * @return the Observable completed Flavor object
      */
     public Observable<Flavor> complete() {
@@ -86,17 +119,14 @@ public class Flavor {
             return Observable.just(this);
         }
 
-        return byId(project, id)
-                .map((Flavor t1) -> {
-                    this.disk = t1.disk;
-                    this.name = t1.name;
-                    this.vcpus = t1.vcpus;
-                    this.type = t1.type;
-                    this.osType = t1.osType;
-                    this.ram = t1.ram;
-                    this.partial = false;
-                    return this;
-                });
+        String regionName = (region == null) ? null : region.getName();
+        return project
+                .loader("flavor?region=" + ((regionName == null) ? "" : regionName),
+                        (Iterable<String> t) -> fetch(project, regionName),
+                        Flavor::getId,
+                        (String t) -> byId(project, t))
+                .load(id)
+                .map((Flavor t1) -> hydrate(t1));
     }
 
     /**
@@ -109,7 +139,8 @@ public class Flavor {
     }
 
     /**
-     * Lists all flavors availables in a project and in a region (if provided)
+     * Lists all flavors availables in a project and in a region (if provided),
+     * from the project catalog cache if possible
      *
      * @param _project The project to list flavors of
      * @param _region The region to list flavors from (null = all regions)
@@ -117,23 +148,20 @@ public class Flavor {
      * @return Zero to several observable Flavor objects
      */
     public static Observable<Flavor> list(Project _project, Region _region) {
-        return new RequestBuilder("/cloud/project/" + _project.getId() + "/flavor?region=" + ((_region != null) ? _region.getName() : ""), Method.GET, _project.getCredentials())
-                .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray flavors) -> Observable
-                        .range(0, flavors.length())
-                        .map((Integer t2) -> new Flavor(
-                                _project,
-                                flavors.getJSONObject(t2).getString("id"),
-                                flavors.getJSONObject(t2).getInt("disk"),
-                                Region.byName(_project, flavors.getJSONObject(t2).getString("region")),
-                                flavors.getJSONObject(t2).getString("name"),
-                                flavors.getJSONObject(t2).getInt("vcpus"),
-                                flavors.getJSONObject(t2).getString("type"),
-                                flavors.getJSONObject(t2).getString("osType"),
-                                flavors.getJSONObject(t2).getInt("ram"))
-                        )
-                );
+        return _project.getCatalog().flavors(_region);
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _project The project to list flavors of
+     * @param _region The region name to list flavors from (null = all regions)
+     *
+     * @return Zero to several observable Flavor objects, loaded from the API
+     */
+    static Observable<Flavor> fetch(Project _project, String _region) {
+        return new RequestBuilder("/cloud/project/" + _project.getId() + "/flavor?region=" + ((_region != null) ? _region : ""), Method.GET, _project.getCredentials())
+                .streamArray((JsonReader t) -> _project.intern(read(_project, t)));
     }
 
     /**
@@ -147,19 +175,72 @@ public class Flavor {
     public static Observable<Flavor> byId(Project _project, String _id) {
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/flavor/" + _id, Method.GET, _project.getCredentials())
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
-                .map((JSONObject flavor) -> {
-                    return new Flavor(_project,
-                            flavor.getString("id"),
-                            flavor.getInt("disk"),
-                            Region.byName(_project, flavor.getString("region")),
-                            flavor.getString("name"),
-                            flavor.getInt("vcpus"),
-                            flavor.getString("type"),
-                            flavor.getString("osType"),
-                            flavor.getInt("ram")
-                    );
-                });
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> read(_project, t)))
+                .map((Flavor t) -> _project.intern(t));
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _project the project the flavor belongs to
+     * @param _reader the reader, positioned before a flavor object
+     *
+     * @return a Flavor object
+     *
+     * @throws JSONException if the flavor object is malformed
+     */
+    static Flavor read(Project _project, JsonReader _reader) throws JSONException {
+        String id = null;
+        Integer disk = null;
+        String region = null;
+        String name = null;
+        Integer vcpus = null;
+        String type = null;
+        String osType = null;
+        Integer ram = null;
+
+        _reader.beginObject();
+        while (_reader.hasNext()) {
+            switch (_reader.nextName()) {
+                case "id":
+                    id = _reader.nextString();
+                    break;
+                case "disk":
+                    disk = _reader.nextInt();
+                    break;
+                case "region":
+                    region = _reader.nextString();
+                    break;
+                case "name":
+                    name = _reader.nextString();
+                    break;
+                case "vcpus":
+                    vcpus = _reader.nextInt();
+                    break;
+                case "type":
+                    type = _reader.nextString();
+                    break;
+                case "osType":
+                    osType = _reader.nextString();
+                    break;
+                case "ram":
+                    ram = _reader.nextInt();
+                    break;
+                default:
+                    _reader.skipValue();
+            }
+        }
+        _reader.endObject();
+
+        return new Flavor(_project,
+                JsonReader.require(id, "id"),
+                JsonReader.require(disk, "disk"),
+                Region.byName(_project, JsonReader.require(region, "region")),
+                JsonReader.require(name, "name"),
+                JsonReader.require(vcpus, "vcpus"),
+                JsonReader.require(type, "type"),
+                JsonReader.require(osType, "osType"),
+                JsonReader.require(ram, "ram"));
     }
 
     /**
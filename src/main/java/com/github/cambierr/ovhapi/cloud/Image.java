@@ -23,13 +23,13 @@
  */
 package com.github.cambierr.ovhapi.cloud;
 
+import com.github.cambierr.ovhapi.common.JsonReader;
 import com.github.cambierr.ovhapi.common.Method;
 import com.github.cambierr.ovhapi.common.OvhApi;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
 import com.github.cambierr.ovhapi.common.SafeResponse;
 import com.github.cambierr.ovhapi.exception.PartialObjectException;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.json.JSONException;
 import rx.Observable;
 
 /**
@@ -38,16 +38,16 @@ import rx.Observable;
  */
 public class Image {
 
-    protected String visibility;
-    protected long creationDate;
-    protected String status;
+    protected volatile String visibility;
+    protected volatile long creationDate;
+    protected volatile String status;
     protected final Region region;
-    protected String name;
-    protected String type;
+    protected volatile String name;
+    protected volatile String type;
     protected final String id;
-    protected int minDisk;
+    protected volatile int minDisk;
 
-    protected boolean partial = false;
+    protected volatile boolean partial = false;
     protected final Project project;
 
     protected Image(Project _project, String _id, String _visibility, long _creationDate, String _status, Region _region, String _name, String _type, int _minDisk) {
@@ -72,14 +72,47 @@ public class Image {
      * @return an Image object
      */
     protected static Image byId(Project _project, String _id, Region _region) {
-        Image temp = new Image(_project, _id, null, -1, null, _region, null, null, -1);
-        temp.partial = true;
-        return temp;
+        return _project.image(_id, (String t) -> {
+            Image temp = new Image(_project, t, null, -1, null, _region, null, null, -1);
+            temp.partial = true;
+            return temp;
+        });
+    }
+
+    /**
+     * For internal use only
+     *
+     * <p>
+     * The fields are volatile and partial is written last, so a reader that
+     * sees this image complete also sees all its fields.</p>
+     *
+     * @param _image a loaded copy of this image
+     *
+     * @return this image, completed with the provided copy if it is not
+     * partial
+     */
+    Image hydrate(Image _image) {
+        if (_image != this && !_image.partial) {
+            synchronized (this) {
+                this.visibility = _image.visibility;
+                this.creationDate = _image.creationDate;
+                this.status = _image.status;
+                this.name = _image.name;
+                this.type = _image.type;
+                this.minDisk = _image.minDisk;
+                this.partial = false;
+            }
+        }
+        return this;
     }
 
     /**
      * Completes a partial Image object
      *
+     * <p>
+     * Images of a same region completed within a short time window are loaded
+     * by a single list request.</p>
+     *
      * @return the Observable completed Image object
      */
     public Observable<? extends Image> complete() {
@@ -87,17 +120,14 @@ public class Image {
             return Observable.just(this);
         }
 
-        return byId(project, id)
-                .map((Image t1) -> {
-                    this.visibility = t1.visibility;
-                    this.creationDate = t1.creationDate;
-                    this.status = t1.status;
-                    this.name = t1.name;
-                    this.type = t1.type;
-                    this.minDisk = t1.minDisk;
-                    this.partial = false;
-                    return this;
-                });
+        String regionName = (region == null) ? null : region.getName();
+        return project
+                .loader("image?region=" + ((regionName == null) ? "" : regionName),
+                        (Iterable<String> t) -> fetch(project, regionName, null, null),
+                        Image::getId,
+                        (String t) -> byId(project, t).map((Image t1) -> t1))
+                .load(id)
+                .map((Image t1) -> hydrate(t1));
     }
 
     /**
@@ -110,7 +140,8 @@ public class Image {
     }
 
     /**
-     * Lists all images availables in a project and in a region (of provided)
+     * Lists all images availables in a project and in a region (of provided),
+     * from the project catalog cache if possible
      *
      * @param _project The project to list images of
      * @param _region The region to list images from (null = all regions)
@@ -121,33 +152,34 @@ public class Image {
      * @return Zero to several observable Image objects
      */
     public static Observable<Image> list(Project _project, Region _region, Flavor _flavor, String _osType) {
+        return _project.getCatalog().images(_region, _flavor, _osType);
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _project The project to list images of
+     * @param _region The region name to list images from (null = all regions)
+     * @param _flavor The flavor id to be compatible with (null = no
+     * compatibility requirement)
+     * @param _osType The OS type of the image (null = no requirement)
+     *
+     * @return Zero to several observable Image objects, loaded from the API
+     */
+    static Observable<Image> fetch(Project _project, String _region, String _flavor, String _osType) {
         String args = "";
         if (_region != null) {
-            args += "region=" + _region.getName() + "&";
+            args += "region=" + _region + "&";
         }
         if (_flavor != null) {
-            args += "flavorType=" + _flavor.getId() + "&";
+            args += "flavorType=" + _flavor + "&";
         }
         if (_osType != null) {
             args += "osType=" + _osType + "&";
         }
 
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/image?" + args, Method.GET, _project.getCredentials())
-                .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray images) -> Observable
-                        .range(0, images.length())
-                        .map((Integer t2) -> new Image(_project,
-                                images.getJSONObject(t2).getString("id"),
-                                images.getJSONObject(t2).getString("visibility"),
-                                OvhApi.dateToTime(images.getJSONObject(t2).getString("creationDate")),
-                                images.getJSONObject(t2).getString("status"),
-                                Region.byName(_project, images.getJSONObject(t2).getString("region")),
-                                images.getJSONObject(t2).getString("name"),
-                                images.getJSONObject(t2).getString("type"),
-                                images.getJSONObject(t2).getInt("minDisk")
-                        ))
-                );
+                .streamArray((JsonReader t) -> _project.intern(read(_project, t, Image::new)));
     }
 
     /**
@@ -161,17 +193,85 @@ public class Image {
     public static Observable<? extends Image> byId(Project _project, String _id) {
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/image/" + _id, Method.GET, _project.getCredentials())
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
-                .map((JSONObject image) -> new Image(_project,
-                        image.getString("id"),
-                        image.getString("visibility"),
-                        OvhApi.dateToTime(image.getString("creationDate")),
-                        image.getString("status"),
-                        Region.byName(_project, image.getString("region")),
-                        image.getString("name"),
-                        image.getString("type"),
-                        image.getInt("minDisk")
-                ));
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> read(_project, t, Image::new)))
+                .map((Image t) -> _project.intern(t));
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param <T> the type of the read images
+     * @param _project the project the image belongs to
+     * @param _reader the reader, positioned before an image object
+     * @param _factory the constructor of the read images
+     *
+     * @return an Image (or Snapshot) object
+     *
+     * @throws JSONException if the image object is malformed
+     */
+    static <T extends Image> T read(Project _project, JsonReader _reader, Factory<T> _factory) throws JSONException {
+        String id = null;
+        String visibility = null;
+        String creationDate = null;
+        String status = null;
+        String region = null;
+        String name = null;
+        String type = null;
+        Integer minDisk = null;
+
+        _reader.beginObject();
+        while (_reader.hasNext()) {
+            switch (_reader.nextName()) {
+                case "id":
+                    id = _reader.nextString();
+                    break;
+                case "visibility":
+                    visibility = _reader.nextString();
+                    break;
+                case "creationDate":
+                    creationDate = _reader.nextString();
+                    break;
+                case "status":
+                    status = _reader.nextString();
+                    break;
+                case "region":
+                    region = _reader.nextString();
+                    break;
+                case "name":
+                    name = _reader.nextString();
+                    break;
+                case "type":
+                    type = _reader.nextString();
+                    break;
+                case "minDisk":
+                    minDisk = _reader.nextInt();
+                    break;
+                default:
+                    _reader.skipValue();
+            }
+        }
+        _reader.endObject();
+
+        return _factory.create(_project,
+                JsonReader.require(id, "id"),
+                JsonReader.require(visibility, "visibility"),
+                OvhApi.dateToTime(JsonReader.require(creationDate, "creationDate")),
+                JsonReader.require(status, "status"),
+                Region.byName(_project, JsonReader.require(region, "region")),
+                JsonReader.require(name, "name"),
+                JsonReader.require(type, "type"),
+                JsonReader.require(minDisk, "minDisk"));
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param <T> the type of the created images
+     */
+    @FunctionalInterface
+    interface Factory<T extends Image> {
+
+        T create(Project _project, String _id, String _visibility, long _creationDate, String _status, Region _region, String _name, String _type, int _minDisk);
     }
 
     /**
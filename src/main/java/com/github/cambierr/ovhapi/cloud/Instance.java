@@ -23,13 +23,17 @@
  */
 package com.github.cambierr.ovhapi.cloud;
 
+import com.github.cambierr.ovhapi.common.JsonReader;
 import com.github.cambierr.ovhapi.common.Method;
 import com.github.cambierr.ovhapi.common.OvhApi;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
 import com.github.cambierr.ovhapi.common.SafeResponse;
-import org.json.JSONArray;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONException;
 import org.json.JSONObject;
 import rx.Observable;
+import rx.functions.Func1;
 
 /**
  *
@@ -48,7 +52,7 @@ public class Instance {
 
     private final Project project;
 
-    private Instance(Project _project, Status _status, Region _region, String _name, Image _image, long _creationDate, Flavor _flavor, SshKey _sshKey, String _id) {
+    Instance(Project _project, Status _status, Region _region, String _name, Image _image, long _creationDate, Flavor _flavor, SshKey _sshKey, String _id) {
         project = _project;
         status = _status;
         region = _region;
@@ -63,37 +67,35 @@ public class Instance {
     /**
      * Lists all instances in a project and in a region (if provided)
      *
+     * <p>
+     * Flavors and images are resolved from the catalog cache when it is
+     * loaded, and are partial otherwise (the catalog is then loaded in the
+     * background for the next listings).</p>
+     *
      * @param _project The project to list instances from
      * @param _region The region to list instances from (null = all regions)
      *
      * @return Zero to several observable Instance objects
      */
     public static Observable<Instance> list(Project _project, Region _region) {
+        return Observable.defer(() -> {
+            _project.getCatalog().warm();
+            return fetch(_project, _region);
+        });
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _project The project to list instances from
+     * @param _region The region to list instances from (null = all regions)
+     *
+     * @return Zero to several observable Instance objects, without loading the
+     * catalogs
+     */
+    static Observable<Instance> fetch(Project _project, Region _region) {
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/instance?region=" + ((_region == null) ? "" : _region.getName()), Method.GET, _project.getCredentials())
-                .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray instances) -> Observable
-                        .range(0, instances.length())
-                        .map((Integer t2) -> {
-                            JSONObject instance = instances.getJSONObject(t2);
-                            return new Instance(_project,
-                                    Status.valueOf(instance.getString("status")),
-                                    Region.byName(_project, instance.getString("region")),
-                                    instance.getString("name"),
-                                    Image.byId(_project,
-                                            instance.getString("imageId"),
-                                            Region.byName(_project,
-                                                    instance.getString("region")
-                                            )),
-                                    OvhApi.dateToTime(instance.getString("created")),
-                                    Flavor.byId(_project,
-                                            instance.getString("flavorId"),
-                                            Region.byName(_project,
-                                                    instance.getString("region")
-                                            )),
-                                    instance.get("sshKeyId") == JSONObject.NULL ? null : SshKey.byIdPartial(_project, instance.getString("sshKeyId")),
-                                    instance.getString("id"));
-                        }));
+                .streamArray((JsonReader t) -> read(_project, t));
     }
 
     /**
@@ -107,43 +109,7 @@ public class Instance {
     public static Observable<Instance> byId(Project _project, String _id) {
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/instance/" + _id, Method.GET, _project.getCredentials())
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
-                .map((JSONObject instance) -> {
-                    JSONObject jsonImage = instance.getJSONObject("image");
-                    JSONObject jsonFlavor = instance.getJSONObject("flavor");
-                    JSONObject jsonSshKey = instance.get("sshKey") == JSONObject.NULL ? null : instance.getJSONObject("sshKey");
-                    return new Instance(
-                            _project,
-                            Status.valueOf(instance.getString("status")),
-                            Region.byName(_project, instance.getString("region")),
-                            instance.getString("name"),
-                            new Image(_project,
-                                    jsonImage.getString("id"),
-                                    jsonImage.getString("visibility"),
-                                    OvhApi.dateToTime(jsonImage.getString("creationDate")),
-                                    jsonImage.getString("status"),
-                                    Region.byName(_project, jsonImage.getString("region")),
-                                    jsonImage.getString("name"),
-                                    jsonImage.getString("type"),
-                                    jsonImage.getInt("minDisk")),
-                            OvhApi.dateToTime(instance.getString("created")),
-                            new Flavor(_project,
-                                    jsonFlavor.getString("id"),
-                                    jsonFlavor.getInt("disk"),
-                                    Region.byName(_project, jsonFlavor.getString("region")),
-                                    jsonFlavor.getString("name"),
-                                    jsonFlavor.getInt("vcpus"),
-                                    jsonFlavor.getString("type"),
-                                    jsonFlavor.getString("osType"),
-                                    jsonFlavor.getInt("ram")),
-                            jsonSshKey == null ? null : new SshKey(_project,
-                                            jsonSshKey.getString("id"),
-                                            Region.byName(_project, jsonSshKey.getJSONArray("regions").getString(0)),
-                                            jsonSshKey.getString("name"),
-                                            jsonSshKey.getString("publicKey"),
-                                            jsonSshKey.getString("fingerPrint")),
-                            instance.getString("id"));
-                });
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> read(_project, t)));
     }
 
     /**
@@ -287,43 +253,7 @@ public class Instance {
                         .toString()
                 )
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
-                .map((JSONObject instance) -> {
-                    JSONObject jsonImage = instance.getJSONObject("image");
-                    JSONObject jsonFlavor = instance.getJSONObject("flavor");
-                    JSONObject jsonSshKey = instance.get("sshKey") == JSONObject.NULL ? null : instance.getJSONObject("sshKey");
-                    return new Instance(
-                            _project,
-                            Status.valueOf(instance.getString("status")),
-                            Region.byName(_project, instance.getString("region")),
-                            instance.getString("name"),
-                            new Image(_project,
-                                    jsonImage.getString("id"),
-                                    jsonImage.getString("visibility"),
-                                    OvhApi.dateToTime(jsonImage.getString("creationDate")),
-                                    jsonImage.getString("status"),
-                                    Region.byName(_project, jsonImage.getString("region")),
-                                    jsonImage.getString("name"),
-                                    jsonImage.getString("type"),
-                                    jsonImage.getInt("minDisk")),
-                            OvhApi.dateToTime(instance.getString("created")),
-                            new Flavor(_project,
-                                    jsonFlavor.getString("id"),
-                                    jsonFlavor.getInt("disk"),
-                                    Region.byName(_project, jsonFlavor.getString("region")),
-                                    jsonFlavor.getString("name"),
-                                    jsonFlavor.getInt("vcpus"),
-                                    jsonFlavor.getString("type"),
-                                    jsonFlavor.getString("osType"),
-                                    jsonFlavor.getInt("ram")),
-                            jsonSshKey == null ? null : new SshKey(_project,
-                                            jsonSshKey.getString("id"),
-                                            Region.byName(_project, jsonSshKey.getJSONArray("regions").getString(0)),
-                                            jsonSshKey.getString("name"),
-                                            jsonSshKey.getString("publicKey"),
-                                            jsonSshKey.getString("fingerPrint")),
-                            instance.getString("id"));
-                });
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> read(_project, t)));
     }
 
     /**
@@ -351,24 +281,16 @@ public class Instance {
                         .toString()
                 )
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray instances) -> Observable
-                        .range(0, instances.length())
-                        .map((Integer t) -> {
-                            return new Instance(_project,
-                                    Status.valueOf(instances.getJSONObject(t).getString("status")),
-                                    Region.byName(_project, instances.getJSONObject(t).getString("region")),
-                                    instances.getJSONObject(t).getString("name"),
-                                    Image.byId(_project,
-                                            instances.getJSONObject(t).getString("imageId"),
-                                            Region.byName(_project, instances.getJSONObject(t).getString("region"))),
-                                    OvhApi.dateToTime(instances.getJSONObject(t).getString("created")),
-                                    Flavor.byId(_project,
-                                            instances.getJSONObject(t).getString("flavorId"),
-                                            Region.byName(_project, instances.getJSONObject(t).getString("region"))),
-                                    SshKey.byIdPartial(_project, instances.getJSONObject(t).getString("sshKeyId")),
-                                    instances.getJSONObject(t).getString("id"));
-                        }));
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> {
+                    List<Instance> instances = new ArrayList<>();
+                    t.beginArray();
+                    while (t.hasNext()) {
+                        instances.add(read(_project, t));
+                    }
+                    t.endArray();
+                    return instances;
+                }))
+                .flatMap((List<Instance> t) -> Observable.from(t));
     }
 
     /**
@@ -443,13 +365,41 @@ public class Instance {
      */
     public Observable<Instance> update() {
         return byId(project, id)
-                .map((Instance t1) -> {
-                    this.flavor = t1.flavor;
-                    this.image = t1.image;
-                    this.name = t1.name;
-                    this.status = t1.status;
-                    return this;
-                });
+                .map((Instance t1) -> refresh(t1));
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _instance a loaded copy of this instance
+     *
+     * @return this instance, updated with the provided copy
+     */
+    Instance refresh(Instance _instance) {
+        this.flavor = _instance.flavor;
+        this.image = _instance.image;
+        this.name = _instance.name;
+        this.status = _instance.status;
+        return this;
+    }
+
+    /**
+     * Waits for this instance to reach a status
+     *
+     * <p>
+     * All the instances of a project and a region waited for at the same time
+     * are updated by a single list request per tick (see
+     * {@link Project#getPoller(Region)}).</p>
+     *
+     * @param _status the status to wait for (e.g. ACTIVE after a creation, a
+     * reboot or a resize)
+     *
+     * @return the observable updated Instance, emitted once it has the
+     * provided status (at once if it already has it), or an
+     * UnexpectedStatusException if it reaches the ERROR status instead
+     */
+    public Observable<Instance> waitFor(Status _status) {
+        return project.getPoller(region).await(this, _status);
     }
 
     /**
@@ -491,4 +441,129 @@ public class Instance {
                 .map((Object t1) -> this);
     }
 
+    /**
+     * For internal use only
+     *
+     * @param _project the project the instance belongs to
+     * @param _reader the reader, positioned before an instance object
+     *
+     * @return an Instance object, with its flavor and image taken from the
+     * project catalog cache if present
+     *
+     * @throws JSONException if the instance object is malformed
+     */
+    static Instance read(Project _project, JsonReader _reader) throws JSONException {
+        CatalogCache catalog = _project.getCatalog();
+        return read(_project, _reader, catalog::getFlavorIfPresent, catalog::getImageIfPresent);
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _project the project the instance belongs to
+     * @param _reader the reader, positioned before an instance object
+     * @param _flavors the known flavors, by id
+     * @param _images the known images, by id
+     *
+     * @return an Instance object
+     *
+     * @throws JSONException if the instance object is malformed
+     */
+    static Instance read(Project _project, JsonReader _reader, Func1<String, Flavor> _flavors, Func1<String, Image> _images) throws JSONException {
+        String status = null;
+        String region = null;
+        String name = null;
+        String created = null;
+        String id = null;
+        String imageId = null;
+        String flavorId = null;
+        String sshKeyId = null;
+        Image image = null;
+        Flavor flavor = null;
+        SshKey sshKey = null;
+
+        _reader.beginObject();
+        while (_reader.hasNext()) {
+            switch (_reader.nextName()) {
+                case "status":
+                    status = _reader.nextString();
+                    break;
+                case "region":
+                    region = _reader.nextString();
+                    break;
+                case "name":
+                    name = _reader.nextString();
+                    break;
+                case "created":
+                    created = _reader.nextString();
+                    break;
+                case "id":
+                    id = _reader.nextString();
+                    break;
+                case "imageId":
+                    imageId = _reader.nextStringOrNull();
+                    break;
+                case "flavorId":
+                    flavorId = _reader.nextStringOrNull();
+                    break;
+                case "sshKeyId":
+                    sshKeyId = _reader.nextStringOrNull();
+                    break;
+                case "image":
+                    if (!_reader.nextNull()) {
+                        image = Image.read(_project, _reader, Image::new);
+                    }
+                    break;
+                case "flavor":
+                    if (!_reader.nextNull()) {
+                        flavor = Flavor.read(_project, _reader);
+                    }
+                    break;
+                case "sshKey":
+                    if (!_reader.nextNull()) {
+                        sshKey = SshKey.read(_project, _reader);
+                    }
+                    break;
+                default:
+                    _reader.skipValue();
+            }
+        }
+        _reader.endObject();
+
+        JsonReader.require(region, "region");
+        if (image != null) {
+            Image cached = _images.call(image.getId());
+            image = (cached != null) ? cached : _project.intern(image);
+        } else {
+            image = image(_project, _images.call(JsonReader.require(imageId, "imageId")), imageId, region);
+        }
+        if (flavor != null) {
+            Flavor cached = _flavors.call(flavor.getId());
+            flavor = (cached != null) ? cached : _project.intern(flavor);
+        } else {
+            flavor = flavor(_project, _flavors.call(JsonReader.require(flavorId, "flavorId")), flavorId, region);
+        }
+        if (sshKey == null && sshKeyId != null) {
+            sshKey = SshKey.byIdPartial(_project, sshKeyId);
+        }
+
+        return new Instance(_project,
+                Status.valueOf(JsonReader.require(status, "status")),
+                Region.byName(_project, region),
+                JsonReader.require(name, "name"),
+                image,
+                OvhApi.dateToTime(JsonReader.require(created, "created")),
+                flavor,
+                sshKey,
+                JsonReader.require(id, "id"));
+    }
+
+    private static Image image(Project _project, Image _cached, String _id, String _region) {
+        return (_cached != null) ? _cached : Image.byId(_project, _id, Region.byName(_project, _region));
+    }
+
+    private static Flavor flavor(Project _project, Flavor _cached, String _id, String _region) {
+        return (_cached != null) ? _cached : Flavor.byId(_project, _id, Region.byName(_project, _region));
+    }
+
 }
@@ -24,6 +24,9 @@
 package com.github.cambierr.ovhapi.cloud;
 
 import com.github.cambierr.ovhapi.auth.Credential;
+import com.github.cambierr.ovhapi.common.BatchLoader;
+import com.github.cambierr.ovhapi.common.CacheConfig;
+import com.github.cambierr.ovhapi.common.JsonReader;
 import com.github.cambierr.ovhapi.common.Method;
 import com.github.cambierr.ovhapi.common.OvhApi;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
@@ -31,10 +34,16 @@ import com.github.cambierr.ovhapi.common.SafeResponse;
 import com.github.cambierr.ovhapi.exception.PartialObjectException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import org.json.JSONArray;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
 import org.json.JSONObject;
 import rx.Observable;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
 
 /**
  *
@@ -49,6 +58,13 @@ public class Project {
 
     private boolean partial = false;
     private final Credential credentials;
+    private volatile CatalogCache catalog;
+    private volatile long batchWindow = 10;
+    private final Map<String, BatchLoader<String, ?>> loaders = new ConcurrentHashMap<>();
+    private final Map<String, Region> regions = new ConcurrentHashMap<>();
+    private final Map<String, Flavor> flavors = new ConcurrentHashMap<>();
+    private final Map<String, Image> images = new ConcurrentHashMap<>();
+    private final Map<String, StatusPoller> pollers = new ConcurrentHashMap<>();
 
     private Project(Credential _credentials, String _id, String _status, long _creationDate, boolean _unleash, String _description) {
         this.creationDate = _creationDate;
@@ -101,6 +117,169 @@ public class Project {
         return update();
     }
 
+    /**
+     * Sets how the completions of partial flavors and images of this project
+     * are batched (10ms by default)
+     *
+     * @param _window the time window grouping the completions of a batch (0 =
+     * only group completions requested at once)
+     * @param _unit the unit of the provided window
+     *
+     * @return the updated Project
+     */
+    public Project batching(long _window, TimeUnit _unit) {
+        if (_window < 0) {
+            throw new IllegalArgumentException("window must not be negative");
+        }
+        batchWindow = _unit.toMillis(_window);
+        loaders.clear();
+        return this;
+    }
+
+    /**
+     * For internal use only
+     *
+     * <p>
+     * The batch call lists all the objects of its kind, so the loads of a window
+     * are never split into several batches, and a window holding a single id is
+     * loaded by this id instead of by a whole list.</p>
+     *
+     * @param <V> the type of the loaded objects
+     * @param _name the name of the loader, unique for a type of object and a
+     * batch call
+     * @param _batch the batch call, listing all the objects of its kind
+     * @param _keyOf the id of a loaded object
+     * @param _single the call loading a single object by its id
+     *
+     * @return the batch loader of this project matching the provided name
+     */
+    @SuppressWarnings("unchecked")
+    <V> BatchLoader<String, V> loader(String _name, Func1<? super Iterable<String>, Observable<V>> _batch, Func1<? super V, String> _keyOf, Func1<? super String, Observable<V>> _single) {
+        Func1<Iterable<String>, Observable<V>> batch = (Iterable<String> t) -> {
+            Iterator<String> ids = t.iterator();
+            String first = ids.next();
+            return ids.hasNext() ? _batch.call(t) : _single.call(first);
+        };
+        return (BatchLoader<String, V>) loaders.computeIfAbsent(_name, (String t) -> new BatchLoader<>(batch, _keyOf, _single, batchWindow, TimeUnit.MILLISECONDS, Integer.MAX_VALUE));
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _name the region name
+     * @param _factory creates the region if it is not known yet
+     *
+     * @return the canonical Region object of this project matching the
+     * provided name
+     */
+    Region region(String _name, Func1<String, Region> _factory) {
+        return canonical(regions, _name, _factory);
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _id the flavor id
+     * @param _factory creates a partial flavor if it is not known yet
+     *
+     * @return the canonical Flavor object of this project matching the
+     * provided id
+     */
+    Flavor flavor(String _id, Func1<String, Flavor> _factory) {
+        return canonical(flavors, _id, _factory);
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _flavor a loaded flavor
+     *
+     * @return the canonical Flavor object of this project matching the
+     * provided one, completed with it
+     */
+    Flavor intern(Flavor _flavor) {
+        Flavor known = flavors.putIfAbsent(_flavor.getId(), _flavor);
+        return (known == null) ? _flavor : known.hydrate(_flavor);
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _id the image id
+     * @param _factory creates a partial image if it is not known yet
+     *
+     * @return the canonical Image object of this project matching the provided
+     * id
+     */
+    Image image(String _id, Func1<String, Image> _factory) {
+        return canonical(images, _id, _factory);
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _image a loaded image
+     *
+     * @return the canonical Image object of this project matching the provided
+     * one, completed with it
+     */
+    Image intern(Image _image) {
+        Image known = images.putIfAbsent(_image.getId(), _image);
+        return (known == null) ? _image : known.hydrate(_image);
+    }
+
+    private static <T> T canonical(Map<String, T> _objects, String _key, Func1<String, T> _factory) {
+        T known = _objects.get(_key);
+        return (known != null) ? known : _objects.computeIfAbsent(_key, _factory::call);
+    }
+
+    /**
+     * Sets the caching policy of this project's regions, flavors and images
+     * catalogs
+     *
+     * @param _regions the settings of the regions cache
+     * @param _flavors the settings of the flavors cache
+     * @param _images the settings of the images cache
+     *
+     * @return the updated Project
+     */
+    public Project catalog(CacheConfig _regions, CacheConfig _flavors, CacheConfig _images) {
+        catalog = new CatalogCache(this, _regions, _flavors, _images);
+        return this;
+    }
+
+    /**
+     * Returns the status poller of the instances of a region, shared by all
+     * the instances of this project waiting for a status in this region
+     *
+     * @param _region the region of the polled instances
+     *
+     * @return the status poller of this project matching the provided region
+     */
+    public StatusPoller getPoller(Region _region) {
+        return pollers.computeIfAbsent(_region.getName(), (String t) -> new StatusPoller(() -> Instance.fetch(this, _region), Schedulers.computation()));
+    }
+
+    /**
+     * Returns the cache of this project's regions, flavors and images catalogs
+     * (entries expire after 10 minutes unless configured otherwise)
+     *
+     * @return the catalog cache of this project
+     */
+    public CatalogCache getCatalog() {
+        CatalogCache result = catalog;
+        if (result == null) {
+            synchronized (this) {
+                result = catalog;
+                if (result == null) {
+                    result = new CatalogCache(this, new CacheConfig(), new CacheConfig(), new CacheConfig());
+                    catalog = result;
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the credentials of this project
      *
@@ -172,14 +351,56 @@ public class Project {
     public static Observable<Project> byId(Credential _credentials, String _id) {
         return new RequestBuilder("/cloud/project/" + _id, Method.GET, _credentials)
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
-                .map((JSONObject project) -> new Project(_credentials,
-                        project.getString("project_id"),
-                        project.getString("status"),
-                        OvhApi.dateToTime(project.getString("creationDate")),
-                        project.getBoolean("unleash"),
-                        project.getString("description")
-                ));
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> read(_credentials, t)));
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _credentials the credentials the project is loaded with
+     * @param _reader the reader, positioned before a project object
+     *
+     * @return a Project object
+     *
+     * @throws JSONException if the project object is malformed
+     */
+    static Project read(Credential _credentials, JsonReader _reader) throws JSONException {
+        String id = null;
+        String status = null;
+        String creationDate = null;
+        Boolean unleash = null;
+        String description = null;
+
+        _reader.beginObject();
+        while (_reader.hasNext()) {
+            switch (_reader.nextName()) {
+                case "project_id":
+                    id = _reader.nextString();
+                    break;
+                case "status":
+                    status = _reader.nextString();
+                    break;
+                case "creationDate":
+                    creationDate = _reader.nextString();
+                    break;
+                case "unleash":
+                    unleash = _reader.nextBoolean();
+                    break;
+                case "description":
+                    description = _reader.nextString();
+                    break;
+                default:
+                    _reader.skipValue();
+            }
+        }
+        _reader.endObject();
+
+        return new Project(_credentials,
+                JsonReader.require(id, "project_id"),
+                JsonReader.require(status, "status"),
+                OvhApi.dateToTime(JsonReader.require(creationDate, "creationDate")),
+                JsonReader.require(unleash, "unleash"),
+                JsonReader.require(description, "description"));
     }
 
     /**
@@ -191,12 +412,8 @@ public class Project {
      */
     public static Observable<Project> list(Credential _credentials) {
         return new RequestBuilder("/cloud/project", Method.GET, _credentials)
-                .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray resp) -> Observable
-                        .range(0, resp.length())
-                        .map((Integer t) -> new Project(_credentials, resp.getString(t)))
-                );
+                .streamArray(String.class)
+                .map((String project) -> new Project(_credentials, project));
     }
 
     /**
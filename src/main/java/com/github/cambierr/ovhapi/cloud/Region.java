@@ -25,8 +25,6 @@ package com.github.cambierr.ovhapi.cloud;
 
 import com.github.cambierr.ovhapi.common.Method;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
-import com.github.cambierr.ovhapi.common.SafeResponse;
-import org.json.JSONArray;
 import rx.Observable;
 
 /**
@@ -53,25 +51,35 @@ public class Region {
      * @return a Region object
      */
     public static Region byName(Project _project, String _name) {
-        return new Region(_project, _name);
+        if (_project == null || _name == null) {
+            return new Region(_project, _name);
+        }
+        return _project.region(_name, (String t) -> new Region(_project, t));
     }
 
     /**
-     * Lists all regions available in the provided project
+     * Lists all regions available in the provided project, from the project
+     * catalog cache if possible
      *
      * @param _project the project to list regions of
      *
      * @return Zero to several observable Region objects
      */
     public static Observable<Region> list(Project _project) {
-        return new RequestBuilder("/cloud/project/" + _project.getId() + "/region", Method.GET, _project.getCredentials())
-                .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray regions) -> Observable
-                        .range(0, regions.length())
-                        .map((Integer t2) -> new Region(_project, regions.getString(t2)))
-                );
+        return _project.getCatalog().regions();
+    }
 
+    /**
+     * For internal use only
+     *
+     * @param _project the project to list regions of
+     *
+     * @return Zero to several observable Region objects, loaded from the API
+     */
+    static Observable<Region> fetch(Project _project) {
+        return new RequestBuilder("/cloud/project/" + _project.getId() + "/region", Method.GET, _project.getCredentials())
+                .streamArray(String.class)
+                .map((String region) -> byName(_project, region));
     }
 
     /**
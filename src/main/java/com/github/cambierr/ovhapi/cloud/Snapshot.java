@@ -23,13 +23,11 @@
  */
 package com.github.cambierr.ovhapi.cloud;
 
+import com.github.cambierr.ovhapi.common.JsonReader;
 import com.github.cambierr.ovhapi.common.Method;
-import com.github.cambierr.ovhapi.common.OvhApi;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
 import com.github.cambierr.ovhapi.common.SafeResponse;
 import com.github.cambierr.ovhapi.exception.PartialObjectException;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import rx.Observable;
 
 /**
@@ -111,20 +109,7 @@ public class Snapshot extends Image {
         }
 
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/snapshot?" + args, Method.GET, _project.getCredentials())
-                .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray snapshots) -> Observable
-                        .range(0, snapshots.length())
-                        .map((Integer t2) -> new Snapshot(_project,
-                                snapshots.getJSONObject(t2).getString("id"),
-                                snapshots.getJSONObject(t2).getString("visibility"),
-                                OvhApi.dateToTime(snapshots.getJSONObject(t2).getString("creationDate")),
-                                snapshots.getJSONObject(t2).getString("status"),
-                                Region.byName(_project, snapshots.getJSONObject(t2).getString("region")),
-                                snapshots.getJSONObject(t2).getString("name"),
-                                snapshots.getJSONObject(t2).getString("type"),
-                                snapshots.getJSONObject(t2).getInt("minDisk")
-                        )));
+                .streamArray((JsonReader t) -> read(_project, t, Snapshot::new));
     }
 
     /**
@@ -138,17 +123,7 @@ public class Snapshot extends Image {
     public static Observable<Snapshot> byId(Project _project, String _id) {
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/snapshot/" + _id, Method.GET, _project.getCredentials())
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
-                .map((JSONObject image) -> new Snapshot(_project,
-                        image.getString("id"),
-                        image.getString("visibility"),
-                        OvhApi.dateToTime(image.getString("creationDate")),
-                        image.getString("status"),
-                        Region.byName(_project, image.getString("region")),
-                        image.getString("name"),
-                        image.getString("type"),
-                        image.getInt("minDisk")
-                ));
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> read(_project, t, Snapshot::new)));
     }
 
     /**
@@ -23,11 +23,12 @@
  */
 package com.github.cambierr.ovhapi.cloud;
 
+import com.github.cambierr.ovhapi.common.JsonReader;
 import com.github.cambierr.ovhapi.common.Method;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
 import com.github.cambierr.ovhapi.common.SafeResponse;
 import com.github.cambierr.ovhapi.exception.PartialObjectException;
-import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import rx.Observable;
 
@@ -85,15 +86,7 @@ public class SshKey {
         }
 
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/sshkey?" + args, Method.GET, _project.getCredentials())
-                .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray keys) -> Observable
-                        .range(0, keys.length())
-                        .map((Integer t2) -> {
-                            JSONObject key = keys.getJSONObject(t2);
-                            return new SshKey(_project, key.getString("id"), Region.byName(_project, key.getJSONArray("regions").getString(0)), key.getString("name"), key.getString("publicKey"), null);
-                        })
-                );
+                .streamArray((JsonReader t) -> read(_project, t));
     }
 
     /**
@@ -107,15 +100,64 @@ public class SshKey {
     public static Observable<SshKey> byId(Project _project, String _id) {
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/sshkey/" + _id, Method.GET, _project.getCredentials())
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
-                .map((JSONObject key) -> {
-                    return new SshKey(_project,
-                            key.getString("id"),
-                            Region.byName(_project, key.getJSONArray("regions").getString(0)),
-                            key.getString("name"),
-                            key.getString("publicKey"),
-                            key.getString("fingerPrint"));
-                });
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> read(_project, t)));
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _project the project the key belongs to
+     * @param _reader the reader, positioned before a key object
+     *
+     * @return a SshKey object
+     *
+     * @throws JSONException if the key object is malformed
+     */
+    static SshKey read(Project _project, JsonReader _reader) throws JSONException {
+        String id = null;
+        String region = null;
+        String name = null;
+        String publicKey = null;
+        String fingerPrint = null;
+
+        _reader.beginObject();
+        while (_reader.hasNext()) {
+            switch (_reader.nextName()) {
+                case "id":
+                    id = _reader.nextString();
+                    break;
+                case "regions":
+                    _reader.beginArray();
+                    while (_reader.hasNext()) {
+                        if (region == null) {
+                            region = _reader.nextString();
+                        } else {
+                            _reader.skipValue();
+                        }
+                    }
+                    _reader.endArray();
+                    break;
+                case "name":
+                    name = _reader.nextString();
+                    break;
+                case "publicKey":
+                    publicKey = _reader.nextString();
+                    break;
+                case "fingerPrint":
+                    fingerPrint = _reader.nextStringOrNull();
+                    break;
+                default:
+                    _reader.skipValue();
+            }
+        }
+        _reader.endObject();
+
+        return new SshKey(_project,
+                JsonReader.require(id, "id"),
+                Region.byName(_project, JsonReader.require(region, "regions")),
+                JsonReader.require(name, "name"),
+                JsonReader.require(publicKey, "publicKey"),
+                fingerPrint);
     }
 
     /**
@@ -0,0 +1,410 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.cloud;
+
+import com.github.cambierr.ovhapi.cloud.Instance.Status;
+import com.github.cambierr.ovhapi.exception.UnexpectedStatusException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.functions.Func0;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * Waits for instances of a project and a region to reach a status, with a
+ * single instance list request per tick for all of them
+ *
+ * <p>
+ * Ticks only happen while some instance is waited for. Their interval adapts
+ * to the expected end of the pending transitions, estimated by a moving
+ * average of the previous ones (per initial and target status), and shortens
+ * as more transitions are pending: polling is sparse until a transition is
+ * expected to end, then denser.</p>
+ *
+ * <p>
+ * A failed list request (even after the retries of the client, if any, or
+ * with an open circuit) keeps the waits pending and delays the next tick by
+ * the maximum interval: they only fail after several failed ticks in a
+ * row.</p>
+ *
+ * @author cambierr
+ */
+public class StatusPoller {
+
+    private static final double WEIGHT = 0.3;
+
+    private final Func0<Observable<Instance>> fetch;
+    private final Scheduler scheduler;
+
+    private volatile long minInterval = 1000;
+    private volatile long maxInterval = 30000;
+    private volatile long initialEstimate = 60000;
+    private volatile int maxFailures = 3;
+
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final Map<String, Long> estimates = new HashMap<>();
+    private Scheduler.Worker worker;
+    private Subscription scheduled;
+    private long nextTick;
+    private boolean polling = false;
+    private long ticks = 0;
+    private int failures = 0;
+
+    /**
+     * For internal use only
+     *
+     * @param _fetch lists the instances of the polled project and region
+     * @param _scheduler the scheduler ticks are run on
+     */
+    StatusPoller(Func0<Observable<Instance>> _fetch, Scheduler _scheduler) {
+        fetch = _fetch;
+        scheduler = _scheduler;
+    }
+
+    /**
+     * Sets the bounds of the interval between two ticks (1 and 30 seconds by
+     * default)
+     *
+     * @param _min the minimum interval
+     * @param _max the maximum interval
+     * @param _unit the unit of the provided intervals
+     *
+     * @return the updated StatusPoller
+     */
+    public StatusPoller intervals(long _min, long _max, TimeUnit _unit) {
+        if (_min <= 0 || _max < _min) {
+            throw new IllegalArgumentException("intervals must be positive and ordered");
+        }
+        minInterval = _unit.toMillis(_min);
+        maxInterval = _unit.toMillis(_max);
+        return this;
+    }
+
+    /**
+     * Sets the expected duration of transitions to statuses never observed
+     * yet (1 minute by default)
+     *
+     * @param _duration the expected duration of a transition
+     * @param _unit the unit of the provided duration
+     *
+     * @return the updated StatusPoller
+     */
+    public StatusPoller estimate(long _duration, TimeUnit _unit) {
+        if (_duration <= 0) {
+            throw new IllegalArgumentException("duration must be positive");
+        }
+        initialEstimate = _unit.toMillis(_duration);
+        return this;
+    }
+
+    /**
+     * Sets the number of failed ticks in a row after which the pending waits
+     * fail (3 by default)
+     *
+     * @param _maxFailures the number of consecutive failed ticks
+     *
+     * @return the updated StatusPoller
+     */
+    public StatusPoller maxFailures(int _maxFailures) {
+        if (_maxFailures <= 0) {
+            throw new IllegalArgumentException("maxFailures must be positive");
+        }
+        maxFailures = _maxFailures;
+        return this;
+    }
+
+    /**
+     * Returns the minimum interval between two ticks
+     *
+     * @return the minimum interval, in milliseconds
+     */
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    /**
+     * Returns the maximum interval between two ticks
+     *
+     * @return the maximum interval, in milliseconds
+     */
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    /**
+     * Returns the number of failed ticks in a row after which the pending
+     * waits fail
+     *
+     * @return the number of consecutive failed ticks
+     */
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    /**
+     * Returns the expected duration of a transition between two statuses
+     *
+     * @param _from the initial status
+     * @param _to the target status
+     *
+     * @return the moving average of the observed durations, or the initial
+     * estimate if none has been observed, in milliseconds
+     */
+    public synchronized long getEstimate(Status _from, Status _to) {
+        Long estimate = estimates.get(transition(_from, _to));
+        return (estimate == null) ? initialEstimate : estimate;
+    }
+
+    /**
+     * Returns the number of instances waited for
+     *
+     * @return the number of pending transitions
+     */
+    public synchronized int getPending() {
+        return waiters.size();
+    }
+
+    /**
+     * Returns the number of instance list requests sent by this poller
+     *
+     * @return the number of ticks
+     */
+    public synchronized long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Waits for an instance to reach a status
+     *
+     * <p>
+     * The instance is updated by each tick. Waiting for the DELETED status
+     * also ends when the instance is not listed anymore.</p>
+     *
+     * @param _instance the instance to wait for
+     * @param _status the status to wait for
+     *
+     * @return the observable updated instance, emitted once it has the
+     * provided status, or an UnexpectedStatusException if it reaches the ERROR
+     * status instead
+     */
+    public Observable<Instance> await(Instance _instance, Status _status) {
+        return Observable.create((Subscriber<? super Instance> arg0) -> {
+            if (_instance.getStatus() == _status) {
+                arg0.onNext(_instance);
+                arg0.onCompleted();
+                return;
+            }
+            Waiter waiter = new Waiter(_instance, _instance.getStatus(), _status, arg0, scheduler.now());
+            arg0.add(Subscriptions.create(() -> remove(waiter)));
+            add(waiter);
+        });
+    }
+
+    private synchronized void add(Waiter _waiter) {
+        waiters.add(_waiter);
+        if (polling) {
+            return;
+        }
+        if (worker == null) {
+            worker = scheduler.createWorker();
+        }
+        long now = scheduler.now();
+        long delay = delay(now);
+        if (scheduled == null || now + delay < nextTick) {
+            schedule(now, delay);
+        }
+    }
+
+    private synchronized void remove(Waiter _waiter) {
+        waiters.remove(_waiter);
+        if (waiters.isEmpty() && !polling) {
+            stop();
+        }
+    }
+
+    private void schedule(long _now, long _delay) {
+        if (scheduled != null) {
+            scheduled.unsubscribe();
+        }
+        nextTick = _now + _delay;
+        scheduled = worker.schedule(this::tick, _delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void stop() {
+        if (scheduled != null) {
+            scheduled.unsubscribe();
+            scheduled = null;
+        }
+        if (worker != null) {
+            worker.unsubscribe();
+            worker = null;
+        }
+    }
+
+    private void tick() {
+        synchronized (this) {
+            scheduled = null;
+            if (waiters.isEmpty()) {
+                stop();
+                return;
+            }
+            polling = true;
+            ticks++;
+        }
+        fetch.call()
+                .toList()
+                .subscribe((List<Instance> t) -> resolve(t), (Throwable t) -> fail(t));
+    }
+
+    /**
+     * Updates the waited instances with the listed ones, then ends the waits
+     * of the instances having their target status
+     */
+    private void resolve(List<Instance> _instances) {
+        Map<String, Instance> listed = new HashMap<>();
+        for (Instance instance : _instances) {
+            listed.put(instance.getId(), instance);
+        }
+        List<Waiter> reached = new ArrayList<>();
+        List<Waiter> failed = new ArrayList<>();
+        synchronized (this) {
+            failures = 0;
+            long now = scheduler.now();
+            Iterator<Waiter> it = waiters.iterator();
+            while (it.hasNext()) {
+                Waiter waiter = it.next();
+                Instance instance = listed.get(waiter.instance.getId());
+                if (instance != null) {
+                    waiter.instance.refresh(instance);
+                }
+                Status status = waiter.instance.getStatus();
+                if (status == waiter.status || (instance == null && waiter.status == Status.DELETED)) {
+                    String transition = transition(waiter.from, waiter.status);
+                    Long estimate = estimates.get(transition);
+                    long duration = now - waiter.since;
+                    estimates.put(transition, (estimate == null) ? duration : (long) (WEIGHT * duration + (1 - WEIGHT) * estimate));
+                    reached.add(waiter);
+                    it.remove();
+                } else if (status == Status.ERROR) {
+                    failed.add(waiter);
+                    it.remove();
+                }
+            }
+            next();
+        }
+        for (Waiter waiter : reached) {
+            waiter.subscriber.onNext(waiter.instance);
+            waiter.subscriber.onCompleted();
+        }
+        for (Waiter waiter : failed) {
+            waiter.subscriber.onError(new UnexpectedStatusException(waiter.instance.getId(), Status.ERROR.name(), waiter.status.name()));
+        }
+    }
+
+    /**
+     * Backs off to the maximum interval after a failed list request, and fails
+     * the pending waits once too many ticks failed in a row
+     */
+    private void fail(Throwable _error) {
+        List<Waiter> failed = new ArrayList<>();
+        synchronized (this) {
+            failures++;
+            if (failures < maxFailures && !waiters.isEmpty()) {
+                polling = false;
+                schedule(scheduler.now(), maxInterval);
+                return;
+            }
+            failures = 0;
+            failed.addAll(waiters);
+            waiters.clear();
+            next();
+        }
+        for (Waiter waiter : failed) {
+            waiter.subscriber.onError(_error);
+        }
+    }
+
+    /**
+     * Schedules the next tick after a list request, or stops polling if no
+     * instance is waited for anymore
+     */
+    private void next() {
+        polling = false;
+        if (waiters.isEmpty()) {
+            stop();
+        } else {
+            long now = scheduler.now();
+            schedule(now, delay(now));
+        }
+    }
+
+    /**
+     * Returns the delay before the next tick: the tick interval is the
+     * expected duration of the next transition to end, divided by the number
+     * of pending transitions (plus 4), and ticks are skipped until this
+     * transition is about to end
+     */
+    private long delay(long _now) {
+        long soonest = Long.MAX_VALUE;
+        long estimate = Long.MAX_VALUE;
+        for (Waiter waiter : waiters) {
+            long expected = getEstimate(waiter.from, waiter.status);
+            if (waiter.since + expected < soonest) {
+                soonest = waiter.since + expected;
+                estimate = expected;
+            }
+        }
+        long interval = Math.max(minInterval, Math.min(maxInterval, estimate / (4 + waiters.size())));
+        return Math.max(minInterval, Math.min(maxInterval, Math.max(interval, soonest - _now - interval)));
+    }
+
+    private static String transition(Status _from, Status _to) {
+        return _from + ">" + _to;
+    }
+
+    private static class Waiter {
+
+        private final Instance instance;
+        private final Status from;
+        private final Status status;
+        private final Subscriber<? super Instance> subscriber;
+        private final long since;
+
+        private Waiter(Instance _instance, Status _from, Status _status, Subscriber<? super Instance> _subscriber, long _since) {
+            instance = _instance;
+            from = _from;
+            status = _status;
+            subscriber = _subscriber;
+            since = _since;
+        }
+    }
+
+}
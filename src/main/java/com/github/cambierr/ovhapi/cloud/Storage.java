@@ -23,11 +23,12 @@
  */
 package com.github.cambierr.ovhapi.cloud;
 
+import com.github.cambierr.ovhapi.common.JsonReader;
 import com.github.cambierr.ovhapi.common.Method;
 import com.github.cambierr.ovhapi.common.RequestBuilder;
 import com.github.cambierr.ovhapi.common.SafeResponse;
 import com.github.cambierr.ovhapi.exception.PartialObjectException;
-import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import rx.Observable;
 
@@ -80,20 +81,7 @@ public class Storage {
      */
     public static Observable<Storage> list(Project _project) {
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/storage", Method.GET, _project.getCredentials())
-                .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONArray.class))
-                .flatMap((JSONArray containers) -> Observable
-                        .range(0, containers.length())
-                        .map((Integer t2) -> {
-                            JSONObject container = containers.getJSONObject(t2);
-                            return new Storage(_project,
-                                    container.getString("id"),
-                                    container.getString("name"),
-                                    Region.byName(_project, container.getString("region")),
-                                    container.getLong("storedBytes"),
-                                    container.getLong("storedObjects"));
-                        })
-                );
+                .streamArray((JsonReader t) -> read(_project, null, t));
     }
 
     /**
@@ -107,16 +95,80 @@ public class Storage {
     public static Observable<Storage> byId(Project _project, String _id) {
         return new RequestBuilder("/cloud/project/" + _project.getId() + "/storage/" + _id, Method.GET, _project.getCredentials())
                 .build()
-                .flatMap((SafeResponse arg0) -> arg0.validateResponse(JSONObject.class))
-                .map((JSONObject container) -> new Storage(_project,
-                        _id,
-                        container.getString("name"),
-                        Region.byName(_project, container.getString("region")),
-                        container.getLong("storedBytes"),
-                        container.getLong("storedObjects"),
-                        container.getString("staticUrl"),
-                        container.getBoolean("public"))
-                );
+                .flatMap((SafeResponse arg0) -> arg0.bindResponse((JsonReader t) -> read(_project, _id, t)));
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _project the project the container belongs to
+     * @param _id the id of the container, if loaded by id (null for a
+     * listed, partial, container)
+     * @param _reader the reader, positioned before a container object
+     *
+     * @return a Storage object
+     *
+     * @throws JSONException if the container object is malformed
+     */
+    static Storage read(Project _project, String _id, JsonReader _reader) throws JSONException {
+        String id = _id;
+        String name = null;
+        String region = null;
+        Long storedBytes = null;
+        Long storedObjects = null;
+        String staticUrl = null;
+        Boolean isPublic = null;
+
+        _reader.beginObject();
+        while (_reader.hasNext()) {
+            switch (_reader.nextName()) {
+                case "id":
+                    if (_id == null) {
+                        id = _reader.nextString();
+                    } else {
+                        _reader.skipValue();
+                    }
+                    break;
+                case "name":
+                    name = _reader.nextString();
+                    break;
+                case "region":
+                    region = _reader.nextString();
+                    break;
+                case "storedBytes":
+                    storedBytes = _reader.nextLong();
+                    break;
+                case "storedObjects":
+                    storedObjects = _reader.nextLong();
+                    break;
+                case "staticUrl":
+                    staticUrl = _reader.nextString();
+                    break;
+                case "public":
+                    isPublic = _reader.nextBoolean();
+                    break;
+                default:
+                    _reader.skipValue();
+            }
+        }
+        _reader.endObject();
+
+        if (_id == null) {
+            return new Storage(_project,
+                    JsonReader.require(id, "id"),
+                    JsonReader.require(name, "name"),
+                    Region.byName(_project, JsonReader.require(region, "region")),
+                    JsonReader.require(storedBytes, "storedBytes"),
+                    JsonReader.require(storedObjects, "storedObjects"));
+        }
+        return new Storage(_project,
+                id,
+                JsonReader.require(name, "name"),
+                Region.byName(_project, JsonReader.require(region, "region")),
+                JsonReader.require(storedBytes, "storedBytes"),
+                JsonReader.require(storedObjects, "storedObjects"),
+                JsonReader.require(staticUrl, "staticUrl"),
+                JsonReader.require(isPublic, "public"));
     }
 
     /**
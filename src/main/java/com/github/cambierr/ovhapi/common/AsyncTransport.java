@@ -0,0 +1,690 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.ManagedNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
+import rx.Observable;
+import rx.Producer;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Action1;
+import rx.schedulers.Schedulers;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * Non-blocking Transport built on the NIO based Apache HttpAsyncClient
+ *
+ * <p>
+ * No thread is held while a request is in flight: responses are delivered by
+ * the I/O reactor callback, then handed over to a scheduler so that model
+ * mapping never runs on (and stalls) an I/O dispatcher thread.</p>
+ *
+ * <p>
+ * Response bodies are read into pooled direct buffers. Streamed bodies are
+ * handed over chunk by chunk in these buffers. Buffered bodies are assembled
+ * in them without reallocating on each read, then copied once into an array
+ * of their exact size, owned by the SafeResponse (which may outlive the call,
+ * for instance in a ValidatorCache).</p>
+ *
+ * @author cambierr
+ */
+public class AsyncTransport implements Transport {
+
+    private final CloseableHttpAsyncClient client;
+    private final PoolingNHttpClientConnectionManager pool;
+    private final Scheduler.Worker evictor;
+    private final Scheduler scheduler;
+    private final BufferPool buffers;
+
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Creates a transport with the default pool settings, delivering
+     * responses on the computation scheduler
+     */
+    public AsyncTransport() {
+        this(new PoolConfig(), Schedulers.computation());
+    }
+
+    /**
+     * Creates a transport with the default pool settings, delivering
+     * responses on the provided scheduler
+     *
+     * @param _scheduler the scheduler responses are observed on
+     */
+    public AsyncTransport(Scheduler _scheduler) {
+        this(new PoolConfig(), _scheduler);
+    }
+
+    /**
+     * Creates a transport with its own connection pool, delivering responses
+     * on the provided scheduler
+     *
+     * @param _config the connection pool settings
+     * @param _scheduler the scheduler responses are observed on
+     */
+    public AsyncTransport(PoolConfig _config, Scheduler _scheduler) {
+        this(_config, BufferPool.getDefault(), _scheduler);
+    }
+
+    /**
+     * Creates a transport with its own connection pool, reading bodies into
+     * buffers of the provided pool and delivering responses on the provided
+     * scheduler
+     *
+     * @param _config the connection pool settings
+     * @param _buffers the pool response bodies are read into
+     * @param _scheduler the scheduler responses are observed on
+     */
+    public AsyncTransport(PoolConfig _config, BufferPool _buffers, Scheduler _scheduler) {
+        scheduler = _scheduler;
+        buffers = _buffers;
+        try {
+            pool = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(IOReactorConfig.DEFAULT, new DaemonThreadFactory()),
+                    ManagedNHttpClientConnectionFactory.INSTANCE,
+                    RegistryBuilder.<SchemeIOSessionStrategy>create()
+                    .register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", (_config.getSslContext() == null) ? SSLIOSessionStrategy.getDefaultStrategy() : new SSLIOSessionStrategy(_config.getSslContext()))
+                    .build(),
+                    DefaultSchemePortResolver.INSTANCE,
+                    SystemDefaultDnsResolver.INSTANCE,
+                    _config.getTimeToLive(),
+                    TimeUnit.MILLISECONDS);
+        } catch (IOReactorException ex) {
+            throw new RuntimeException(ex);
+        }
+        pool.setMaxTotal(_config.getMaxTotal());
+        pool.setDefaultMaxPerRoute(_config.getMaxPerRoute());
+
+        long keepAlive = _config.getKeepAlive();
+        client = HttpAsyncClients.custom()
+                .setThreadFactory(new DaemonThreadFactory())
+                .setConnectionManager(pool)
+                .setKeepAliveStrategy((response, context) -> {
+                    long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return (announced < 0) ? keepAlive : Math.min(announced, keepAlive);
+                })
+                .build();
+        client.start();
+
+        long idleTimeout = _config.getIdleTimeout();
+        if (idleTimeout > 0) {
+            long period = Math.max(idleTimeout / 2, 1000);
+            evictor = Schedulers.computation().createWorker();
+            evictor.schedulePeriodically(() -> {
+                pool.closeExpiredConnections();
+                pool.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    /**
+     * Returns the current state of the connection pool of this transport
+     *
+     * @return a snapshot of the connection pool state
+     */
+    public PoolStats getPoolStats() {
+        org.apache.http.pool.PoolStats stats = pool.getTotalStats();
+        return new PoolStats(stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    /**
+     * Returns the pool response bodies are read into
+     *
+     * @return the buffer pool of this transport
+     */
+    public BufferPool getBufferPool() {
+        return buffers;
+    }
+
+    @Override
+    public Observable<SafeResponse> execute(PreparedRequest _request) {
+        return Observable
+                .create((Subscriber<? super SafeResponse> arg0) -> {
+                    HttpRequestBase req;
+                    try {
+                        req = toHttpRequest(_request);
+                    } catch (Exception ex) {
+                        arg0.onError(ex);
+                        return;
+                    }
+                    BufferingConsumer consumer = new BufferingConsumer(buffers);
+                    Future<SafeResponse> future;
+                    try {
+                        future = client.execute(HttpAsyncMethods.create(req), consumer, new FutureCallback<SafeResponse>() {
+                            @Override
+                            public void completed(SafeResponse t) {
+                                arg0.onNext(t);
+                                arg0.onCompleted();
+                            }
+
+                            @Override
+                            public void failed(Exception ex) {
+                                arg0.onError(ex);
+                            }
+
+                            @Override
+                            public void cancelled() {
+                                if (!arg0.isUnsubscribed()) {
+                                    arg0.onError(new CancellationException("request cancelled"));
+                                }
+                            }
+                        });
+                    } catch (RuntimeException ex) {
+                        consumer.failed(ex);
+                        arg0.onError(ex);
+                        return;
+                    }
+                    arg0.add(Subscriptions.create(() -> {
+                        if (!future.isDone()) {
+                            req.abort();
+                        }
+                    }));
+                })
+                .observeOn(scheduler);
+    }
+
+    @Override
+    public Observable<PooledBuffer> stream(PreparedRequest _request, Action1<? super SafeResponse> _onHead) {
+        return Observable
+                .create((Subscriber<? super PooledBuffer> arg0) -> {
+                    HttpRequestBase req;
+                    try {
+                        req = toHttpRequest(_request);
+                    } catch (Exception ex) {
+                        arg0.onError(ex);
+                        return;
+                    }
+                    StreamingConsumer consumer = new StreamingConsumer(arg0, _onHead, buffers, scheduler.createWorker());
+                    arg0.setProducer(consumer);
+                    Future<RequestException> future;
+                    try {
+                        future = client.execute(HttpAsyncMethods.create(req), consumer, new FutureCallback<RequestException>() {
+                            @Override
+                            public void completed(RequestException t) {
+                                if (t != null) {
+                                    consumer.fail(t);
+                                } else {
+                                    consumer.finish();
+                                }
+                            }
+
+                            @Override
+                            public void failed(Exception ex) {
+                                consumer.fail(ex);
+                            }
+
+                            @Override
+                            public void cancelled() {
+                                consumer.fail(new CancellationException("request cancelled"));
+                            }
+                        });
+                    } catch (RuntimeException ex) {
+                        consumer.failed(ex);
+                        consumer.fail(ex);
+                        return;
+                    }
+                    arg0.add(Subscriptions.create(() -> {
+                        if (!future.isDone()) {
+                            req.abort();
+                        }
+                        consumer.drain();
+                    }));
+                });
+    }
+
+    /**
+     * Shuts down the underlying I/O reactor and closes all its connections
+     *
+     * @throws IOException if the client could not be closed properly
+     */
+    @Override
+    public void close() throws IOException {
+        if (evictor != null) {
+            evictor.unsubscribe();
+        }
+        client.close();
+    }
+
+    private static HttpRequestBase toHttpRequest(PreparedRequest _request) throws Exception {
+        String url = normalize(_request.getUrl());
+        HttpRequestBase req;
+        switch (_request.getMethod()) {
+            case GET:
+                req = new HttpGet(url);
+                break;
+            case DELETE:
+                req = new HttpDelete(url);
+                break;
+            case POST:
+                req = new HttpPost(url);
+                break;
+            case PUT:
+                req = new HttpPut(url);
+                break;
+            default:
+                throw new RuntimeException("wrong method received");
+        }
+        for (Map.Entry<String, String> header : _request.getHeaders().entrySet()) {
+            req.setHeader(header.getKey(), header.getValue());
+        }
+        if (_request.getTimeouts() != null) {
+            req.setConfig(RequestConfig.custom()
+                    .setConnectTimeout((int) _request.getTimeouts().getConnect())
+                    .setSocketTimeout((int) _request.getTimeouts().getRead())
+                    .build());
+        }
+        if (_request.getBody() != null && req instanceof HttpEntityEnclosingRequestBase) {
+            ((HttpEntityEnclosingRequestBase) req).setEntity(new StringEntity(_request.getBody(), StandardCharsets.UTF_8));
+        }
+        return req;
+    }
+
+    /**
+     * Encodes the path of an url the same way Unirest used to, leaving the
+     * (already encoded) query string untouched
+     */
+    private static String normalize(String _url) throws Exception {
+        URL url = new URL(_url);
+        String output = new URI(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort(), URLDecoder.decode(url.getPath(), "UTF-8"), null, url.getRef()).toString();
+        if (url.getQuery() != null && !url.getQuery().trim().isEmpty()) {
+            output += "?" + url.getQuery();
+        }
+        return output;
+    }
+
+    private static Map<String, String> headers(HttpResponse _response) {
+        Map<String, String> output = new HashMap<>();
+        for (Header header : _response.getAllHeaders()) {
+            output.putIfAbsent(header.getName(), header.getValue());
+        }
+        return output;
+    }
+
+    /**
+     * Accumulates a response body into a pooled buffer, moved to a larger one
+     * when full
+     *
+     * <p>
+     * The exchange may be cancelled from another thread while the body is
+     * read: the buffer is only touched under the lock of this body, so that it
+     * is never written once released.</p>
+     */
+    private static class Body {
+
+        private final BufferPool pool;
+        private PooledBuffer buffer;
+
+        private Body(BufferPool _pool, long _length) {
+            pool = _pool;
+            buffer = _pool.acquire((int) Math.min(Math.max(_length, 0), _pool.getMaxSize()));
+        }
+
+        private synchronized void read(ContentDecoder _decoder) throws IOException {
+            while (buffer != null) {
+                ByteBuffer target = buffer.getBuffer();
+                if (!target.hasRemaining()) {
+                    PooledBuffer larger = pool.acquire(target.capacity() * 2);
+                    target.flip();
+                    larger.getBuffer().put(target);
+                    buffer.release();
+                    buffer = larger;
+                    target = larger.getBuffer();
+                }
+                if (_decoder.read(target) <= 0) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized String decode(Charset _charset) {
+            if (buffer == null) {
+                return null;
+            }
+            buffer.getBuffer().flip();
+            String output = buffer.decode(_charset);
+            release();
+            return output;
+        }
+
+        private synchronized ByteBuffer copy() {
+            if (buffer == null) {
+                return null;
+            }
+            ByteBuffer source = buffer.getBuffer();
+            source.flip();
+            byte[] output = new byte[source.remaining()];
+            source.get(output);
+            release();
+            return ByteBuffer.wrap(output);
+        }
+
+        private synchronized void release() {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
+    }
+
+    /**
+     * Reads a whole response into a pooled buffer, then copies its body out
+     * of the pool, so that the buffer is released as soon as the response is
+     * complete (UTF-8 bodies are only decoded when requested)
+     */
+    private static class BufferingConsumer extends AbstractAsyncResponseConsumer<SafeResponse> {
+
+        private final BufferPool pool;
+        private HttpResponse response;
+        private Charset charset = StandardCharsets.UTF_8;
+        private Body body;
+
+        private BufferingConsumer(BufferPool _pool) {
+            pool = _pool;
+        }
+
+        @Override
+        protected void onResponseReceived(HttpResponse _response) {
+            response = _response;
+        }
+
+        @Override
+        protected void onEntityEnclosed(HttpEntity _entity, ContentType _type) {
+            if (_type != null && _type.getCharset() != null) {
+                charset = _type.getCharset();
+            }
+            body = new Body(pool, _entity.getContentLength());
+        }
+
+        @Override
+        protected void onContentReceived(ContentDecoder _decoder, IOControl _ioctrl) throws IOException {
+            body.read(_decoder);
+        }
+
+        @Override
+        protected SafeResponse buildResult(HttpContext _context) {
+            if (!StandardCharsets.UTF_8.equals(charset)) {
+                return new SafeResponse(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase(), (body == null) ? null : body.decode(charset), headers(response));
+            }
+            return SafeResponse.wrap(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase(), (body == null) ? null : body.copy(), headers(response));
+        }
+
+        @Override
+        protected void releaseResources() {
+            if (body != null) {
+                body.release();
+            }
+        }
+    }
+
+    /**
+     * Emits the body chunks of successful responses as they are received, as
+     * long as they are requested: without demand, reading from the connection
+     * is suspended (and so is the server, by TCP flow control) until more
+     * chunks are requested. The body of failed responses is buffered to build
+     * a RequestException
+     *
+     * <p>
+     * Chunks are read into pooled buffers and emitted on a worker of the
+     * transport scheduler. Chunks left over by a cancelled or failed exchange
+     * are released by this worker.</p>
+     */
+    private static class StreamingConsumer extends AbstractAsyncResponseConsumer<RequestException> implements Producer {
+
+        private final Subscriber<? super PooledBuffer> subscriber;
+        private final Action1<? super SafeResponse> onHead;
+        private final BufferPool pool;
+        private final Scheduler.Worker worker;
+        private HttpResponse response;
+        private Body errorBody;
+
+        private final Queue<PooledBuffer> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicLong queued = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile IOControl control;
+        private volatile boolean suspended = false;
+        private volatile boolean finished = false;
+        private volatile boolean closed = false;
+        private volatile Throwable error;
+        private boolean done = false;
+
+        private StreamingConsumer(Subscriber<? super PooledBuffer> _subscriber, Action1<? super SafeResponse> _onHead, BufferPool _pool, Scheduler.Worker _worker) {
+            subscriber = _subscriber;
+            onHead = _onHead;
+            pool = _pool;
+            worker = _worker;
+        }
+
+        @Override
+        public void request(long _count) {
+            if (_count <= 0) {
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + _count;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+            } while (!requested.compareAndSet(current, next));
+            drain();
+        }
+
+        /**
+         * Completes the subscriber once all pending chunks have been emitted
+         */
+        private void finish() {
+            finished = true;
+            drain();
+        }
+
+        /**
+         * Fails the subscriber, dropping the pending chunks
+         */
+        private void fail(Throwable _error) {
+            error = _error;
+            drain();
+        }
+
+        /**
+         * Schedules the emission of the pending chunks on the worker
+         */
+        private void drain() {
+            if (wip.getAndIncrement() == 0) {
+                worker.schedule(this::emit);
+            }
+        }
+
+        private void emit() {
+            int missed = 1;
+            do {
+                while (!done) {
+                    if (subscriber.isUnsubscribed()) {
+                        done = true;
+                    } else if (error != null) {
+                        done = true;
+                        subscriber.onError(error);
+                    } else if (finished && pending.isEmpty()) {
+                        done = true;
+                        subscriber.onCompleted();
+                    } else if (requested.get() > 0 && !pending.isEmpty()) {
+                        PooledBuffer chunk = pending.poll();
+                        queued.decrementAndGet();
+                        if (requested.get() != Long.MAX_VALUE) {
+                            requested.decrementAndGet();
+                        }
+                        subscriber.onNext(chunk);
+                    } else {
+                        if (suspended && queued.get() < requested.get()) {
+                            suspended = false;
+                            control.requestInput();
+                        }
+                        break;
+                    }
+                }
+                if (done) {
+                    PooledBuffer chunk;
+                    while ((chunk = pending.poll()) != null) {
+                        chunk.release();
+                    }
+                    if (closed) {
+                        worker.unsubscribe();
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        protected void onResponseReceived(HttpResponse _response) {
+            response = _response;
+            int status = _response.getStatusLine().getStatusCode();
+            if (status < 200 || status >= 300) {
+                errorBody = new Body(pool, 0);
+            } else {
+                onHead.call(new SafeResponse(status, _response.getStatusLine().getReasonPhrase(), null, headers(_response)));
+            }
+        }
+
+        @Override
+        protected void onEntityEnclosed(HttpEntity _entity, ContentType _type) {
+        }
+
+        @Override
+        protected void onContentReceived(ContentDecoder _decoder, IOControl _ioctrl) throws IOException {
+            if (errorBody != null) {
+                errorBody.read(_decoder);
+                return;
+            }
+            control = _ioctrl;
+            do {
+                PooledBuffer chunk = pool.acquire(CHUNK_SIZE);
+                int read;
+                try {
+                    read = _decoder.read(chunk.getBuffer());
+                } catch (IOException ex) {
+                    chunk.release();
+                    throw ex;
+                }
+                if (read <= 0) {
+                    chunk.release();
+                    break;
+                }
+                chunk.getBuffer().flip();
+                pending.add(chunk);
+            } while (queued.incrementAndGet() < requested.get());
+            if (queued.get() >= requested.get()) {
+                _ioctrl.suspendInput();
+                suspended = true;
+            }
+            drain();
+        }
+
+        @Override
+        protected RequestException buildResult(HttpContext _context) {
+            if (errorBody == null) {
+                return null;
+            }
+            String body = errorBody.decode(StandardCharsets.UTF_8);
+            return new RequestException(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase(), (body == null) ? "" : body, headers(response));
+        }
+
+        @Override
+        protected void releaseResources() {
+            if (errorBody != null) {
+                errorBody.release();
+            }
+            closed = true;
+            drain();
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable _runnable) {
+            Thread thread = new Thread(_runnable, "ovhapi-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
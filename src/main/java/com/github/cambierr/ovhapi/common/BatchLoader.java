@@ -0,0 +1,216 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subjects.AsyncSubject;
+
+/**
+ * Groups the loads of single objects made within a short time window into a
+ * single batch call
+ *
+ * <p>
+ * The first load of a window schedules the batch call, which is sent when the
+ * window elapses or as soon as the batch is full. Loads of a same key within a
+ * window share their result. Keys missing from the batch result are loaded on
+ * their own, and a failing batch fails all its loads.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded objects
+ *
+ * @author cambierr
+ */
+public class BatchLoader<K, V> {
+
+    private final Func1<? super Iterable<K>, Observable<V>> batch;
+    private final Func1<? super V, K> keyOf;
+    private final Func1<? super K, Observable<V>> single;
+    private final long window;
+    private final int maxBatchSize;
+    private final Scheduler scheduler;
+
+    private Map<K, AsyncSubject<V>> pending = new HashMap<>();
+    private Subscription timer;
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong singles = new AtomicLong();
+
+    /**
+     * Creates a batch loader sending its batches from the computation
+     * scheduler
+     *
+     * @param _batch the batch call, loading the objects of several keys (it
+     * may emit objects that were not requested)
+     * @param _keyOf the key of a loaded object
+     * @param _single the call loading a single object by its key
+     * @param _window the time window grouping the loads of a batch
+     * @param _unit the unit of the provided window
+     * @param _maxBatchSize the maximum number of keys in a batch
+     */
+    public BatchLoader(Func1<? super Iterable<K>, Observable<V>> _batch, Func1<? super V, K> _keyOf, Func1<? super K, Observable<V>> _single, long _window, TimeUnit _unit, int _maxBatchSize) {
+        this(_batch, _keyOf, _single, _window, _unit, _maxBatchSize, Schedulers.computation());
+    }
+
+    /**
+     * Creates a batch loader
+     *
+     * @param _batch the batch call, loading the objects of several keys (it
+     * may emit objects that were not requested)
+     * @param _keyOf the key of a loaded object
+     * @param _single the call loading a single object by its key
+     * @param _window the time window grouping the loads of a batch
+     * @param _unit the unit of the provided window
+     * @param _maxBatchSize the maximum number of keys in a batch
+     * @param _scheduler the scheduler batches are sent from
+     */
+    public BatchLoader(Func1<? super Iterable<K>, Observable<V>> _batch, Func1<? super V, K> _keyOf, Func1<? super K, Observable<V>> _single, long _window, TimeUnit _unit, int _maxBatchSize, Scheduler _scheduler) {
+        if (_window < 0) {
+            throw new IllegalArgumentException("window must not be negative");
+        }
+        if (_maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        batch = _batch;
+        keyOf = _keyOf;
+        single = _single;
+        window = _unit.toMillis(_window);
+        maxBatchSize = _maxBatchSize;
+        scheduler = _scheduler;
+    }
+
+    /**
+     * Loads an object by its key, within the current batch
+     *
+     * @param _key the key of the object
+     *
+     * @return the observable object, sent once its batch has been loaded
+     */
+    public Observable<V> load(K _key) {
+        return Observable.defer(() -> {
+            AsyncSubject<V> result;
+            Map<K, AsyncSubject<V>> full = null;
+            synchronized (this) {
+                loads.incrementAndGet();
+                result = pending.get(_key);
+                if (result == null) {
+                    result = AsyncSubject.create();
+                    pending.put(_key, result);
+                    if (pending.size() >= maxBatchSize) {
+                        full = takePending();
+                    } else if (pending.size() == 1) {
+                        timer = Observable.timer(window, TimeUnit.MILLISECONDS, scheduler).subscribe((Long t) -> flush());
+                    }
+                }
+            }
+            if (full != null) {
+                send(full);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns the number of loads requested from this loader
+     *
+     * @return the number of loads
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    /**
+     * Returns the number of batch calls sent by this loader
+     *
+     * @return the number of batches
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * Returns the number of keys that were missing from their batch, and were
+     * loaded on their own
+     *
+     * @return the number of single loads
+     */
+    public long getSingles() {
+        return singles.get();
+    }
+
+    private void flush() {
+        Map<K, AsyncSubject<V>> keys;
+        synchronized (this) {
+            keys = takePending();
+        }
+        if (!keys.isEmpty()) {
+            send(keys);
+        }
+    }
+
+    private Map<K, AsyncSubject<V>> takePending() {
+        Map<K, AsyncSubject<V>> keys = pending;
+        pending = new HashMap<>();
+        if (timer != null) {
+            timer.unsubscribe();
+            timer = null;
+        }
+        return keys;
+    }
+
+    private void send(Map<K, AsyncSubject<V>> _keys) {
+        batches.incrementAndGet();
+        Observable<V> call;
+        try {
+            call = batch.call(new ArrayList<>(_keys.keySet()));
+        } catch (RuntimeException ex) {
+            call = Observable.error(ex);
+        }
+        call.subscribe((V t) -> {
+            AsyncSubject<V> subject = _keys.remove(keyOf.call(t));
+            if (subject != null) {
+                subject.onNext(t);
+                subject.onCompleted();
+            }
+        }, (Throwable t) -> {
+            for (AsyncSubject<V> subject : _keys.values()) {
+                subject.onError(t);
+            }
+        }, () -> {
+            for (Map.Entry<K, AsyncSubject<V>> missing : _keys.entrySet()) {
+                singles.incrementAndGet();
+                single.call(missing.getKey()).subscribe(missing.getValue());
+            }
+        });
+    }
+
+}
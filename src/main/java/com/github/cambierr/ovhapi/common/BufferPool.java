@@ -0,0 +1,283 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of direct buffers, used by transports to read response bodies
+ *
+ * <p>
+ * Buffers are sized by powers of two (4KB to 1MB by default) and released
+ * buffers are kept for reuse, up to a total idle size (16MB by default).
+ * Larger requests are served by unpooled heap buffers.</p>
+ *
+ * <p>
+ * Buffers must be released once consumed. A pooled buffer collected by the GC
+ * without having been released is counted as a leak (see
+ * {@link BufferStats#getLeaks()}).</p>
+ *
+ * @author cambierr
+ */
+public class BufferPool {
+
+    private static final BufferPool DEFAULT = new BufferPool();
+
+    private volatile int minSize = 4096;
+    private volatile int maxSize = 1 << 20;
+    private volatile long maxIdle = 16L << 20;
+    private volatile boolean leakDetection = true;
+
+    private final Queue<PooledBuffer>[] idle;
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong idleBytes = new AtomicLong();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicLong leaks = new AtomicLong();
+
+    private final ReferenceQueue<PooledBuffer> collected = new ReferenceQueue<>();
+    private final Set<Tracker> trackers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a pool with the default settings
+     */
+    @SuppressWarnings("unchecked")
+    public BufferPool() {
+        idle = new Queue[31];
+        for (int i = 0; i < idle.length; i++) {
+            idle[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Returns the pool used by transports without their own one
+     *
+     * @return the default pool
+     */
+    public static BufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Sets the smallest and the largest pooled buffer sizes, both rounded up
+     * to a power of two
+     *
+     * @param _min the smallest buffer size, in bytes
+     * @param _max the largest buffer size, in bytes
+     *
+     * @return the updated BufferPool
+     */
+    public BufferPool sizes(int _min, int _max) {
+        if (_min <= 0 || _max < _min || _max > (1 << 30)) {
+            throw new IllegalArgumentException("sizes must be positive, ordered and at most 1GB");
+        }
+        minSize = 1 << index(_min);
+        maxSize = 1 << index(_max);
+        return this;
+    }
+
+    /**
+     * Sets the total size of the released buffers kept for reuse
+     *
+     * @param _bytes the maximum idle size, in bytes (0 = no reuse)
+     *
+     * @return the updated BufferPool
+     */
+    public BufferPool maxIdle(long _bytes) {
+        if (_bytes < 0) {
+            throw new IllegalArgumentException("maxIdle must not be negative");
+        }
+        maxIdle = _bytes;
+        return this;
+    }
+
+    /**
+     * Enables or disables the detection of buffers collected without having
+     * been released (enabled by default)
+     *
+     * @param _enabled true to count leaked buffers, or false
+     *
+     * @return the updated BufferPool
+     */
+    public BufferPool leakDetection(boolean _enabled) {
+        leakDetection = _enabled;
+        return this;
+    }
+
+    /**
+     * Returns the smallest pooled buffer size
+     *
+     * @return the smallest buffer size, in bytes
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Returns the largest pooled buffer size
+     *
+     * @return the largest buffer size, in bytes
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the total size of the released buffers kept for reuse
+     *
+     * @return the maximum idle size, in bytes
+     */
+    public long getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Checks if leaked buffers are detected
+     *
+     * @return true if leaked buffers are counted, or false
+     */
+    public boolean isLeakDetection() {
+        return leakDetection;
+    }
+
+    /**
+     * Leases a cleared buffer
+     *
+     * @param _size the minimum capacity of the buffer
+     *
+     * @return a buffer of at least the requested capacity, to be released once
+     * consumed
+     */
+    public PooledBuffer acquire(int _size) {
+        if (_size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        expunge();
+        if (_size > maxSize) {
+            return new PooledBuffer(null, ByteBuffer.allocate(_size));
+        }
+        int index = index(Math.max(_size, minSize));
+        PooledBuffer output = idle[index].poll();
+        if (output != null) {
+            idleCount.decrementAndGet();
+            idleBytes.addAndGet(-output.capacity());
+            output.lease();
+        } else {
+            output = new PooledBuffer(this, ByteBuffer.allocateDirect(1 << index));
+            allocated.incrementAndGet();
+            allocatedBytes.addAndGet(output.capacity());
+            if (leakDetection) {
+                Tracker tracker = new Tracker(output, collected);
+                output.tracker = tracker;
+                trackers.add(tracker);
+            }
+        }
+        leased.incrementAndGet();
+        return output;
+    }
+
+    /**
+     * Returns the current state of this pool
+     *
+     * @return a snapshot of the pool state
+     */
+    public BufferStats getStats() {
+        expunge();
+        return new BufferStats(allocated.get(), allocatedBytes.get(), leased.get(), idleCount.get(), idleBytes.get(), leaks.get());
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _buffer a buffer of this pool, just released
+     */
+    void recycle(PooledBuffer _buffer) {
+        leased.decrementAndGet();
+        int capacity = _buffer.capacity();
+        if (capacity >= minSize && capacity <= maxSize) {
+            if (idleBytes.addAndGet(capacity) <= maxIdle) {
+                _buffer.buffer().clear();
+                idle[index(capacity)].offer(_buffer);
+                idleCount.incrementAndGet();
+                return;
+            }
+            idleBytes.addAndGet(-capacity);
+        }
+        allocated.decrementAndGet();
+        allocatedBytes.addAndGet(-capacity);
+        Tracker tracker = _buffer.tracker;
+        if (tracker != null) {
+            trackers.remove(tracker);
+            tracker.clear();
+        }
+    }
+
+    /**
+     * Counts the leased buffers collected since the last call
+     */
+    private void expunge() {
+        Tracker tracker;
+        while ((tracker = (Tracker) collected.poll()) != null) {
+            if (trackers.remove(tracker)) {
+                leaks.incrementAndGet();
+                leased.decrementAndGet();
+                allocated.decrementAndGet();
+                allocatedBytes.addAndGet(-tracker.capacity);
+            }
+        }
+    }
+
+    /**
+     * Returns the size class of a size: the exponent of the smallest power of
+     * two holding it
+     */
+    private static int index(int _size) {
+        return (_size <= 1) ? 0 : 32 - Integer.numberOfLeadingZeros(_size - 1);
+    }
+
+    /**
+     * Tells when a pooled buffer has been collected: idle buffers are held by
+     * the pool, so a collected buffer is a leased one which was never
+     * released
+     */
+    static class Tracker extends PhantomReference<PooledBuffer> {
+
+        private final int capacity;
+
+        private Tracker(PooledBuffer _buffer, ReferenceQueue<PooledBuffer> _queue) {
+            super(_buffer, _queue);
+            capacity = _buffer.capacity();
+        }
+    }
+
+}
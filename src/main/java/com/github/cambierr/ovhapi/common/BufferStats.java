@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+/**
+ * A snapshot of the state of a buffer pool
+ *
+ * @author cambierr
+ */
+public class BufferStats {
+
+    private final int allocated;
+    private final long allocatedBytes;
+    private final int leased;
+    private final int idle;
+    private final long idleBytes;
+    private final long leaks;
+
+    /**
+     * Creates a buffer pool state snapshot
+     *
+     * @param _allocated the number of pooled buffers alive
+     * @param _allocatedBytes the total capacity of the pooled buffers alive
+     * @param _leased the number of pooled buffers currently in use
+     * @param _idle the number of buffers kept for reuse
+     * @param _idleBytes the total capacity of the buffers kept for reuse
+     * @param _leaks the number of buffers collected without having been
+     * released
+     */
+    public BufferStats(int _allocated, long _allocatedBytes, int _leased, int _idle, long _idleBytes, long _leaks) {
+        allocated = _allocated;
+        allocatedBytes = _allocatedBytes;
+        leased = _leased;
+        idle = _idle;
+        idleBytes = _idleBytes;
+        leaks = _leaks;
+    }
+
+    /**
+     * Returns the number of pooled buffers alive, leased or idle
+     *
+     * @return the number of allocated buffers
+     */
+    public int getAllocated() {
+        return allocated;
+    }
+
+    /**
+     * Returns the total capacity of the pooled buffers alive
+     *
+     * @return the allocated size, in bytes
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the number of pooled buffers currently in use
+     *
+     * @return the number of leased buffers
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Returns the number of buffers kept for reuse
+     *
+     * @return the number of idle buffers
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Returns the total capacity of the buffers kept for reuse
+     *
+     * @return the idle size, in bytes
+     */
+    public long getIdleBytes() {
+        return idleBytes;
+    }
+
+    /**
+     * Returns the number of buffers collected without having been released
+     *
+     * @return the number of leaked buffers
+     */
+    public long getLeaks() {
+        return leaks;
+    }
+
+    @Override
+    public String toString() {
+        return "[allocated: " + allocated + " (" + allocatedBytes + " bytes); leased: " + leased + "; idle: " + idle + " (" + idleBytes + " bytes); leaks: " + leaks + "]";
+    }
+
+}
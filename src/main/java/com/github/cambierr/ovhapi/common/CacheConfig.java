@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of a TtlCache
+ *
+ * @author cambierr
+ */
+public class CacheConfig {
+
+    private long timeToLive = TimeUnit.MINUTES.toMillis(10);
+    private int maxEntries = 64;
+    private long maxWeight = 10000;
+
+    /**
+     * Creates a cache configuration with the default settings: entries expire
+     * after 10 minutes, up to 64 entries weighing 10000 in total
+     */
+    public CacheConfig() {
+    }
+
+    /**
+     * Sets the delay after which a cached entry expires
+     *
+     * @param _duration the time to live (0 disables caching)
+     * @param _unit the unit of the provided duration
+     *
+     * @return the updated CacheConfig
+     */
+    public CacheConfig timeToLive(long _duration, TimeUnit _unit) {
+        if (_duration < 0) {
+            throw new IllegalArgumentException("timeToLive must not be negative");
+        }
+        timeToLive = _unit.toMillis(_duration);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of entries in the cache
+     *
+     * @param _maxEntries the maximum number of entries
+     *
+     * @return the updated CacheConfig
+     */
+    public CacheConfig maxEntries(int _maxEntries) {
+        if (_maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        maxEntries = _maxEntries;
+        return this;
+    }
+
+    /**
+     * Sets the maximum total weight of the cached entries
+     *
+     * @param _maxWeight the maximum weight
+     *
+     * @return the updated CacheConfig
+     */
+    public CacheConfig maxWeight(long _maxWeight) {
+        if (_maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive");
+        }
+        maxWeight = _maxWeight;
+        return this;
+    }
+
+    /**
+     * Returns the time to live of the cached entries
+     *
+     * @return the time to live, in milliseconds
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Returns the maximum number of entries in the cache
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the maximum total weight of the cached entries
+     *
+     * @return the maximum weight
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+/**
+ * A snapshot of the state of a cache
+ *
+ * @author cambierr
+ */
+public class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+    private final long weight;
+
+    /**
+     * Creates a cache state snapshot
+     *
+     * @param _hits the number of lookups served from the cache
+     * @param _misses the number of lookups that required a load
+     * @param _evictions the number of entries evicted to respect the size and
+     * weight limits
+     * @param _size the number of cached entries
+     * @param _weight the total weight of the cached entries
+     */
+    public CacheStats(long _hits, long _misses, long _evictions, int _size, long _weight) {
+        hits = _hits;
+        misses = _misses;
+        evictions = _evictions;
+        size = _size;
+        weight = _weight;
+    }
+
+    /**
+     * Returns the number of lookups served from the cache
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that required a load
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries evicted to respect the size and weight
+     * limits
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of cached entries
+     *
+     * @return the number of cached entries
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the total weight of the cached entries
+     *
+     * @return the total weight of the cached entries
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "[hits: " + hits + "; misses: " + misses + "; evictions: " + evictions + "; size: " + size + "; weight: " + weight + "]";
+    }
+
+}
@@ -0,0 +1,333 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.exception.CircuitOpenException;
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+/**
+ * Stops sending calls to a route that keeps failing
+ *
+ * <p>
+ * A closed circuit lets all calls through and measures their failure rate on
+ * a rolling window. Once it reaches the threshold the circuit opens, and calls
+ * fail fast with a CircuitOpenException. After a while the circuit becomes
+ * half-open: a few trial calls are let through, closing the circuit if they
+ * all succeed or opening it again otherwise.</p>
+ *
+ * <p>
+ * Transport errors, 5xx responses and calls abandoned because their deadline
+ * or overall timeout was reached are failures; other responses are
+ * successes, and cancelled calls are not counted.</p>
+ *
+ * @author cambierr
+ */
+public class CircuitBreaker {
+
+    /**
+     * The states of a circuit
+     */
+    public enum State {
+        /**
+         * Calls are let through
+         */
+        CLOSED,
+        /**
+         * Calls fail fast
+         */
+        OPEN,
+        /**
+         * A few trial calls are let through
+         */
+        HALF_OPEN
+    }
+
+    private static final int REJECTED = -1;
+    private static final int PERMITTED = 0;
+    private static final int TRIAL = 1;
+
+    private final String route;
+    private final CircuitBreakerConfig config;
+    private final Scheduler clock;
+    private final Action1<CircuitEvent> listener;
+
+    private final long[] bucketSeconds;
+    private final int[] bucketCalls;
+    private final int[] bucketFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trials;
+    private int trialSuccesses;
+
+    /**
+     * Creates a circuit breaker
+     *
+     * @param _route the route protected by this circuit
+     * @param _config the settings of this circuit
+     * @param _clock the scheduler whose time is used by this circuit
+     * @param _listener notified of each state transition
+     */
+    public CircuitBreaker(String _route, CircuitBreakerConfig _config, Scheduler _clock, Action1<CircuitEvent> _listener) {
+        route = _route;
+        config = _config;
+        clock = _clock;
+        listener = _listener;
+        int buckets = (int) (_config.getWindow() / 1000);
+        bucketSeconds = new long[buckets];
+        bucketCalls = new int[buckets];
+        bucketFailures = new int[buckets];
+    }
+
+    /**
+     * Returns the route template of a request: its method and its path without
+     * query, where each segment containing a digit (an id) is replaced by
+     * "{id}"
+     *
+     * @param _method the method of the request
+     * @param _path the path of the request
+     *
+     * @return the route template of the request
+     */
+    public static String route(Method _method, String _path) {
+        int query = _path.indexOf('?');
+        String[] segments = ((query < 0) ? _path : _path.substring(0, query)).split("/", -1);
+        StringBuilder result = new StringBuilder(_method.name()).append(' ');
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                result.append('/');
+            }
+            result.append(segments[i].matches(".*[0-9].*") ? "{id}" : segments[i]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Lets a call through this circuit
+     *
+     * @param <T> the type of the items emitted by the call
+     * @param _call the call to protect
+     * @param _failed tells whether an item emitted by the call is a failure
+     *
+     * @return the protected call, failing with a CircuitOpenException if the
+     * circuit is open
+     */
+    public <T> Observable<T> protect(Observable<T> _call, Func1<? super T, Boolean> _failed) {
+        return protect(_call, _failed, () -> false);
+    }
+
+    /**
+     * Lets a call through this circuit, counting it as a failure if it is
+     * abandoned for being too slow
+     *
+     * @param <T> the type of the items emitted by the call
+     * @param _call the call to protect
+     * @param _failed tells whether an item emitted by the call is a failure
+     * @param _abandoned tells, when the call is unsubscribed from before it
+     * terminates, whether it was abandoned (a failure, for instance once a
+     * deadline is reached) rather than cancelled
+     *
+     * @return the protected call, failing with a CircuitOpenException if the
+     * circuit is open
+     */
+    public <T> Observable<T> protect(Observable<T> _call, Func1<? super T, Boolean> _failed, Func0<Boolean> _abandoned) {
+        return Observable.defer(() -> {
+            int permit = acquire();
+            if (permit == REJECTED) {
+                return Observable.error(new CircuitOpenException(route));
+            }
+            boolean trial = permit == TRIAL;
+            AtomicBoolean done = new AtomicBoolean();
+            return _call
+                    .doOnNext((T t) -> {
+                        if (_failed.call(t) && done.compareAndSet(false, true)) {
+                            record(trial, false);
+                        }
+                    })
+                    .doOnError((Throwable t) -> {
+                        if (done.compareAndSet(false, true)) {
+                            record(trial, t instanceof RequestException && ((RequestException) t).code() < 500);
+                        }
+                    })
+                    .doOnCompleted(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            record(trial, true);
+                        }
+                    })
+                    .doOnUnsubscribe(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            if (_abandoned.call()) {
+                                record(trial, false);
+                            } else {
+                                release(trial);
+                            }
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Returns the route protected by this circuit
+     *
+     * @return the route of this circuit
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * Returns the current state of this circuit
+     *
+     * @return the state of this circuit
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the failure rate of the calls in the rolling window
+     *
+     * @return the failure rate, between 0 and 1
+     */
+    public synchronized double getFailureRate() {
+        long now = clock.now() / 1000;
+        int calls = 0;
+        int failures = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            if (now - bucketSeconds[i] < bucketSeconds.length) {
+                calls += bucketCalls[i];
+                failures += bucketFailures[i];
+            }
+        }
+        return (calls == 0) ? 0 : (double) failures / calls;
+    }
+
+    private int acquire() {
+        CircuitEvent event = null;
+        int result;
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (clock.now() - openedAt < config.getOpenDuration()) {
+                    return REJECTED;
+                }
+                event = transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (trials + trialSuccesses >= config.getHalfOpenCalls()) {
+                    result = REJECTED;
+                } else {
+                    trials++;
+                    result = TRIAL;
+                }
+            } else {
+                result = PERMITTED;
+            }
+        }
+        notify(event);
+        return result;
+    }
+
+    private void record(boolean _trial, boolean _success) {
+        CircuitEvent event = null;
+        synchronized (this) {
+            if (_trial) {
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+                trials--;
+                if (!_success) {
+                    event = transition(State.OPEN);
+                } else if (++trialSuccesses >= config.getHalfOpenCalls()) {
+                    event = transition(State.CLOSED);
+                }
+            } else {
+                long now = clock.now() / 1000;
+                int index = (int) (now % bucketSeconds.length);
+                if (bucketSeconds[index] != now) {
+                    bucketSeconds[index] = now;
+                    bucketCalls[index] = 0;
+                    bucketFailures[index] = 0;
+                }
+                bucketCalls[index]++;
+                if (!_success) {
+                    bucketFailures[index]++;
+                }
+                if (state == State.CLOSED && !_success && windowCalls(now) >= config.getMinimumCalls() && getFailureRate() >= config.getFailureRateThreshold()) {
+                    event = transition(State.OPEN);
+                }
+            }
+        }
+        notify(event);
+    }
+
+    private synchronized void release(boolean _trial) {
+        if (_trial && state == State.HALF_OPEN) {
+            trials--;
+        }
+    }
+
+    private int windowCalls(long _now) {
+        int calls = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            if (_now - bucketSeconds[i] < bucketSeconds.length) {
+                calls += bucketCalls[i];
+            }
+        }
+        return calls;
+    }
+
+    private CircuitEvent transition(State _to) {
+        CircuitEvent event = new CircuitEvent(route, state, _to, clock.now());
+        state = _to;
+        switch (_to) {
+            case OPEN:
+                openedAt = clock.now();
+                break;
+            case HALF_OPEN:
+                trials = 0;
+                trialSuccesses = 0;
+                break;
+            case CLOSED:
+                for (int i = 0; i < bucketSeconds.length; i++) {
+                    bucketCalls[i] = 0;
+                    bucketFailures[i] = 0;
+                }
+                break;
+        }
+        return event;
+    }
+
+    private void notify(CircuitEvent _event) {
+        if (_event != null && listener != null) {
+            listener.call(_event);
+        }
+    }
+
+}
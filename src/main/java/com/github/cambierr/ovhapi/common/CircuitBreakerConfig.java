@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of a CircuitBreaker
+ *
+ * @author cambierr
+ */
+public class CircuitBreakerConfig {
+
+    private double failureRateThreshold = 0.5;
+    private int minimumCalls = 10;
+    private long window = TimeUnit.SECONDS.toMillis(30);
+    private long openDuration = TimeUnit.SECONDS.toMillis(30);
+    private int halfOpenCalls = 3;
+
+    /**
+     * Creates a circuit breaker configuration with the default settings: the
+     * circuit opens when half of the calls of the last 30s (at least 10)
+     * failed, stays open for 30s, then closes after 3 successful trial calls
+     */
+    public CircuitBreakerConfig() {
+    }
+
+    /**
+     * Sets the failure rate above which the circuit opens
+     *
+     * @param _threshold the failure rate, between 0 (exclusive) and 1
+     *
+     * @return the updated CircuitBreakerConfig
+     */
+    public CircuitBreakerConfig failureRateThreshold(double _threshold) {
+        if (_threshold <= 0 || _threshold > 1) {
+            throw new IllegalArgumentException("failureRateThreshold must be in ]0, 1]");
+        }
+        failureRateThreshold = _threshold;
+        return this;
+    }
+
+    /**
+     * Sets the minimum number of calls in the window before the failure rate
+     * is considered
+     *
+     * @param _minimumCalls the minimum number of calls
+     *
+     * @return the updated CircuitBreakerConfig
+     */
+    public CircuitBreakerConfig minimumCalls(int _minimumCalls) {
+        if (_minimumCalls <= 0) {
+            throw new IllegalArgumentException("minimumCalls must be positive");
+        }
+        minimumCalls = _minimumCalls;
+        return this;
+    }
+
+    /**
+     * Sets the duration of the rolling window the failure rate is computed on
+     *
+     * @param _duration the window duration (at least 1s)
+     * @param _unit the unit of the provided duration
+     *
+     * @return the updated CircuitBreakerConfig
+     */
+    public CircuitBreakerConfig window(long _duration, TimeUnit _unit) {
+        if (_unit.toMillis(_duration) < 1000) {
+            throw new IllegalArgumentException("window must be at least 1s");
+        }
+        window = _unit.toMillis(_duration);
+        return this;
+    }
+
+    /**
+     * Sets the time an open circuit rejects calls before letting trial calls
+     * through
+     *
+     * @param _duration the open duration
+     * @param _unit the unit of the provided duration
+     *
+     * @return the updated CircuitBreakerConfig
+     */
+    public CircuitBreakerConfig openDuration(long _duration, TimeUnit _unit) {
+        openDuration = _unit.toMillis(_duration);
+        return this;
+    }
+
+    /**
+     * Sets the number of successful trial calls needed to close a half-open
+     * circuit
+     *
+     * @param _halfOpenCalls the number of trial calls
+     *
+     * @return the updated CircuitBreakerConfig
+     */
+    public CircuitBreakerConfig halfOpenCalls(int _halfOpenCalls) {
+        if (_halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("halfOpenCalls must be positive");
+        }
+        halfOpenCalls = _halfOpenCalls;
+        return this;
+    }
+
+    /**
+     * Returns the failure rate above which the circuit opens
+     *
+     * @return the failure rate threshold
+     */
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Returns the minimum number of calls in the window before the failure
+     * rate is considered
+     *
+     * @return the minimum number of calls
+     */
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * Returns the duration of the rolling window
+     *
+     * @return the window duration, in milliseconds
+     */
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns the time an open circuit rejects calls
+     *
+     * @return the open duration, in milliseconds
+     */
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Returns the number of successful trial calls needed to close a half-open
+     * circuit
+     *
+     * @return the number of trial calls
+     */
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+}
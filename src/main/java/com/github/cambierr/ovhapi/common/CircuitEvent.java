@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+/**
+ * A state transition of a circuit breaker
+ *
+ * @author cambierr
+ */
+public class CircuitEvent {
+
+    private final String route;
+    private final CircuitBreaker.State from;
+    private final CircuitBreaker.State to;
+    private final long time;
+
+    /**
+     * Creates a circuit state transition
+     *
+     * @param _route the route of the circuit
+     * @param _from the previous state of the circuit
+     * @param _to the new state of the circuit
+     * @param _time the time of the transition, in milliseconds
+     */
+    public CircuitEvent(String _route, CircuitBreaker.State _from, CircuitBreaker.State _to, long _time) {
+        route = _route;
+        from = _from;
+        to = _to;
+        time = _time;
+    }
+
+    /**
+     * Returns the route of the circuit
+     *
+     * @return the route of the circuit
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * Returns the previous state of the circuit
+     *
+     * @return the previous state of the circuit
+     */
+    public CircuitBreaker.State getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the new state of the circuit
+     *
+     * @return the new state of the circuit
+     */
+    public CircuitBreaker.State getTo() {
+        return to;
+    }
+
+    /**
+     * Returns the time of the transition
+     *
+     * @return the time of the transition, in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + route + ": " + from + " -> " + to + "]";
+    }
+
+}
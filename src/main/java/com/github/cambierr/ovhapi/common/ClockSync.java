@@ -0,0 +1,303 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Func0;
+import rx.schedulers.Schedulers;
+
+/**
+ * Keeps the local clock in sync with the API clock, so that request
+ * timestamps are accepted by the API on hosts whose clock drifts
+ *
+ * <p>
+ * The offset between both clocks is measured by requesting /auth/time before
+ * the first signed request, then refreshed in the background and smoothed
+ * with a moving average. A request rejected because of its timestamp
+ * triggers an immediate resync and is sent again once.</p>
+ *
+ * @author cambierr
+ */
+public class ClockSync {
+
+    private final Scheduler scheduler;
+    private volatile long refresh = TimeUnit.MINUTES.toMillis(30);
+    private volatile double smoothing = 0.5;
+
+    private volatile long offset = 0;
+    private volatile boolean synced = false;
+    private volatile boolean started = false;
+    private volatile Observable<Long> inFlight;
+    private volatile Subscription refresher;
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong replays = new AtomicLong();
+
+    /**
+     * Creates a clock sync using the system clock
+     */
+    public ClockSync() {
+        this(Schedulers.computation());
+    }
+
+    /**
+     * Creates a clock sync
+     *
+     * @param _scheduler the scheduler providing the local clock, and running
+     * the background refreshes
+     */
+    public ClockSync(Scheduler _scheduler) {
+        scheduler = _scheduler;
+    }
+
+    /**
+     * Sets the delay between two background refreshes of the offset
+     *
+     * @param _delay the delay (0 = no background refresh)
+     * @param _unit the unit of the provided delay
+     *
+     * @return the updated ClockSync
+     */
+    public ClockSync refresh(long _delay, TimeUnit _unit) {
+        if (_delay < 0) {
+            throw new IllegalArgumentException("delay must not be negative");
+        }
+        refresh = _unit.toMillis(_delay);
+        return this;
+    }
+
+    /**
+     * Sets the weight of a new measure in the smoothed offset
+     *
+     * @param _weight the weight, between 0 (exclusive) and 1
+     *
+     * @return the updated ClockSync
+     */
+    public ClockSync smoothing(double _weight) {
+        if (_weight <= 0 || _weight > 1) {
+            throw new IllegalArgumentException("weight must be in ]0, 1]");
+        }
+        smoothing = _weight;
+        return this;
+    }
+
+    /**
+     * Returns the current time of the API clock
+     *
+     * @return the estimated API time, in seconds since the epoch
+     */
+    public long currentTime() {
+        return (scheduler.now() + offset) / 1000;
+    }
+
+    /**
+     * Returns the offset between the API clock and the local clock
+     *
+     * @return the smoothed offset, in milliseconds (positive if the local
+     * clock is late)
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Checks if the offset has been measured
+     *
+     * @return true if the offset has been measured at least once, or false
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Returns the number of measures of the offset
+     *
+     * @return the number of successful syncs
+     */
+    public long getSyncs() {
+        return syncs.get();
+    }
+
+    /**
+     * Returns the number of requests sent again after a timestamp rejection
+     *
+     * @return the number of replayed requests
+     */
+    public long getReplays() {
+        return replays.get();
+    }
+
+    /**
+     * Stops the background refreshes, until the next signed request measures
+     * the offset and starts them again
+     */
+    public synchronized void stop() {
+        started = false;
+        Subscription current = refresher;
+        refresher = null;
+        if (current != null) {
+            current.unsubscribe();
+        }
+    }
+
+    /**
+     * Measures the offset between the API clock and the local clock
+     *
+     * @param _transport the transport to send the measure with
+     * @param _endpoint the endpoint to request the API time from
+     * @param _reset true to replace the smoothed offset by this measure
+     *
+     * @return the observable new offset, in milliseconds
+     */
+    public Observable<Long> sync(Transport _transport, Endpoint _endpoint, boolean _reset) {
+        return Observable.defer(() -> {
+            long start = scheduler.now();
+            return _transport
+                    .execute(new PreparedRequest(Method.GET, _endpoint.getUrl() + "/auth/time", null))
+                    .flatMap((SafeResponse t) -> t.validateResponse(String.class))
+                    .map((String t) -> {
+                        long end = scheduler.now();
+                        // the API time is truncated to the second: it was taken half a second later on average
+                        long measure = Long.parseLong(t.trim()) * 1000 + 500 - (start + end) / 2;
+                        synchronized (this) {
+                            offset = (!synced || _reset) ? measure : Math.round(smoothing * measure + (1 - smoothing) * offset);
+                            synced = true;
+                        }
+                        syncs.incrementAndGet();
+                        return offset;
+                    });
+        });
+    }
+
+    /**
+     * For internal use only
+     *
+     * <p>
+     * Measures the offset if it has never been, and starts the background
+     * refreshes. Concurrent first calls share a single measure; a failing
+     * measure leaves the local clock in use until the next refresh or
+     * rejection.</p>
+     *
+     * @param _transport the transport to send the measure with
+     * @param _endpoint the endpoint to request the API time from
+     *
+     * @return the observable offset, in milliseconds
+     */
+    public Observable<Long> synced(Transport _transport, Endpoint _endpoint) {
+        return Observable.defer(() -> {
+            if (started) {
+                return Observable.just(offset);
+            }
+            Observable<Long> current = inFlight;
+            if (current == null) {
+                synchronized (this) {
+                    current = inFlight;
+                    if (current == null) {
+                        current = sync(_transport, _endpoint, false)
+                                .onErrorReturn((Throwable t) -> offset)
+                                .doOnCompleted(() -> {
+                                    started = true;
+                                    startRefresh(_transport, _endpoint);
+                                })
+                                .doOnTerminate(() -> inFlight = null)
+                                .doOnUnsubscribe(() -> inFlight = null)
+                                .replay(1)
+                                .refCount();
+                        inFlight = current;
+                    }
+                }
+            }
+            return current;
+        });
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _call the signed call, signed again on each subscription
+     * @param _resync the measure of the offset to run before replaying a
+     * rejected call
+     *
+     * @return the call, replayed once after a resync if the API rejected its
+     * timestamp
+     */
+    public Observable<SafeResponse> replay(Observable<SafeResponse> _call, Func0<Observable<Long>> _resync) {
+        return _call.flatMap((SafeResponse t) -> {
+            if (!isTimeRejection(t.getStatus(), t.getBody())) {
+                return Observable.just(t);
+            }
+            replays.incrementAndGet();
+            return _resync.call().onErrorReturn((Throwable t1) -> offset).concatMap((Long t1) -> _call);
+        });
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param <T> the type of the streamed elements
+     * @param _call the signed streaming call, signed again on each
+     * subscription
+     * @param _resync the measure of the offset to run before replaying a
+     * rejected call
+     *
+     * @return the call, replayed once after a resync if the API rejected its
+     * timestamp
+     */
+    public <T> Observable<T> replayStream(Observable<T> _call, Func0<Observable<Long>> _resync) {
+        return _call.onErrorResumeNext((Throwable t) -> {
+            if (!(t instanceof RequestException) || !isTimeRejection(((RequestException) t).code(), ((RequestException) t).body())) {
+                return Observable.error(t);
+            }
+            replays.incrementAndGet();
+            return _resync.call().onErrorReturn((Throwable t1) -> offset).concatMap((Long t1) -> _call);
+        });
+    }
+
+    /**
+     * Checks if a response is a rejection of the request timestamp
+     *
+     * @param _status the response status
+     * @param _body the response body
+     *
+     * @return true if the API rejected the timestamp of the request, or false
+     */
+    public static boolean isTimeRejection(int _status, String _body) {
+        return _status == 400 && _body != null && (_body.contains("QUERY_TIME_OUT") || _body.toLowerCase().contains("out of time"));
+    }
+
+    private synchronized void startRefresh(Transport _transport, Endpoint _endpoint) {
+        if (refresher != null || refresh == 0) {
+            return;
+        }
+        refresher = Observable
+                .interval(refresh, refresh, TimeUnit.MILLISECONDS, scheduler)
+                .concatMap((Long t) -> sync(_transport, _endpoint, false).onErrorResumeNext(Observable.empty()))
+                .subscribe();
+    }
+
+}
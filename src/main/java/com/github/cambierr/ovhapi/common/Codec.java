@@ -0,0 +1,51 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes a response body to an object
+ *
+ * @param <T> the type of the decoded objects
+ *
+ * @author cambierr
+ */
+@FunctionalInterface
+public interface Codec<T> {
+
+    /**
+     * Decodes a response body
+     *
+     * @param _body the UTF-8 bytes of the response body, between the position
+     * and the limit of the buffer (can be null). The buffer is owned by the
+     * response and its content must not be modified
+     *
+     * @return the decoded object
+     *
+     * @throws Exception if the body can not be decoded
+     */
+    T decode(ByteBuffer _body) throws Exception;
+
+}
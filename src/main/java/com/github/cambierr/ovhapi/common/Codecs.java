@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Registry of the codecs used by {@link SafeResponse#validateResponse}, by
+ * target type
+ *
+ * <p>
+ * String, JSONObject and JSONArray are registered by default. Other types
+ * (typed models, or objects decoded by another JSON library) can be
+ * registered, and registered types can be overridden. Each client owns its
+ * registry, so registrations never leak from a client to another.</p>
+ *
+ * @author cambierr
+ */
+public class Codecs {
+
+    /**
+     * The default String codec, short-circuited by SafeResponse to reuse the
+     * decoded body
+     */
+    static final Codec<String> TEXT = (ByteBuffer t) -> decode(t);
+
+    private final Map<Class<?>, Codec<?>> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry holding the default codecs
+     */
+    public Codecs() {
+        register(String.class, TEXT);
+        register(JSONObject.class, (ByteBuffer t) -> new JSONObject(decode(t)));
+        register(JSONArray.class, (ByteBuffer t) -> new JSONArray(decode(t)));
+    }
+
+    /**
+     * Registers the codec of a type, replacing the previous one if any
+     *
+     * @param <T> the decoded type
+     * @param _type the decoded type
+     * @param _codec the codec
+     *
+     * @return the updated Codecs
+     */
+    public <T> Codecs register(Class<T> _type, Codec<? extends T> _codec) {
+        codecs.put(_type, _codec);
+        return this;
+    }
+
+    /**
+     * Registers a binder as the codec of a type, replacing the previous one if
+     * any
+     *
+     * @param <T> the decoded type
+     * @param _type the decoded type
+     * @param _binder the binder reading the whole body
+     *
+     * @return the updated Codecs
+     */
+    public <T> Codecs registerBinder(Class<T> _type, JsonBinder<? extends T> _binder) {
+        return register(_type, (ByteBuffer t) -> {
+            JsonReader reader = new JsonReader(decode(t));
+            T value = _binder.bind(reader);
+            reader.end();
+            return value;
+        });
+    }
+
+    /**
+     * Removes the codec of a type
+     *
+     * @param _type the decoded type
+     *
+     * @return the updated Codecs
+     */
+    public Codecs unregister(Class<?> _type) {
+        codecs.remove(_type);
+        return this;
+    }
+
+    /**
+     * Returns the codec of a type
+     *
+     * @param <T> the decoded type
+     * @param _type the decoded type
+     *
+     * @return the codec, or null if no codec is registered for this type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Codec<? extends T> get(Class<T> _type) {
+        return (Codec<? extends T>) codecs.get(_type);
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _body UTF-8 bytes, between the position and the limit of the
+     * buffer (can be null)
+     *
+     * @return the decoded String, or null
+     */
+    static String decode(ByteBuffer _body) {
+        if (_body == null) {
+            return null;
+        }
+        if (_body.hasArray()) {
+            return new String(_body.array(), _body.arrayOffset() + _body.position(), _body.remaining(), StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[_body.remaining()];
+        _body.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
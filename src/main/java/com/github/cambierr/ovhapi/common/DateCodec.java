@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Thread-safe codec of the API dates (yyyy-MM-dd'T'HH:mm:ssXXX)
+ *
+ * <p>
+ * Dates of the usual shape (Z, ±hh, ±hhmm or ±hh:mm offsets, years 1600 to
+ * 9999) are parsed and formatted directly from and to chars, without locking
+ * nor intermediate objects. Other inputs are handed to a SimpleDateFormat
+ * owned by the calling thread, so the results are the same as before.</p>
+ *
+ * @author cambierr
+ */
+final class DateCodec {
+
+    private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ssXXX";
+    private static final long MILLIS_PER_DAY = 86400000L;
+    /**
+     * SimpleDateFormat switches to the Julian calendar before 1582
+     */
+    private static final int MIN_YEAR = 1600;
+    /**
+     * Dates are formatted in the default time zone of the JVM at startup, like
+     * the shared SimpleDateFormat they replace
+     */
+    private static final TimeZone ZONE = TimeZone.getDefault();
+    private static final ThreadLocal<SimpleDateFormat> FALLBACK = ThreadLocal.withInitial(() -> {
+        SimpleDateFormat format = new SimpleDateFormat(PATTERN);
+        format.setTimeZone(ZONE);
+        return format;
+    });
+
+    private DateCodec() {
+    }
+
+    /**
+     * Parses an API date
+     *
+     * @param _date the date
+     *
+     * @return the matching timestamp, in milliseconds
+     *
+     * @throws ParseException if the date could not be parsed
+     */
+    static long parse(String _date) throws ParseException {
+        long time = parseFast(_date);
+        if (time != Long.MIN_VALUE) {
+            return time;
+        }
+        return FALLBACK.get().parse(_date).getTime();
+    }
+
+    /**
+     * Formats a timestamp as an API date
+     *
+     * @param _time the timestamp, in milliseconds
+     *
+     * @return the formatted date
+     */
+    static String format(long _time) {
+        int offset = ZONE.getOffset(_time);
+        long local = Math.floorDiv(_time + offset, 1000L);
+        long days = Math.floorDiv(local, 86400L);
+        int secondOfDay = (int) Math.floorMod(local, 86400L);
+
+        // civil from days (H. Hinnant), on a calendar starting in March
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < MIN_YEAR || year > 9999 || offset % 60000 != 0) {
+            return FALLBACK.get().format(new Date(_time));
+        }
+
+        char[] out = new char[(offset == 0) ? 20 : 25];
+        digits(out, 0, (int) year, 4);
+        out[4] = '-';
+        digits(out, 5, month, 2);
+        out[7] = '-';
+        digits(out, 8, day, 2);
+        out[10] = 'T';
+        digits(out, 11, secondOfDay / 3600, 2);
+        out[13] = ':';
+        digits(out, 14, (secondOfDay / 60) % 60, 2);
+        out[16] = ':';
+        digits(out, 17, secondOfDay % 60, 2);
+        if (offset == 0) {
+            out[19] = 'Z';
+        } else {
+            int minutes = Math.abs(offset) / 60000;
+            out[19] = (offset < 0) ? '-' : '+';
+            digits(out, 20, minutes / 60, 2);
+            out[22] = ':';
+            digits(out, 23, minutes % 60, 2);
+        }
+        return new String(out);
+    }
+
+    /**
+     * Parses a date of the usual shape
+     *
+     * @return the matching timestamp, or Long.MIN_VALUE if the date is not of
+     * the usual shape
+     */
+    private static long parseFast(String _date) {
+        int length = _date.length();
+        if (length < 20
+                || _date.charAt(4) != '-' || _date.charAt(7) != '-' || _date.charAt(10) != 'T'
+                || _date.charAt(13) != ':' || _date.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = number(_date, 0, 4);
+        int month = number(_date, 5, 2);
+        int day = number(_date, 8, 2);
+        int hour = number(_date, 11, 2);
+        int minute = number(_date, 14, 2);
+        int second = number(_date, 17, 2);
+        if (year < MIN_YEAR || month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        int offset;
+        char sign = _date.charAt(19);
+        if (sign == 'Z' && length == 20) {
+            offset = 0;
+        } else if (sign == '+' || sign == '-') {
+            int hours = (length >= 22) ? number(_date, 20, 2) : -1;
+            int minutes;
+            if (length == 22) {
+                minutes = 0;
+            } else if (length == 24) {
+                minutes = number(_date, 22, 2);
+            } else if (length == 25 && _date.charAt(22) == ':') {
+                minutes = number(_date, 23, 2);
+            } else {
+                return Long.MIN_VALUE;
+            }
+            if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+                return Long.MIN_VALUE;
+            }
+            offset = (sign == '-' ? -1 : 1) * (hours * 60 + minutes) * 60000;
+        } else {
+            return Long.MIN_VALUE;
+        }
+
+        // days from civil (H. Hinnant), on a calendar starting in March
+        long y = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long days = era * 146097 + dayOfEra - 719468;
+
+        return days * MILLIS_PER_DAY + ((hour * 60 + minute) * 60 + second) * 1000L - offset;
+    }
+
+    /**
+     * Reads a fixed width unsigned decimal number
+     *
+     * @return the number, or -1 if a char is not a digit
+     */
+    private static int number(String _value, int _offset, int _width) {
+        int result = 0;
+        for (int i = _offset; i < _offset + _width; i++) {
+            int digit = _value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static void digits(char[] _out, int _offset, int _value, int _width) {
+        for (int i = _offset + _width - 1; i >= _offset; i--) {
+            _out[i] = (char) ('0' + _value % 10);
+            _value /= 10;
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time after which calls are abandoned
+ *
+ * <p>
+ * A deadline is shared by all the calls it is given to: chained calls made
+ * with the same credentials must all complete before it.</p>
+ *
+ * @author cambierr
+ */
+public class Deadline {
+
+    private final long expiresAt;
+
+    private Deadline(long _expiresAt) {
+        expiresAt = _expiresAt;
+    }
+
+    /**
+     * Creates a deadline expiring after the provided delay
+     *
+     * @param _duration the delay before the deadline
+     * @param _unit the unit of the provided duration
+     *
+     * @return a new Deadline
+     */
+    public static Deadline after(long _duration, TimeUnit _unit) {
+        return new Deadline(System.nanoTime() + _unit.toNanos(_duration));
+    }
+
+    /**
+     * Returns the earliest of two deadlines
+     *
+     * @param _first a deadline (can be null)
+     * @param _second another deadline (can be null)
+     *
+     * @return the earliest deadline, or null if both are null
+     */
+    public static Deadline earliest(Deadline _first, Deadline _second) {
+        if (_first == null) {
+            return _second;
+        }
+        if (_second == null) {
+            return _first;
+        }
+        return (_first.expiresAt - _second.expiresAt <= 0) ? _first : _second;
+    }
+
+    /**
+     * Returns the time left before this deadline
+     *
+     * @param _unit the unit of the returned duration
+     *
+     * @return the time left, or a negative or zero value if expired
+     */
+    public long remaining(TimeUnit _unit) {
+        return _unit.convert(expiresAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Checks if this deadline has passed
+     *
+     * @return true if this deadline has passed, or false
+     */
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "[deadline in " + remaining(TimeUnit.MILLISECONDS) + "ms]";
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+/**
+ * An OVH API endpoint
+ *
+ * @author cambierr
+ */
+public class Endpoint {
+
+    /**
+     * The OVH Europe API endpoint
+     */
+    public final static Endpoint OVH_EU = new Endpoint("https://" + OvhApi.API_ENDPOINT + "/" + OvhApi.API_VERSION);
+    /**
+     * The OVH North America API endpoint
+     */
+    public final static Endpoint OVH_CA = new Endpoint("https://ca.api.ovh.com/" + OvhApi.API_VERSION);
+
+    private final String url;
+
+    /**
+     * Creates an endpoint
+     *
+     * @param _url the base url of the API, version included (e.g.
+     * https://eu.api.ovh.com/1.0)
+     */
+    public Endpoint(String _url) {
+        if (_url == null || _url.isEmpty()) {
+            throw new IllegalArgumentException("url must not be empty");
+        }
+        url = _url.endsWith("/") ? _url.substring(0, _url.length() - 1) : _url;
+    }
+
+    /**
+     * Returns the base url of this endpoint
+     *
+     * @return the base url of this endpoint, without trailing slash
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public boolean equals(Object _other) {
+        return (_other instanceof Endpoint) && ((Endpoint) _other).url.equals(url);
+    }
+
+    @Override
+    public int hashCode() {
+        return url.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+
+}
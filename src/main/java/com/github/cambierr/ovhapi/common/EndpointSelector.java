@@ -0,0 +1,292 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.schedulers.Schedulers;
+
+/**
+ * Chooses the endpoint each request is sent to
+ *
+ * <p>
+ * By default the first candidate is always used. In latency aware mode, the
+ * latency of each candidate is tracked as an exponentially weighted moving
+ * average (EWMA) of its response times, and each request goes to the fastest
+ * healthy candidate. Streamed calls only count for health: their duration
+ * depends on the size of the body. A candidate becomes unhealthy after 3
+ * consecutive failures. Once its cooldown has elapsed (30s by default), a
+ * single request is sent to it again: it becomes healthy if this request
+ * succeeds, and waits for another cooldown otherwise. All candidates must
+ * accept the same credentials (mirrors of a same API).</p>
+ *
+ * @author cambierr
+ */
+public class EndpointSelector {
+
+    private static final int MAX_FAILURES = 3;
+
+    private final List<Endpoint> candidates;
+    private final Map<Endpoint, Stats> stats = new ConcurrentHashMap<>();
+    private final Scheduler clock;
+    private volatile double alpha = 0;
+    private volatile long cooldown = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Creates a selector
+     *
+     * @param _candidates the candidate endpoints, by order of preference
+     */
+    public EndpointSelector(Endpoint... _candidates) {
+        this(Schedulers.computation(), _candidates);
+    }
+
+    /**
+     * Creates a selector
+     *
+     * @param _clock the scheduler used to measure the cooldown of unhealthy
+     * candidates
+     * @param _candidates the candidate endpoints, by order of preference
+     */
+    public EndpointSelector(Scheduler _clock, Endpoint... _candidates) {
+        clock = _clock;
+        if (_candidates.length == 0) {
+            throw new IllegalArgumentException("at least one endpoint is required");
+        }
+        candidates = Collections.unmodifiableList(Arrays.asList(_candidates.clone()));
+        for (Endpoint candidate : candidates) {
+            stats.put(candidate, new Stats());
+        }
+    }
+
+    /**
+     * Sends each request to the fastest healthy candidate
+     *
+     * @param _alpha the weight of a new response time in the moving average,
+     * between 0 (exclusive) and 1
+     *
+     * @return the updated EndpointSelector
+     */
+    public EndpointSelector latencyAware(double _alpha) {
+        if (_alpha <= 0 || _alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in ]0, 1]");
+        }
+        alpha = _alpha;
+        return this;
+    }
+
+    /**
+     * Sets the delay after which a request is sent again to an unhealthy
+     * candidate
+     *
+     * @param _cooldown the delay
+     * @param _unit the unit of the provided delay
+     *
+     * @return the updated EndpointSelector
+     */
+    public EndpointSelector cooldown(long _cooldown, TimeUnit _unit) {
+        if (_cooldown < 0) {
+            throw new IllegalArgumentException("cooldown must be positive");
+        }
+        cooldown = _unit.toMillis(_cooldown);
+        return this;
+    }
+
+    /**
+     * Periodically measures the latency of all candidates, by requesting their
+     * /auth/time resource
+     *
+     * @param _transport the transport to send probes with
+     * @param _interval the delay between two probes
+     * @param _unit the unit of the provided delay
+     * @param _scheduler the scheduler probes are sent from
+     *
+     * @return the subscription to unsubscribe from to stop probing
+     */
+    public Subscription probe(Transport _transport, long _interval, TimeUnit _unit, Scheduler _scheduler) {
+        return Observable
+                .interval(0, _interval, _unit, _scheduler)
+                .flatMap((Long t) -> Observable.from(candidates))
+                .flatMap((Endpoint endpoint) -> {
+                    long start = System.nanoTime();
+                    return _transport
+                            .execute(new PreparedRequest(Method.GET, endpoint.getUrl() + "/auth/time", null))
+                            .doOnNext((SafeResponse r) -> record(endpoint, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), r.getStatus() < 500))
+                            .doOnError((Throwable e) -> record(endpoint, 0, false))
+                            .onErrorResumeNext(Observable.empty());
+                })
+                .subscribe();
+    }
+
+    /**
+     * Periodically measures the latency of all candidates on the computation
+     * scheduler
+     *
+     * @param _transport the transport to send probes with
+     * @param _interval the delay between two probes
+     * @param _unit the unit of the provided delay
+     *
+     * @return the subscription to unsubscribe from to stop probing
+     */
+    public Subscription probe(Transport _transport, long _interval, TimeUnit _unit) {
+        return probe(_transport, _interval, _unit, Schedulers.computation());
+    }
+
+    /**
+     * Returns the endpoint the next request should be sent to
+     *
+     * @return the selected endpoint
+     */
+    public Endpoint select() {
+        if (alpha == 0 || candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        long now = clock.now();
+        for (Endpoint candidate : candidates) {
+            Stats candidateStats = stats.get(candidate);
+            synchronized (candidateStats) {
+                if (candidateStats.failures >= MAX_FAILURES && candidateStats.retryAt <= now) {
+                    candidateStats.retryAt = now + cooldown;
+                    return candidate;
+                }
+            }
+        }
+        Endpoint best = null;
+        double bestLatency = Double.MAX_VALUE;
+        boolean bestHealthy = false;
+        for (Endpoint candidate : candidates) {
+            Stats candidateStats = stats.get(candidate);
+            boolean healthy = candidateStats.failures < MAX_FAILURES;
+            double latency = candidateStats.latency;
+            if ((healthy && !bestHealthy) || (healthy == bestHealthy && latency < bestLatency)) {
+                best = candidate;
+                bestLatency = latency;
+                bestHealthy = healthy;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Records the outcome of a request
+     *
+     * @param _endpoint the endpoint the request was sent to
+     * @param _latency the response time of the request, in milliseconds
+     * @param _success false if the endpoint failed to answer properly
+     */
+    public void record(Endpoint _endpoint, long _latency, boolean _success) {
+        Stats endpointStats = (_endpoint == null) ? null : stats.get(_endpoint);
+        if (endpointStats == null) {
+            return;
+        }
+        synchronized (endpointStats) {
+            if (!_success) {
+                fail(endpointStats);
+                return;
+            }
+            endpointStats.failures = 0;
+            double weight = (alpha == 0) ? 1 : alpha;
+            endpointStats.latency = (endpointStats.latency < 0) ? _latency : weight * _latency + (1 - weight) * endpointStats.latency;
+        }
+    }
+
+    /**
+     * Records the outcome of a request without its response time
+     *
+     * @param _endpoint the endpoint the request was sent to
+     * @param _success false if the endpoint failed to answer properly
+     */
+    public void record(Endpoint _endpoint, boolean _success) {
+        Stats endpointStats = (_endpoint == null) ? null : stats.get(_endpoint);
+        if (endpointStats == null) {
+            return;
+        }
+        synchronized (endpointStats) {
+            if (_success) {
+                endpointStats.failures = 0;
+            } else {
+                fail(endpointStats);
+            }
+        }
+    }
+
+    /**
+     * Counts a failure of a candidate, starting its cooldown once it becomes
+     * unhealthy
+     */
+    private void fail(Stats _stats) {
+        if (++_stats.failures >= MAX_FAILURES) {
+            _stats.retryAt = clock.now() + cooldown;
+        }
+    }
+
+    /**
+     * Returns the candidate endpoints
+     *
+     * @return the candidate endpoints, by order of preference
+     */
+    public List<Endpoint> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Returns the average latency of a candidate
+     *
+     * @param _endpoint the candidate
+     *
+     * @return the moving average of its response times in milliseconds, or a
+     * negative value if it has not been measured yet
+     */
+    public double getLatency(Endpoint _endpoint) {
+        Stats endpointStats = (_endpoint == null) ? null : stats.get(_endpoint);
+        return (endpointStats == null) ? -1 : endpointStats.latency;
+    }
+
+    /**
+     * Checks if a candidate is healthy
+     *
+     * @param _endpoint the candidate
+     *
+     * @return true if the candidate is healthy, or false
+     */
+    public boolean isHealthy(Endpoint _endpoint) {
+        Stats endpointStats = (_endpoint == null) ? null : stats.get(_endpoint);
+        return endpointStats != null && endpointStats.failures < MAX_FAILURES;
+    }
+
+    private static class Stats {
+
+        private volatile double latency = -1;
+        private volatile int failures = 0;
+        private long retryAt = 0;
+    }
+
+}
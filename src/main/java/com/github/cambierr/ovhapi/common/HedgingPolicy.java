@@ -0,0 +1,260 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.schedulers.Schedulers;
+import rx.subjects.AsyncSubject;
+
+/**
+ * Sends a second identical request when the first one is slower than usual
+ *
+ * <p>
+ * The hedge delay is a percentile of the recently observed latencies of the
+ * first requests of the route (see {@link CircuitBreaker#route}). The first
+ * response wins. A losing hedge is cancelled, but a losing first request is
+ * left to complete so that slow requests are measured too. Each request earns
+ * a fraction of a hedge, so that hedges never exceed a share of the traffic.
+ * Only idempotent requests should be hedged.</p>
+ *
+ * @author cambierr
+ */
+public class HedgingPolicy {
+
+    private static final int SAMPLES = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final double MAX_BUDGET = 10;
+
+    private final Scheduler scheduler;
+    private final Map<String, Latencies> routes = new ConcurrentHashMap<>();
+    private final AtomicLong hedged = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    private volatile double percentile = 0.95;
+    private volatile long minDelay = 10;
+    private volatile long initialDelay = TimeUnit.SECONDS.toMillis(1);
+    private volatile double budgetRatio = 0.1;
+
+    private double budget = 1;
+
+    /**
+     * Creates a hedging policy with the default settings, waiting on the
+     * computation scheduler: hedges are sent after the 95th percentile of the
+     * latencies of their route (1s until 100 requests of this route have been
+     * measured), for up to 10% of the requests
+     */
+    public HedgingPolicy() {
+        this(Schedulers.computation());
+    }
+
+    /**
+     * Creates a hedging policy with the default settings
+     *
+     * @param _scheduler the scheduler used to measure time and delay hedges
+     */
+    public HedgingPolicy(Scheduler _scheduler) {
+        scheduler = _scheduler;
+    }
+
+    /**
+     * Sets the percentile of the latencies after which a hedge is sent
+     *
+     * @param _percentile the percentile, between 0 and 1 (exclusive)
+     *
+     * @return the updated HedgingPolicy
+     */
+    public HedgingPolicy percentile(double _percentile) {
+        if (_percentile <= 0 || _percentile >= 1) {
+            throw new IllegalArgumentException("percentile must be in ]0, 1[");
+        }
+        percentile = _percentile;
+        return this;
+    }
+
+    /**
+     * Sets the bounds of the hedge delay
+     *
+     * @param _min the minimum delay
+     * @param _initial the delay used until enough latencies have been measured
+     * @param _unit the unit of the provided delays
+     *
+     * @return the updated HedgingPolicy
+     */
+    public HedgingPolicy delays(long _min, long _initial, TimeUnit _unit) {
+        if (_min < 0 || _initial < _min) {
+            throw new IllegalArgumentException("delays must be positive and ordered");
+        }
+        minDelay = _unit.toMillis(_min);
+        initialDelay = _unit.toMillis(_initial);
+        return this;
+    }
+
+    /**
+     * Sets the maximum share of requests that can be hedged
+     *
+     * @param _ratio the share of hedged requests, between 0 and 1
+     *
+     * @return the updated HedgingPolicy
+     */
+    public HedgingPolicy budget(double _ratio) {
+        if (_ratio < 0 || _ratio > 1) {
+            throw new IllegalArgumentException("budget must be in [0, 1]");
+        }
+        budgetRatio = _ratio;
+        return this;
+    }
+
+    /**
+     * Returns the number of hedges sent
+     *
+     * @return the number of hedged requests
+     */
+    public long getHedged() {
+        return hedged.get();
+    }
+
+    /**
+     * Returns the number of hedges that answered before the first request
+     *
+     * @return the number of winning hedges
+     */
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * Returns the current hedge delay of a route
+     *
+     * @param _route the route template of the requests
+     *
+     * @return the hedge delay, in milliseconds
+     */
+    public long getDelay(String _route) {
+        Latencies latencies = routes.get(_route);
+        return (latencies == null) ? initialDelay : latencies.delay();
+    }
+
+    /**
+     * Applies this policy to a request
+     *
+     * @param _route the route template of the request
+     * @param _call the request, sent again on each subscription
+     *
+     * @return the observable response of the fastest request
+     */
+    public Observable<SafeResponse> apply(String _route, Observable<SafeResponse> _call) {
+        return Observable.defer(() -> {
+            Latencies latencies = routes.computeIfAbsent(_route, (String t) -> new Latencies());
+            long start = scheduler.now();
+            earn();
+            long wait = latencies.delay();
+            AsyncSubject<SafeResponse> first = AsyncSubject.create();
+            Subscription running = _call
+                    .doOnNext((SafeResponse t) -> latencies.record(scheduler.now() - start))
+                    .subscribe(first);
+            AtomicBoolean hedgeWon = new AtomicBoolean();
+            Observable<SafeResponse> hedge = Observable
+                    .timer(wait, TimeUnit.MILLISECONDS, scheduler)
+                    .flatMap((Long t) -> {
+                        if (!spend()) {
+                            return Observable.never();
+                        }
+                        hedged.incrementAndGet();
+                        return _call;
+                    });
+            return Observable
+                    .amb(first.map((SafeResponse t) -> new Attempt(t, false)), hedge.map((SafeResponse t) -> new Attempt(t, true)))
+                    .doOnNext((Attempt t) -> {
+                        if (t.hedge && hedgeWon.compareAndSet(false, true)) {
+                            hedgeWins.incrementAndGet();
+                        }
+                    })
+                    .doOnUnsubscribe(() -> {
+                        if (!hedgeWon.get()) {
+                            running.unsubscribe();
+                        }
+                    })
+                    .map((Attempt t) -> t.response);
+        });
+    }
+
+    private synchronized void earn() {
+        budget = Math.min(MAX_BUDGET, budget + budgetRatio);
+    }
+
+    private synchronized boolean spend() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+
+    /**
+     * A response, tagged with the request it answers
+     */
+    private static class Attempt {
+
+        private final SafeResponse response;
+        private final boolean hedge;
+
+        private Attempt(SafeResponse _response, boolean _hedge) {
+            response = _response;
+            hedge = _hedge;
+        }
+    }
+
+    /**
+     * The recent latencies of a route
+     */
+    private class Latencies {
+
+        private final long[] samples = new long[SAMPLES];
+        private int recorded = 0;
+        private long delay = -1;
+
+        private synchronized long delay() {
+            return (delay < 0) ? initialDelay : delay;
+        }
+
+        private synchronized void record(long _latency) {
+            samples[recorded % SAMPLES] = _latency;
+            recorded++;
+            if (recorded >= MIN_SAMPLES && (delay < 0 || recorded % 64 == 0)) {
+                long[] sorted = Arrays.copyOf(samples, Math.min(recorded, SAMPLES));
+                Arrays.sort(sorted);
+                delay = Math.max(minDelay, sorted[(int) Math.floor(percentile * (sorted.length - 1))]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * HTTP/2 settings of a Http2Transport
+ *
+ * @author cambierr
+ */
+public class Http2Config {
+
+    private int maxConcurrentStreams = 100;
+    private int initialWindowSize = 65535;
+    private SSLContext sslContext;
+
+    /**
+     * Creates an HTTP/2 configuration with the default settings: up to 100
+     * concurrent streams and a 64KB initial flow control window
+     */
+    public Http2Config() {
+    }
+
+    /**
+     * Sets the maximum number of requests multiplexed at once; additional
+     * requests are queued (without blocking) until a stream is released
+     *
+     * @param _maxConcurrentStreams the maximum number of concurrent streams
+     *
+     * @return the updated Http2Config
+     */
+    public Http2Config maxConcurrentStreams(int _maxConcurrentStreams) {
+        if (_maxConcurrentStreams <= 0) {
+            throw new IllegalArgumentException("maxConcurrentStreams must be positive");
+        }
+        maxConcurrentStreams = _maxConcurrentStreams;
+        return this;
+    }
+
+    /**
+     * Sets the initial flow control window of each stream
+     *
+     * @param _initialWindowSize the initial window size, in bytes
+     *
+     * @return the updated Http2Config
+     */
+    public Http2Config initialWindowSize(int _initialWindowSize) {
+        if (_initialWindowSize <= 0) {
+            throw new IllegalArgumentException("initialWindowSize must be positive");
+        }
+        initialWindowSize = _initialWindowSize;
+        return this;
+    }
+
+    /**
+     * Sets the SSL context TLS connections are opened with
+     *
+     * @param _sslContext the SSL context, or null for the default one
+     *
+     * @return the updated Http2Config
+     */
+    public Http2Config sslContext(SSLContext _sslContext) {
+        sslContext = _sslContext;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of concurrent streams
+     *
+     * @return the maximum number of concurrent streams
+     */
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    /**
+     * Returns the initial flow control window of each stream
+     *
+     * @return the initial window size, in bytes
+     */
+    public int getInitialWindowSize() {
+        return initialWindowSize;
+    }
+
+    /**
+     * Returns the SSL context TLS connections are opened with
+     *
+     * @return the SSL context, or null for the default one
+     */
+    public SSLContext getSslContext() {
+        return sslContext;
+    }
+
+}
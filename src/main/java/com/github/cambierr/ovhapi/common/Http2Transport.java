@@ -0,0 +1,390 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.ProtocolNegotiationException;
+import org.apache.hc.core5.http2.ssl.ApplicationProtocol;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.io.ModalCloseable;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
+import org.apache.hc.core5.util.Timeout;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.schedulers.Schedulers;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * Transport multiplexing all concurrent calls to a host over a single HTTP/2
+ * connection
+ *
+ * <p>
+ * TLS hosts that do not select HTTP/2 during the handshake (ALPN), including
+ * hosts not supporting ALPN at all, are remembered and served by a fallback
+ * HTTP/1.1 transport from then on: no HTTP/2 frame is sent to them. Any other
+ * failure is sent as is, since the request may already have reached the
+ * host. Plain HTTP hosts are expected to speak HTTP/2 without
+ * negotiation.</p>
+ *
+ * <p>
+ * This transport relies on Apache HttpClient 5, which is an optional
+ * dependency of this library and must be added explicitly to use it.</p>
+ *
+ * @author cambierr
+ */
+public class Http2Transport implements Transport {
+
+    private final CloseableHttpAsyncClient client;
+    private final Transport fallback;
+    private final Scheduler scheduler;
+    private final int maxConcurrentStreams;
+
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final Queue<Runnable> pendingStreams = new ConcurrentLinkedQueue<>();
+    private final Set<String> http2Hosts = ConcurrentHashMap.newKeySet();
+    private final Set<String> http1Hosts = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> connectTimeouts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an HTTP/2 transport with the default settings, falling back to
+     * a new AsyncTransport
+     */
+    public Http2Transport() {
+        this(new Http2Config(), new AsyncTransport(), Schedulers.computation());
+    }
+
+    /**
+     * Creates an HTTP/2 transport
+     *
+     * @param _config the HTTP/2 settings
+     * @param _fallback the transport to use for hosts not speaking HTTP/2
+     * @param _scheduler the scheduler responses are observed on
+     */
+    public Http2Transport(Http2Config _config, Transport _fallback, Scheduler _scheduler) {
+        fallback = _fallback;
+        scheduler = _scheduler;
+        maxConcurrentStreams = _config.getMaxConcurrentStreams();
+        client = HttpAsyncClients.customHttp2()
+                .setH2Config(H2Config.custom()
+                        .setPushEnabled(false)
+                        .setMaxConcurrentStreams(_config.getMaxConcurrentStreams())
+                        .setInitialWindowSize(_config.getInitialWindowSize())
+                        .build())
+                .disableAutomaticRetries()
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .setTlsStrategy(new StrictAlpn((_config.getSslContext() == null) ? DefaultClientTlsStrategy.getDefault() : new DefaultClientTlsStrategy(_config.getSslContext())))
+                .setConnectionConfigResolver((HttpHost t) -> connectionConfig(t))
+                .build();
+        client.start();
+    }
+
+    @Override
+    public Observable<SafeResponse> execute(PreparedRequest _request) {
+        String host;
+        try {
+            host = hostKey(URI.create(_request.getUrl()));
+            if (_request.getTimeouts() != null) {
+                connectTimeouts.put(host, _request.getTimeouts().getConnect());
+            }
+        } catch (IllegalArgumentException ex) {
+            return Observable.error(ex);
+        }
+        if (http1Hosts.contains(host)) {
+            return fallback.execute(_request);
+        }
+        return Observable
+                .create((Subscriber<? super SafeResponse> arg0) -> acquire(() -> send(_request, host, arg0)))
+                .observeOn(scheduler)
+                .onErrorResumeNext((Throwable t) -> {
+                    if (!http2Hosts.contains(host) && isNegotiationFailure(t)) {
+                        http1Hosts.add(host);
+                        return fallback.execute(_request);
+                    }
+                    return Observable.error(t);
+                });
+    }
+
+    /**
+     * Checks if a host is known to speak HTTP/2
+     *
+     * @param _host the host, as scheme://authority
+     *
+     * @return true if the host already answered over HTTP/2, or false
+     */
+    public boolean isHttp2(String _host) {
+        return http2Hosts.contains(hostKey(URI.create(_host)));
+    }
+
+    /**
+     * Returns the number of requests currently multiplexed
+     *
+     * @return the number of active streams
+     */
+    public int getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    /**
+     * Returns the number of requests waiting for a stream
+     *
+     * @return the number of pending requests
+     */
+    public int getPendingStreams() {
+        return pendingStreams.size();
+    }
+
+    /**
+     * Closes the HTTP/2 connections and the fallback transport
+     *
+     * @throws IOException if the fallback transport could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        client.close(CloseMode.GRACEFUL);
+        fallback.close();
+    }
+
+    private void send(PreparedRequest _request, String _host, Subscriber<? super SafeResponse> _subscriber) {
+        if (_subscriber.isUnsubscribed()) {
+            release();
+            return;
+        }
+        SimpleHttpRequest req;
+        try {
+            req = toHttpRequest(_request);
+        } catch (RuntimeException ex) {
+            release();
+            _subscriber.onError(ex);
+            return;
+        }
+        Future<SimpleHttpResponse> future = client.execute(req, new FutureCallback<SimpleHttpResponse>() {
+            @Override
+            public void completed(SimpleHttpResponse t) {
+                release();
+                http2Hosts.add(_host);
+                String reason = t.getReasonPhrase();
+                if (reason == null || reason.isEmpty()) {
+                    reason = EnglishReasonPhraseCatalog.INSTANCE.getReason(t.getCode(), Locale.ENGLISH);
+                }
+                Map<String, String> headers = new HashMap<>();
+                for (Header header : t.getHeaders()) {
+                    headers.putIfAbsent(header.getName(), header.getValue());
+                }
+                ContentType type = t.getContentType();
+                if (type != null && type.getCharset() != null && !StandardCharsets.UTF_8.equals(type.getCharset())) {
+                    _subscriber.onNext(new SafeResponse(t.getCode(), reason, t.getBodyText(), headers));
+                } else {
+                    byte[] body = t.getBodyBytes();
+                    _subscriber.onNext(SafeResponse.wrap(t.getCode(), reason, (body == null) ? null : ByteBuffer.wrap(body), headers));
+                }
+                _subscriber.onCompleted();
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                release();
+                _subscriber.onError(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                release();
+                if (!_subscriber.isUnsubscribed()) {
+                    _subscriber.onError(new CancellationException("request cancelled"));
+                }
+            }
+        });
+        _subscriber.add(Subscriptions.create(() -> {
+            if (!future.isDone()) {
+                future.cancel(true);
+            }
+        }));
+    }
+
+    private void acquire(Runnable _stream) {
+        pendingStreams.add(_stream);
+        drain();
+    }
+
+    private void release() {
+        activeStreams.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (!pendingStreams.isEmpty()) {
+            int active = activeStreams.get();
+            if (active >= maxConcurrentStreams) {
+                return;
+            }
+            if (activeStreams.compareAndSet(active, active + 1)) {
+                Runnable next = pendingStreams.poll();
+                if (next == null) {
+                    activeStreams.decrementAndGet();
+                } else {
+                    next.run();
+                }
+            }
+        }
+    }
+
+    private static SimpleHttpRequest toHttpRequest(PreparedRequest _request) {
+        SimpleHttpRequest req = new SimpleHttpRequest(_request.getMethod().name(), URI.create(_request.getUrl()));
+        String contentType = "application/json";
+        for (Map.Entry<String, String> header : _request.getHeaders().entrySet()) {
+            if (header.getKey().equalsIgnoreCase("Content-type")) {
+                contentType = header.getValue();
+            } else {
+                req.setHeader(header.getKey(), header.getValue());
+            }
+        }
+        if (_request.getBody() != null) {
+            req.setBody(_request.getBody(), ContentType.parse(contentType));
+        }
+        if (_request.getTimeouts() != null) {
+            req.setConfig(RequestConfig.custom()
+                    .setResponseTimeout(Timeout.ofMilliseconds(_request.getTimeouts().getRead()))
+                    .build());
+        }
+        return req;
+    }
+
+    /**
+     * The connection to a host is shared by all its requests, so it is opened
+     * with the connect timeout of the latest request sent to this host
+     */
+    private ConnectionConfig connectionConfig(HttpHost _host) {
+        Long timeout = connectTimeouts.get(hostKey(_host.getSchemeName(), _host.getHostName(), _host.getPort()));
+        if (timeout == null) {
+            return ConnectionConfig.DEFAULT;
+        }
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(timeout))
+                .build();
+    }
+
+    private static boolean isNegotiationFailure(Throwable _error) {
+        return _error instanceof ProtocolNegotiationException;
+    }
+
+    /**
+     * Returns the key of a host, as scheme://host:port with the default port
+     * of the scheme made explicit
+     */
+    private static String hostKey(URI _uri) {
+        if (_uri.getScheme() == null || _uri.getHost() == null) {
+            throw new IllegalArgumentException("Not an absolute URL: " + _uri);
+        }
+        return hostKey(_uri.getScheme(), _uri.getHost(), _uri.getPort());
+    }
+
+    private static String hostKey(String _scheme, String _host, int _port) {
+        String scheme = _scheme.toLowerCase(Locale.ROOT);
+        int port = (_port >= 0) ? _port : ("https".equals(scheme) ? 443 : 80);
+        return scheme + "://" + _host.toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    /**
+     * Fails the TLS connections of which the handshake did not select HTTP/2:
+     * the HTTP/2 client of HttpClient 5 would otherwise send its preface to
+     * hosts not supporting ALPN, failing with an I/O error that cannot be told
+     * apart from a real failure
+     */
+    private static class StrictAlpn implements TlsStrategy {
+
+        private final TlsStrategy delegate;
+
+        private StrictAlpn(TlsStrategy _delegate) {
+            delegate = _delegate;
+        }
+
+        @Override
+        public void upgrade(TransportSecurityLayer _session, NamedEndpoint _endpoint, Object _attachment, Timeout _timeout, FutureCallback<TransportSecurityLayer> _callback) {
+            delegate.upgrade(_session, _endpoint, _attachment, _timeout, new FutureCallback<TransportSecurityLayer>() {
+                @Override
+                public void completed(TransportSecurityLayer t) {
+                    TlsDetails details = t.getTlsDetails();
+                    String protocol = (details == null) ? null : details.getApplicationProtocol();
+                    if (ApplicationProtocol.HTTP_2.id.equals(protocol)) {
+                        _callback.completed(t);
+                        return;
+                    }
+                    if (t instanceof ModalCloseable) {
+                        ((ModalCloseable) t).close(CloseMode.IMMEDIATE);
+                    }
+                    _callback.failed(new ProtocolNegotiationException("ALPN: " + ((protocol == null || protocol.isEmpty()) ? "missing application protocol" : "unexpected application protocol '" + protocol + "'")));
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    _callback.failed(ex);
+                }
+
+                @Override
+                public void cancelled() {
+                    _callback.cancelled();
+                }
+            });
+        }
+
+        @Override
+        @Deprecated
+        public boolean upgrade(TransportSecurityLayer _session, HttpHost _host, SocketAddress _localAddress, SocketAddress _remoteAddress, Object _attachment, Timeout _timeout) {
+            return delegate.upgrade(_session, _host, _localAddress, _remoteAddress, _attachment, _timeout);
+        }
+    }
+
+}
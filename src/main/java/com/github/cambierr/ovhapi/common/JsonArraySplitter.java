@@ -0,0 +1,314 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.json.JSONException;
+
+/**
+ * Incrementally splits a JSON array into its top-level elements
+ *
+ * <p>
+ * Bytes are fed chunk by chunk, as received from the network. Only the
+ * element being read is kept in memory, and each element is returned as soon
+ * as its last byte has been fed.</p>
+ *
+ * @author cambierr
+ */
+class JsonArraySplitter {
+
+    private static final int BEFORE = 0;
+    private static final int BETWEEN = 1;
+    private static final int ELEMENT = 2;
+    private static final int SCALAR = 3;
+    private static final int AFTER = 4;
+
+    private static final boolean SWAR = !"false".equals(System.getProperty("com.github.cambierr.ovhapi.swar"));
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long CASE = 0x2020202020202020L;
+    private static final long QUOTES = '"' * ONES;
+    private static final long BACKSLASHES = '\\' * ONES;
+    private static final long OPENINGS = '{' * ONES;
+    private static final long CLOSINGS = '}' * ONES;
+
+    private int state = BEFORE;
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+
+    private byte[] element = new byte[256];
+    private int length = 0;
+
+    private final boolean swar;
+
+    /**
+     * Creates a splitter, using the word-at-a-time scan unless the
+     * "com.github.cambierr.ovhapi.swar" system property is "false"
+     */
+    JsonArraySplitter() {
+        this(SWAR);
+    }
+
+    /**
+     * Creates a splitter
+     *
+     * @param _swar true to scan the elements 8 bytes at a time, or false to
+     * scan them byte by byte
+     */
+    JsonArraySplitter(boolean _swar) {
+        swar = _swar;
+    }
+
+    /**
+     * Feeds a chunk of the array
+     *
+     * @param _chunk the next bytes of the array
+     *
+     * @return the elements completed by this chunk, as JSON texts
+     *
+     * @throws JSONException if the data is not a JSON array
+     */
+    List<String> feed(ByteBuffer _chunk) throws JSONException {
+        List<String> output = new ArrayList<>();
+        while (_chunk.hasRemaining()) {
+            if (swar && state == ELEMENT && !escaped) {
+                scanElement(_chunk, output);
+                continue;
+            }
+            byte b = _chunk.get();
+            switch (state) {
+                case BEFORE:
+                    if (b == '[') {
+                        state = BETWEEN;
+                    } else if (!isWhitespace(b)) {
+                        throw new JSONException("A JSONArray text must start with '['");
+                    }
+                    break;
+                case BETWEEN:
+                    if (b == ']') {
+                        state = AFTER;
+                    } else if (b == '{' || b == '[' || b == '"') {
+                        state = ELEMENT;
+                        if (swar) {
+                            _chunk.position(_chunk.position() - 1);
+                            depth = 0;
+                            inString = false;
+                        } else {
+                            append(b);
+                            depth = (b == '"') ? 0 : 1;
+                            inString = (b == '"');
+                        }
+                    } else if (!isWhitespace(b) && b != ',') {
+                        append(b);
+                        state = SCALAR;
+                    }
+                    break;
+                case ELEMENT:
+                    append(b);
+                    if (inString) {
+                        if (escaped) {
+                            escaped = false;
+                        } else if (b == '\\') {
+                            escaped = true;
+                        } else if (b == '"') {
+                            inString = false;
+                            if (depth == 0) {
+                                output.add(flush());
+                            }
+                        }
+                    } else if (b == '"') {
+                        inString = true;
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if (b == '}' || b == ']') {
+                        if (--depth == 0) {
+                            output.add(flush());
+                        }
+                    }
+                    break;
+                case SCALAR:
+                    if (b == ',' || b == ']' || isWhitespace(b)) {
+                        output.add(flush());
+                        if (b == ']') {
+                            state = AFTER;
+                        }
+                    } else {
+                        append(b);
+                    }
+                    break;
+                default:
+                    if (!isWhitespace(b)) {
+                        throw new JSONException("Unexpected data after the end of the JSONArray");
+                    }
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Checks that the whole array has been fed
+     *
+     * @throws JSONException if the array is not terminated
+     */
+    void finish() throws JSONException {
+        if (state != AFTER) {
+            throw new JSONException("A JSONArray text must end with ']'");
+        }
+    }
+
+    /**
+     * Reads the current element up to its end or to the end of the chunk,
+     * jumping from one structural byte (a quote or a bracket, or a quote or a
+     * backslash in a string) to the next one
+     *
+     * <p>
+     * The bytes in between are not looked at one by one: they are copied at
+     * once.</p>
+     */
+    private void scanElement(ByteBuffer _chunk, List<String> _output) {
+        int start = _chunk.position();
+        int limit = _chunk.limit();
+        int index = start;
+        boolean bigEndian = _chunk.order() == ByteOrder.BIG_ENDIAN;
+        while (true) {
+            index = nextStructural(_chunk, index, limit, bigEndian);
+            if (index >= limit) {
+                append(_chunk, start, limit);
+                return;
+            }
+            byte b = _chunk.get(index++);
+            if (inString) {
+                if (b == '\\') {
+                    if (index >= limit) {
+                        escaped = true;
+                        append(_chunk, start, limit);
+                        return;
+                    }
+                    index++;
+                } else {
+                    inString = false;
+                    if (depth == 0) {
+                        _output.add(flush(_chunk, start, index));
+                        return;
+                    }
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (--depth == 0) {
+                _output.add(flush(_chunk, start, index));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the next structural byte of a chunk
+     *
+     * <p>
+     * Bytes are compared 8 at a time: a word holds a structural byte if one
+     * of its bytes, XORed with it, is zero. Brackets and braces only differ by
+     * their 0x20 bit, so setting this bit matches both with one
+     * comparison.</p>
+     *
+     * @return the index of the structural byte, or the limit if none
+     */
+    private int nextStructural(ByteBuffer _chunk, int _from, int _limit, boolean _bigEndian) {
+        int index = _from;
+        while (index + 8 <= _limit) {
+            long word = _chunk.getLong(index);
+            long found;
+            if (inString) {
+                found = zeros(word ^ QUOTES) | zeros(word ^ BACKSLASHES);
+            } else {
+                long folded = word | CASE;
+                found = zeros(word ^ QUOTES) | zeros(folded ^ OPENINGS) | zeros(folded ^ CLOSINGS);
+            }
+            if (found != 0) {
+                return index + ((_bigEndian ? Long.numberOfLeadingZeros(found) : Long.numberOfTrailingZeros(found)) >>> 3);
+            }
+            index += 8;
+        }
+        while (index < _limit && !isStructural(_chunk.get(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns a word with the high bit of each zero byte of a word set (and
+     * only of these bytes)
+     */
+    private static long zeros(long _word) {
+        return ~(((_word & LOWS) + LOWS) | _word | LOWS);
+    }
+
+    private boolean isStructural(byte _b) {
+        if (inString) {
+            return _b == '"' || _b == '\\';
+        }
+        return _b == '"' || _b == '{' || _b == '}' || _b == '[' || _b == ']';
+    }
+
+    private void append(ByteBuffer _chunk, int _from, int _to) {
+        int count = _to - _from;
+        if (length + count > element.length) {
+            element = Arrays.copyOf(element, Math.max(element.length * 2, length + count));
+        }
+        _chunk.position(_from);
+        _chunk.get(element, length, count);
+        length += count;
+    }
+
+    private void append(byte _b) {
+        if (length == element.length) {
+            element = Arrays.copyOf(element, length * 2);
+        }
+        element[length++] = _b;
+    }
+
+    private String flush(ByteBuffer _chunk, int _from, int _to) {
+        append(_chunk, _from, _to);
+        return flush();
+    }
+
+    private String flush() {
+        String output = new String(element, 0, length, StandardCharsets.UTF_8);
+        length = 0;
+        state = BETWEEN;
+        return output;
+    }
+
+    private static boolean isWhitespace(byte _b) {
+        return _b == ' ' || _b == '\n' || _b == '\r' || _b == '\t';
+    }
+
+}
@@ -0,0 +1,474 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import org.json.JSONException;
+
+/**
+ * Pull parser reading a JSON text token by token
+ *
+ * <p>
+ * Unlike org.json, no intermediate document is built: values are read in
+ * document order and can be bound straight to their target object. Strings
+ * without escape sequences are returned as substrings of the text and
+ * numbers are parsed without being boxed.</p>
+ *
+ * @author cambierr
+ */
+public class JsonReader {
+
+    private final String json;
+    private int pos = 0;
+
+    /**
+     * Creates a reader over a JSON text
+     *
+     * @param _json the JSON text to read
+     */
+    public JsonReader(String _json) {
+        json = (_json == null) ? "" : _json;
+    }
+
+    /**
+     * Consumes the beginning of an object
+     *
+     * @throws JSONException if the next value is not an object
+     */
+    public void beginObject() throws JSONException {
+        separator();
+        expect('{');
+    }
+
+    /**
+     * Consumes the end of an object
+     *
+     * @throws JSONException if the current object has remaining members
+     */
+    public void endObject() throws JSONException {
+        expect('}');
+    }
+
+    /**
+     * Consumes the beginning of an array
+     *
+     * @throws JSONException if the next value is not an array
+     */
+    public void beginArray() throws JSONException {
+        separator();
+        expect('[');
+    }
+
+    /**
+     * Consumes the end of an array
+     *
+     * @throws JSONException if the current array has remaining elements
+     */
+    public void endArray() throws JSONException {
+        expect(']');
+    }
+
+    /**
+     * Checks if the current object or array has another member
+     *
+     * @return true if another member follows, or false
+     *
+     * @throws JSONException if the text ends
+     */
+    public boolean hasNext() throws JSONException {
+        separator();
+        char c = peekChar();
+        return c != '}' && c != ']';
+    }
+
+    /**
+     * Reads the name of the next object member
+     *
+     * @return the member name
+     *
+     * @throws JSONException if the next token is not a member name
+     */
+    public String nextName() throws JSONException {
+        separator();
+        String name = readString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Reads a string value
+     *
+     * @return the string, or the literal text of a number or a boolean
+     *
+     * @throws JSONException if the next value is null, an object or an array
+     */
+    public String nextString() throws JSONException {
+        separator();
+        char c = peekChar();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '-' || (c >= '0' && c <= '9') || c == 't' || c == 'f') {
+            return readLiteral();
+        }
+        throw error("Expected a string");
+    }
+
+    /**
+     * Reads a string value which may be null
+     *
+     * @return the string, or null
+     *
+     * @throws JSONException if the next value is an object or an array
+     */
+    public String nextStringOrNull() throws JSONException {
+        return nextNull() ? null : nextString();
+    }
+
+    /**
+     * Reads a long value
+     *
+     * @return the number, truncated if it has a fraction
+     *
+     * @throws JSONException if the next value is not a number
+     */
+    public long nextLong() throws JSONException {
+        separator();
+        if (peekChar() == '"') {
+            String text = readString();
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException ex) {
+                return (long) parseDouble(text);
+            }
+        }
+        int start = pos;
+        boolean negative = false;
+        if (pos < json.length() && json.charAt(pos) == '-') {
+            negative = true;
+            pos++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+            pos++;
+        }
+        if (digits == 0) {
+            pos = start;
+            throw error("Expected a number");
+        }
+        if (digits > 18 || (pos < json.length() && isFraction(json.charAt(pos)))) {
+            pos = start;
+            return (long) parseDouble(readLiteral());
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads an int value
+     *
+     * @return the number, truncated if it has a fraction
+     *
+     * @throws JSONException if the next value is not a number
+     */
+    public int nextInt() throws JSONException {
+        return (int) nextLong();
+    }
+
+    /**
+     * Reads a double value
+     *
+     * @return the number
+     *
+     * @throws JSONException if the next value is not a number
+     */
+    public double nextDouble() throws JSONException {
+        separator();
+        return parseDouble((peekChar() == '"') ? readString() : readLiteral());
+    }
+
+    /**
+     * Reads a boolean value
+     *
+     * @return the boolean
+     *
+     * @throws JSONException if the next value is not a boolean
+     */
+    public boolean nextBoolean() throws JSONException {
+        separator();
+        String text = (peekChar() == '"') ? readString() : readLiteral();
+        if (text.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (text.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw error("Expected a boolean");
+    }
+
+    /**
+     * Consumes the next value if it is null
+     *
+     * @return true if a null value was consumed, or false
+     *
+     * @throws JSONException if the text ends
+     */
+    public boolean nextNull() throws JSONException {
+        separator();
+        if (peekChar() == 'n' && json.startsWith("null", pos)) {
+            pos += 4;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Skips the next value, with all its members
+     *
+     * @throws JSONException if the next value is malformed
+     */
+    public void skipValue() throws JSONException {
+        separator();
+        char c = peekChar();
+        if (c == '"') {
+            skipString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = peekChar();
+                if (c == '"') {
+                    skipString();
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                pos++;
+            } while (depth > 0);
+        } else {
+            readLiteral();
+        }
+    }
+
+    /**
+     * Checks that the whole text has been read
+     *
+     * @throws JSONException if anything but whitespace remains
+     */
+    public void end() throws JSONException {
+        skipWhitespace();
+        if (pos < json.length()) {
+            throw error("Unexpected trailing data");
+        }
+    }
+
+    /**
+     * Checks that a required member was read
+     *
+     * @param <T> the member type
+     * @param _value the value read, or null if the member was missing
+     * @param _name the member name
+     *
+     * @return the value
+     *
+     * @throws JSONException if the value is null
+     */
+    public static <T> T require(T _value, String _name) throws JSONException {
+        if (_value == null) {
+            throw new JSONException("JSONObject[\"" + _name + "\"] not found.");
+        }
+        return _value;
+    }
+
+    private void expect(char _token) throws JSONException {
+        if (peekChar() != _token) {
+            throw error("Expected '" + _token + "'");
+        }
+        pos++;
+    }
+
+    private char peekChar() throws JSONException {
+        skipWhitespace();
+        if (pos >= json.length()) {
+            throw error("Unexpected end of text");
+        }
+        return json.charAt(pos);
+    }
+
+    /**
+     * Consumes the comma separating two members, which is required after a
+     * value and forbidden anywhere else
+     */
+    private void separator() throws JSONException {
+        skipWhitespace();
+        int previous = pos - 1;
+        while (previous >= 0 && isWhitespace(json.charAt(previous))) {
+            previous--;
+        }
+        char last = (previous < 0) ? ',' : json.charAt(previous);
+        boolean afterValue = last != '{' && last != '[' && last != ':' && last != ',';
+        char next = (pos < json.length()) ? json.charAt(pos) : ']';
+        if (next == ',') {
+            if (!afterValue) {
+                throw error("Unexpected ','");
+            }
+            pos++;
+            skipWhitespace();
+            if (pos < json.length() && (json.charAt(pos) == '}' || json.charAt(pos) == ']')) {
+                throw error("Unexpected ','");
+            }
+        } else if (afterValue && next != '}' && next != ']') {
+            throw error("Expected ','");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length() && isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean isWhitespace(char _c) {
+        return _c == ' ' || _c == '\n' || _c == '\r' || _c == '\t';
+    }
+
+    private String readString() throws JSONException {
+        expect('"');
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == '"') {
+                return json.substring(start, pos++);
+            }
+            if (c == '\\') {
+                return readEscapedString(start);
+            }
+            pos++;
+        }
+        throw error("Unterminated string");
+    }
+
+    private String readEscapedString(int _start) throws JSONException {
+        StringBuilder output = new StringBuilder(pos - _start + 16).append(json, _start, pos);
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return output.toString();
+            }
+            if (c != '\\') {
+                output.append(c);
+                continue;
+            }
+            if (pos >= json.length()) {
+                break;
+            }
+            c = json.charAt(pos++);
+            switch (c) {
+                case 'b':
+                    output.append('\b');
+                    break;
+                case 'f':
+                    output.append('\f');
+                    break;
+                case 'n':
+                    output.append('\n');
+                    break;
+                case 'r':
+                    output.append('\r');
+                    break;
+                case 't':
+                    output.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > json.length()) {
+                        throw error("Illegal escape");
+                    }
+                    try {
+                        output.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("Illegal escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    output.append(c);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipString() throws JSONException {
+        expect('"');
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                pos++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private String readLiteral() throws JSONException {
+        skipWhitespace();
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || c == ':' || c == '"' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Expected a value");
+        }
+        return json.substring(start, pos);
+    }
+
+    private double parseDouble(String _text) throws JSONException {
+        try {
+            return Double.parseDouble(_text);
+        } catch (NumberFormatException ex) {
+            throw error("Expected a number");
+        }
+    }
+
+    private static boolean isFraction(char _c) {
+        return _c == '.' || _c == 'e' || _c == 'E';
+    }
+
+    private JSONException error(String _message) {
+        return new JSONException(_message + " at " + pos);
+    }
+
+}
@@ -24,8 +24,6 @@
 package com.github.cambierr.ovhapi.common;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 /**
  *
@@ -42,12 +40,7 @@ public class OvhApi {
      */
     public final static String API_ENDPOINT = "eu.api.ovh.com";
     /**
-     * The API date format
-     */
-    private final static SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-
-    /**
-     * Converts OVH API's dates to timestamps
+     * Converts OVH API's dates to timestamps (thread-safe)
      *
      * @param _date the date to be converted
      *
@@ -57,20 +50,20 @@ public class OvhApi {
      */
     public static long dateToTime(String _date) throws RuntimeException {
         try {
-            return dateFormat.parse(_date).getTime();
+            return DateCodec.parse(_date);
         } catch (ParseException ex) {
             throw new RuntimeException(ex);
         }
     }
 
     /**
-     * Converts timestamp to OVH API's date format
+     * Converts timestamp to OVH API's date format (thread-safe)
      *
      * @param _time the timestamp to convert
      *
      * @return the formated date
      */
     public static String timeToDate(long _time) {
-        return dateFormat.format(new Date(_time));
+        return DateCodec.format(_time);
     }
 }
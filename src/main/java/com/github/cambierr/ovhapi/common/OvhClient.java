@@ -0,0 +1,406 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
+
+/**
+ * Holds everything a set of credentials needs to talk to the API
+ *
+ * <p>
+ * Credentials built without an explicit client share the default one.</p>
+ *
+ * @author cambierr
+ */
+public class OvhClient {
+
+    private static volatile OvhClient defaultClient;
+
+    private volatile Transport transport;
+    private volatile RequestCoalescer coalescer = new RequestCoalescer();
+    private volatile ValidatorCache validatorCache;
+    private volatile RateLimitConfig rateLimit;
+    private volatile RetryPolicy retryPolicy = new RetryPolicy();
+    private volatile HedgingPolicy hedgingPolicy;
+    private volatile ParallelDecoding parallelDecoding;
+    private volatile Timeouts timeouts = new Timeouts();
+    private volatile EndpointSelector endpoints = new EndpointSelector(Endpoint.OVH_EU);
+    private volatile ClockSync clockSync;
+    private volatile Codecs codecs = new Codecs();
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private volatile CircuitBreakerConfig circuitBreaker;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Subject<CircuitEvent, CircuitEvent> circuitEvents = PublishSubject.<CircuitEvent>create().toSerialized();
+
+    /**
+     * Creates a client using a new non-blocking transport
+     */
+    public OvhClient() {
+        this(new AsyncTransport());
+    }
+
+    /**
+     * Creates a client using the provided transport
+     *
+     * @param _transport the transport to send requests with
+     */
+    public OvhClient(Transport _transport) {
+        transport = _transport;
+    }
+
+    /**
+     * Returns the client shared by all credentials built without an explicit
+     * one
+     *
+     * @return the default client
+     */
+    public static OvhClient getDefault() {
+        if (defaultClient == null) {
+            synchronized (OvhClient.class) {
+                if (defaultClient == null) {
+                    defaultClient = new OvhClient();
+                }
+            }
+        }
+        return defaultClient;
+    }
+
+    /**
+     * Replaces the client shared by all credentials built without an explicit
+     * one
+     *
+     * @param _client the new default client
+     */
+    public static void setDefault(OvhClient _client) {
+        synchronized (OvhClient.class) {
+            defaultClient = _client;
+        }
+    }
+
+    /**
+     * Sets the transport used by this client
+     *
+     * @param _transport the transport to send requests with
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient transport(Transport _transport) {
+        transport = _transport;
+        return this;
+    }
+
+    /**
+     * Enables or disables the coalescing of identical in-flight GET requests
+     * (enabled by default)
+     *
+     * @param _enabled true to share identical in-flight GET requests
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient coalescing(boolean _enabled) {
+        coalescer = _enabled ? new RequestCoalescer() : null;
+        return this;
+    }
+
+    /**
+     * Returns the coalescer sharing identical in-flight GET requests
+     *
+     * @return the coalescer of this client, or null if disabled
+     */
+    public RequestCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * Sets the cache used to revalidate GET responses with conditional
+     * requests (disabled by default)
+     *
+     * @param _cache the validator cache, or null to disable conditional
+     * requests
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient validatorCache(ValidatorCache _cache) {
+        validatorCache = _cache;
+        return this;
+    }
+
+    /**
+     * Returns the cache used to revalidate GET responses
+     *
+     * @return the validator cache of this client, or null if disabled
+     */
+    public ValidatorCache getValidatorCache() {
+        return validatorCache;
+    }
+
+    /**
+     * Limits the rate of the requests sent with each application key and
+     * consumer key (disabled by default)
+     *
+     * @param _config the rate limit settings, or null to disable rate limiting
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient rateLimit(RateLimitConfig _config) {
+        rateLimit = _config;
+        rateLimiters.clear();
+        return this;
+    }
+
+    /**
+     * Returns the rate limiter of an application key and consumer key
+     *
+     * @param _applicationKey the application key
+     * @param _consumerKey the consumer key (null for unauthenticated requests)
+     *
+     * @return the rate limiter, or null if rate limiting is disabled
+     */
+    public RateLimiter getRateLimiter(String _applicationKey, String _consumerKey) {
+        RateLimitConfig config = rateLimit;
+        if (config == null) {
+            return null;
+        }
+        return rateLimiters.computeIfAbsent(_applicationKey + "+" + _consumerKey, (String t) -> new RateLimiter(config));
+    }
+
+    /**
+     * Protects each route (method and path template) with its own circuit
+     * breaker (disabled by default)
+     *
+     * @param _config the circuit breaker settings, or null to disable circuit
+     * breaking
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient circuitBreaker(CircuitBreakerConfig _config) {
+        circuitBreaker = _config;
+        circuitBreakers.clear();
+        return this;
+    }
+
+    /**
+     * Returns the circuit breaker protecting the route of a request
+     *
+     * @param _method the method of the request
+     * @param _path the path of the request
+     *
+     * @return the circuit breaker, or null if circuit breaking is disabled
+     */
+    public CircuitBreaker getCircuitBreaker(Method _method, String _path) {
+        CircuitBreakerConfig config = circuitBreaker;
+        if (config == null) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(CircuitBreaker.route(_method, _path), (String t) -> new CircuitBreaker(t, config, Schedulers.immediate(), circuitEvents::onNext));
+    }
+
+    /**
+     * Returns the state transitions of the circuit breakers of this client
+     *
+     * @return an observable of the circuit state transitions
+     */
+    public Observable<CircuitEvent> getCircuitEvents() {
+        return circuitEvents.asObservable();
+    }
+
+    /**
+     * Sets the policy used to retry the requests failing because of a
+     * transient error (by default, idempotent requests are tried up to 4
+     * times)
+     *
+     * @param _policy the retry policy, or RetryPolicy.none() to disable
+     * retries
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient retryPolicy(RetryPolicy _policy) {
+        retryPolicy = _policy;
+        return this;
+    }
+
+    /**
+     * Returns the policy used to retry the requests of this client
+     *
+     * @return the retry policy of this client
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sets the policy used to hedge the GET requests of this client (disabled
+     * by default)
+     *
+     * @param _policy the hedging policy, or null to disable hedging
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient hedgingPolicy(HedgingPolicy _policy) {
+        hedgingPolicy = _policy;
+        return this;
+    }
+
+    /**
+     * Returns the policy used to hedge the GET requests of this client
+     *
+     * @return the hedging policy of this client, or null if disabled
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Decodes the elements of the arrays streamed by this client in parallel
+     * (disabled by default)
+     *
+     * @param _decoding the parallel decoding settings, or null to decode the
+     * elements one by one as they are received
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient parallelDecoding(ParallelDecoding _decoding) {
+        parallelDecoding = _decoding;
+        return this;
+    }
+
+    /**
+     * Returns the settings used to decode the streamed arrays in parallel
+     *
+     * @return the parallel decoding settings of this client, or null if
+     * disabled
+     */
+    public ParallelDecoding getParallelDecoding() {
+        return parallelDecoding;
+    }
+
+    /**
+     * Sets the default timeouts of the requests of this client
+     *
+     * @param _timeouts the default timeouts
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient timeouts(Timeouts _timeouts) {
+        timeouts = _timeouts;
+        return this;
+    }
+
+    /**
+     * Returns the default timeouts of the requests of this client
+     *
+     * @return the default timeouts of this client
+     */
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Sets the endpoints the requests of this client are sent to
+     *
+     * @param _endpoints the endpoints
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient endpoints(EndpointSelector _endpoints) {
+        if (_endpoints == null) {
+            throw new IllegalArgumentException("endpoints must not be null");
+        }
+        endpoints = _endpoints;
+        return this;
+    }
+
+    /**
+     * Returns the endpoints the requests of this client are sent to
+     *
+     * @return the endpoints of this client
+     */
+    public EndpointSelector getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Sets the clock used to timestamp the signed requests of this client (the
+     * local clock by default)
+     *
+     * @param _clockSync the clock sync (null = the local clock, without sync)
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient clockSync(ClockSync _clockSync) {
+        ClockSync previous = clockSync;
+        clockSync = _clockSync;
+        if (previous != null && previous != _clockSync) {
+            previous.stop();
+        }
+        return this;
+    }
+
+    /**
+     * Returns the clock used to timestamp the signed requests of this client
+     *
+     * @return the clock sync of this client, or null if the local clock is
+     * used
+     */
+    public ClockSync getClockSync() {
+        return clockSync;
+    }
+
+    /**
+     * Sets the codecs used to decode the responses received by this client
+     *
+     * @param _codecs the codecs (null = a new registry holding the default
+     * codecs)
+     *
+     * @return the updated OvhClient
+     */
+    public OvhClient codecs(Codecs _codecs) {
+        codecs = (_codecs == null) ? new Codecs() : _codecs;
+        return this;
+    }
+
+    /**
+     * Returns the codecs used to decode the responses received by this client
+     *
+     * @return the codecs of this client, where codecs can be registered
+     */
+    public Codecs getCodecs() {
+        return codecs;
+    }
+
+    /**
+     * Returns the transport used by this client
+     *
+     * @return the transport used by this client
+     */
+    public Transport getTransport() {
+        return transport;
+    }
+
+}
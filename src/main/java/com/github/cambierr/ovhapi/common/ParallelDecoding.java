@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Func1;
+
+/**
+ * Decodes the elements of streamed arrays on a fork-join pool
+ *
+ * <p>
+ * Elements are grouped in batches as they are received; each batch is split
+ * in tasks decoded in parallel. Batches are emitted in their original order,
+ * unless ordering is disabled, in which case each batch is emitted as soon as
+ * it has been decoded.</p>
+ *
+ * @author cambierr
+ */
+public class ParallelDecoding {
+
+    private final ForkJoinPool pool;
+    private int batchSize = 1024;
+    private int threshold = 64;
+    private boolean ordered = true;
+
+    /**
+     * Creates a parallel decoding with the default settings, on the common
+     * fork-join pool: batches of 1024 elements, split in tasks of 64 elements,
+     * emitted in their original order
+     */
+    public ParallelDecoding() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a parallel decoding with the default settings
+     *
+     * @param _pool the pool the elements are decoded on
+     */
+    public ParallelDecoding(ForkJoinPool _pool) {
+        pool = _pool;
+    }
+
+    /**
+     * Sets the number of elements grouped before being decoded
+     *
+     * @param _batchSize the number of elements per batch
+     *
+     * @return the updated ParallelDecoding
+     */
+    public ParallelDecoding batchSize(int _batchSize) {
+        if (_batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        batchSize = _batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of elements under which a batch is no longer split
+     *
+     * @param _threshold the maximum number of elements decoded by one task
+     *
+     * @return the updated ParallelDecoding
+     */
+    public ParallelDecoding threshold(int _threshold) {
+        if (_threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+        threshold = _threshold;
+        return this;
+    }
+
+    /**
+     * Sets whether the elements keep the order of the array
+     *
+     * @param _ordered true to keep the original order, or false to emit each
+     * batch as soon as it has been decoded
+     *
+     * @return the updated ParallelDecoding
+     */
+    public ParallelDecoding ordered(boolean _ordered) {
+        ordered = _ordered;
+        return this;
+    }
+
+    /**
+     * Returns the pool the elements are decoded on
+     *
+     * @return the fork-join pool
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Returns the number of elements grouped before being decoded
+     *
+     * @return the number of elements per batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the number of elements under which a batch is no longer split
+     *
+     * @return the maximum number of elements decoded by one task
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Checks whether the elements keep the order of the array
+     *
+     * @return true if the original order is kept, or false
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param <T> the type of the decoded elements
+     * @param _elements the elements to decode
+     * @param _decode the function decoding one element
+     *
+     * @return the decoded elements
+     */
+    <T> Observable<T> decode(Observable<String> _elements, Func1<String, T> _decode) {
+        int size = batchSize;
+        int split = threshold;
+        Observable<Observable<List<T>>> batches = _elements
+                .buffer(size)
+                .map((List<String> t) -> future(CompletableFuture.supplyAsync(() -> {
+                    Object[] output = new Object[t.size()];
+                    pool.invoke(new DecodeTask<>(t, output, _decode, 0, t.size(), split));
+                    return decoded(output);
+                }, pool)));
+        Observable<List<T>> decoded = ordered
+                ? batches.concatMap((Observable<List<T>> t) -> t)
+                : batches.flatMap((Observable<List<T>> t) -> t, pool.getParallelism());
+        return decoded.concatMap((List<T> t) -> Observable.from(t));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> decoded(Object[] _output) {
+        return (List<T>) Arrays.asList(_output);
+    }
+
+    private static <T> Observable<T> future(CompletableFuture<T> _future) {
+        return Observable.create((Subscriber<? super T> arg0) -> _future.whenComplete((T t, Throwable u) -> {
+            if (u != null) {
+                arg0.onError((u instanceof CompletionException && u.getCause() != null) ? u.getCause() : u);
+            } else {
+                arg0.onNext(t);
+                arg0.onCompleted();
+            }
+        }));
+    }
+
+    private static class DecodeTask<T> extends RecursiveAction {
+
+        private final List<String> input;
+        private final Object[] output;
+        private final Func1<String, T> decode;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private DecodeTask(List<String> _input, Object[] _output, Func1<String, T> _decode, int _from, int _to, int _threshold) {
+            input = _input;
+            output = _output;
+            decode = _decode;
+            from = _from;
+            to = _to;
+            threshold = _threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    output[i] = decode.call(input.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DecodeTask<>(input, output, decode, from, middle, threshold),
+                    new DecodeTask<>(input, output, decode, middle, to, threshold));
+        }
+    }
+
+}
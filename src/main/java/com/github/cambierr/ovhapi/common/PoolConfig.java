@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+
+/**
+ * Connection pool settings of a Transport
+ *
+ * @author cambierr
+ */
+public class PoolConfig {
+
+    private int maxTotal = 200;
+    private int maxPerRoute = 100;
+    private long idleTimeout = TimeUnit.SECONDS.toMillis(30);
+    private long keepAlive = TimeUnit.SECONDS.toMillis(30);
+    private long timeToLive = -1;
+    private SSLContext sslContext;
+
+    /**
+     * Creates a pool configuration with the default settings: 200 connections
+     * (100 per route), idle connections evicted after 30s, 30s keep-alive and
+     * no time to live
+     */
+    public PoolConfig() {
+    }
+
+    /**
+     * Sets the maximum number of connections in the pool
+     *
+     * @param _maxTotal the maximum number of connections
+     *
+     * @return the updated PoolConfig
+     */
+    public PoolConfig maxTotal(int _maxTotal) {
+        if (_maxTotal <= 0) {
+            throw new IllegalArgumentException("maxTotal must be positive");
+        }
+        maxTotal = _maxTotal;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of connections to a single route (endpoint)
+     *
+     * @param _maxPerRoute the maximum number of connections per route
+     *
+     * @return the updated PoolConfig
+     */
+    public PoolConfig maxPerRoute(int _maxPerRoute) {
+        if (_maxPerRoute <= 0) {
+            throw new IllegalArgumentException("maxPerRoute must be positive");
+        }
+        maxPerRoute = _maxPerRoute;
+        return this;
+    }
+
+    /**
+     * Sets the delay after which an unused connection is evicted from the
+     * pool
+     *
+     * @param _duration the idle delay (0 = never evict idle connections)
+     * @param _unit the unit of the delay
+     *
+     * @return the updated PoolConfig
+     */
+    public PoolConfig idleTimeout(long _duration, TimeUnit _unit) {
+        idleTimeout = _unit.toMillis(_duration);
+        return this;
+    }
+
+    /**
+     * Sets how long a connection is kept alive when the server doesn't
+     * specify it (server provided values are capped to this one)
+     *
+     * @param _duration the keep-alive duration
+     * @param _unit the unit of the duration
+     *
+     * @return the updated PoolConfig
+     */
+    public PoolConfig keepAlive(long _duration, TimeUnit _unit) {
+        keepAlive = _unit.toMillis(_duration);
+        return this;
+    }
+
+    /**
+     * Sets the maximum lifetime of a connection, whatever its activity
+     *
+     * @param _duration the time to live (negative = infinite)
+     * @param _unit the unit of the duration
+     *
+     * @return the updated PoolConfig
+     */
+    public PoolConfig timeToLive(long _duration, TimeUnit _unit) {
+        timeToLive = _duration < 0 ? -1 : _unit.toMillis(_duration);
+        return this;
+    }
+
+    /**
+     * Sets the SSL context TLS connections are opened with
+     *
+     * @param _sslContext the SSL context, or null for the default one
+     *
+     * @return the updated PoolConfig
+     */
+    public PoolConfig sslContext(SSLContext _sslContext) {
+        sslContext = _sslContext;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of connections in the pool
+     *
+     * @return the maximum number of connections in the pool
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Returns the maximum number of connections per route
+     *
+     * @return the maximum number of connections per route
+     */
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Returns the idle eviction delay, in milliseconds
+     *
+     * @return the idle eviction delay
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Returns the keep-alive duration, in milliseconds
+     *
+     * @return the keep-alive duration
+     */
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Returns the connection time to live, in milliseconds
+     *
+     * @return the connection time to live, or -1 if infinite
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Returns the SSL context TLS connections are opened with
+     *
+     * @return the SSL context, or null for the default one
+     */
+    public SSLContext getSslContext() {
+        return sslContext;
+    }
+
+}
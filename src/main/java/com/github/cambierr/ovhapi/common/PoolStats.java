@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+/**
+ * A snapshot of the state of a connection pool
+ *
+ * @author cambierr
+ */
+public class PoolStats {
+
+    private final int leased;
+    private final int idle;
+    private final int pending;
+    private final int max;
+
+    /**
+     * Creates a pool state snapshot
+     *
+     * @param _leased the number of connections currently in use
+     * @param _idle the number of connections kept alive and available
+     * @param _pending the number of requests waiting for a connection
+     * @param _max the maximum number of connections
+     */
+    public PoolStats(int _leased, int _idle, int _pending, int _max) {
+        leased = _leased;
+        idle = _idle;
+        pending = _pending;
+        max = _max;
+    }
+
+    /**
+     * Returns the number of connections currently in use
+     *
+     * @return the number of leased connections
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Returns the number of connections kept alive and available
+     *
+     * @return the number of idle connections
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Returns the number of requests waiting for a connection
+     *
+     * @return the number of pending requests
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Returns the maximum number of connections
+     *
+     * @return the maximum number of connections
+     */
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "[leased: " + leased + "; idle: " + idle + "; pending: " + pending + "; max: " + max + "]";
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A buffer leased from a {@link BufferPool}
+ *
+ * <p>
+ * The buffer must be released once consumed, and must not be used anymore
+ * afterwards: it may already be reused by another response.</p>
+ *
+ * @author cambierr
+ */
+public final class PooledBuffer {
+
+    private static final AtomicIntegerFieldUpdater<PooledBuffer> LEASED = AtomicIntegerFieldUpdater.newUpdater(PooledBuffer.class, "leased");
+    private static final int SCRATCH_SIZE = 1 << 20;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    private final BufferPool pool;
+    private final ByteBuffer buffer;
+    private volatile int leased = 1;
+
+    BufferPool.Tracker tracker;
+
+    PooledBuffer(BufferPool _pool, ByteBuffer _buffer) {
+        pool = _pool;
+        buffer = _buffer;
+    }
+
+    /**
+     * Wraps a buffer which does not belong to any pool: releasing it has no
+     * effect on the buffer
+     *
+     * @param _buffer the buffer to wrap
+     *
+     * @return a leased PooledBuffer
+     */
+    public static PooledBuffer wrap(ByteBuffer _buffer) {
+        return new PooledBuffer(null, _buffer);
+    }
+
+    /**
+     * Returns the underlying buffer
+     *
+     * @return the underlying buffer
+     *
+     * @throws IllegalStateException if this buffer has been released
+     */
+    public ByteBuffer getBuffer() {
+        if (leased == 0) {
+            throw new IllegalStateException("buffer already released");
+        }
+        return buffer;
+    }
+
+    /**
+     * Decodes the remaining bytes of this buffer, without changing its
+     * position
+     *
+     * @param _charset the charset of the bytes
+     *
+     * @return the decoded String
+     *
+     * @throws IllegalStateException if this buffer has been released
+     */
+    public String decode(Charset _charset) {
+        ByteBuffer source = getBuffer();
+        int length = source.remaining();
+        if (source.hasArray()) {
+            return new String(source.array(), source.arrayOffset() + source.position(), length, _charset);
+        }
+        byte[] bytes = SCRATCH.get();
+        if (bytes.length < length) {
+            bytes = new byte[length];
+            if (length <= SCRATCH_SIZE) {
+                SCRATCH.set(bytes);
+            }
+        }
+        int position = source.position();
+        source.get(bytes, 0, length);
+        source.position(position);
+        return new String(bytes, 0, length, _charset);
+    }
+
+    /**
+     * Releases this buffer to its pool
+     *
+     * @return true if this buffer was leased, or false if it had already been
+     * released
+     */
+    public boolean release() {
+        if (!LEASED.compareAndSet(this, 1, 0)) {
+            return false;
+        }
+        if (pool != null) {
+            pool.recycle(this);
+        }
+        return true;
+    }
+
+    /**
+     * For internal use only
+     */
+    void lease() {
+        leased = 1;
+    }
+
+    /**
+     * For internal use only
+     *
+     * @return the underlying buffer, leased or not
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * For internal use only
+     *
+     * @return the capacity of the underlying buffer
+     */
+    int capacity() {
+        return buffer.capacity();
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A fully resolved API call, as handed over to a {@link Transport}
+ *
+ * @author cambierr
+ */
+public class PreparedRequest {
+
+    private final Method method;
+    private final String url;
+    private final String body;
+    private final Map<String, String> headers;
+    private Timeouts timeouts;
+    private Endpoint endpoint;
+
+    /**
+     * Creates a prepared request
+     *
+     * @param _method the method of the request
+     * @param _url the complete url of the request
+     * @param _body the body of the request (can be null)
+     */
+    public PreparedRequest(Method _method, String _url, String _body) {
+        method = _method;
+        url = _url;
+        body = _body;
+        headers = new LinkedHashMap<>();
+    }
+
+    /**
+     * Sets a header on this request
+     *
+     * @param _name the header name
+     * @param _value the header value
+     *
+     * @return the updated PreparedRequest
+     */
+    public PreparedRequest header(String _name, String _value) {
+        headers.put(_name, _value);
+        return this;
+    }
+
+    /**
+     * Sets the connect and read timeouts of this request
+     *
+     * @param _timeouts the timeouts (null = the transport defaults)
+     *
+     * @return the updated PreparedRequest
+     */
+    public PreparedRequest timeouts(Timeouts _timeouts) {
+        timeouts = _timeouts;
+        return this;
+    }
+
+    /**
+     * Sets the endpoint this request is sent to
+     *
+     * @param _endpoint the endpoint the url of this request was built from
+     *
+     * @return the updated PreparedRequest
+     */
+    public PreparedRequest endpoint(Endpoint _endpoint) {
+        endpoint = _endpoint;
+        return this;
+    }
+
+    /**
+     * Returns the endpoint this request is sent to
+     *
+     * @return the endpoint of this request, or null
+     */
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Returns the method of this request
+     *
+     * @return the method of this request
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the complete url of this request
+     *
+     * @return the complete url of this request
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the body of this request
+     *
+     * @return the body of this request, or null
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the headers of this request
+     *
+     * @return an unmodifiable view of the headers of this request
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Returns the connect and read timeouts of this request
+     *
+     * @return the timeouts of this request, or null to use the transport
+     * defaults
+     */
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+}
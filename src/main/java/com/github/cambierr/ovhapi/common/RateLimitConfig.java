@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of a RateLimiter
+ *
+ * @author cambierr
+ */
+public class RateLimitConfig {
+
+    private int burst = 20;
+    private double permitsPerSecond = 10;
+
+    /**
+     * Creates a rate limit configuration with the default settings: bursts of
+     * 20 requests, then 10 requests per second
+     */
+    public RateLimitConfig() {
+    }
+
+    /**
+     * Sets the number of requests that can be sent at once before being
+     * limited to the sustained rate
+     *
+     * @param _burst the burst size
+     *
+     * @return the updated RateLimitConfig
+     */
+    public RateLimitConfig burst(int _burst) {
+        if (_burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive");
+        }
+        burst = _burst;
+        return this;
+    }
+
+    /**
+     * Sets the sustained rate of requests
+     *
+     * @param _permits the number of requests allowed per period
+     * @param _period the period, of at least one millisecond
+     * @param _unit the unit of the provided period
+     *
+     * @return the updated RateLimitConfig
+     */
+    public RateLimitConfig rate(int _permits, long _period, TimeUnit _unit) {
+        if (_permits <= 0 || _period <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        long millis = _unit.toMillis(_period);
+        if (millis == 0) {
+            throw new IllegalArgumentException("period must be at least one millisecond");
+        }
+        permitsPerSecond = _permits * 1000d / millis;
+        return this;
+    }
+
+    /**
+     * Returns the number of requests that can be sent at once
+     *
+     * @return the burst size
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Returns the sustained rate of requests
+     *
+     * @return the number of requests allowed per second
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+/**
+ * A snapshot of the state of a rate limiter
+ *
+ * @author cambierr
+ */
+public class RateLimitStats {
+
+    private final int available;
+    private final int queued;
+    private final long delayed;
+    private final long totalWait;
+    private final long maxWait;
+
+    /**
+     * Creates a rate limiter state snapshot
+     *
+     * @param _available the number of requests that can be sent right away
+     * @param _queued the number of requests currently waiting
+     * @param _delayed the number of requests that had to wait
+     * @param _totalWait the time spent waiting by all requests, in milliseconds
+     * @param _maxWait the longest wait of a request, in milliseconds
+     */
+    public RateLimitStats(int _available, int _queued, long _delayed, long _totalWait, long _maxWait) {
+        available = _available;
+        queued = _queued;
+        delayed = _delayed;
+        totalWait = _totalWait;
+        maxWait = _maxWait;
+    }
+
+    /**
+     * Returns the number of requests that can be sent right away
+     *
+     * @return the number of available permits
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Returns the number of requests currently waiting
+     *
+     * @return the queue depth
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    /**
+     * Returns the number of requests that had to wait
+     *
+     * @return the number of delayed requests
+     */
+    public long getDelayed() {
+        return delayed;
+    }
+
+    /**
+     * Returns the time spent waiting by all requests
+     *
+     * @return the total wait time, in milliseconds
+     */
+    public long getTotalWait() {
+        return totalWait;
+    }
+
+    /**
+     * Returns the longest wait of a request
+     *
+     * @return the longest wait time, in milliseconds
+     */
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    @Override
+    public String toString() {
+        return "[available: " + available + "; queued: " + queued + "; delayed: " + delayed + "; totalWait: " + totalWait + "ms; maxWait: " + maxWait + "ms]";
+    }
+
+}
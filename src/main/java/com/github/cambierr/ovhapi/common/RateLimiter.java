@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * A token bucket limiting the rate of the calls sharing an API quota
+ *
+ * <p>
+ * Calls over the limit are not rejected nor blocking: each one reserves the
+ * next free slot and is subscribed to once it is reached, on the limiter's
+ * scheduler. The token reserved by a call unsubscribed while waiting (for
+ * instance because of a deadline) is given back.</p>
+ *
+ * @author cambierr
+ */
+public class RateLimiter {
+
+    private final int burst;
+    private final double permitsPerMilli;
+    private final Scheduler scheduler;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private double tokens;
+    private long refilled;
+    private long delayed = 0;
+    private long totalWait = 0;
+    private long maxWait = 0;
+
+    /**
+     * Creates a rate limiter waiting on the computation scheduler
+     *
+     * @param _config the settings of this limiter
+     */
+    public RateLimiter(RateLimitConfig _config) {
+        this(_config, Schedulers.computation());
+    }
+
+    /**
+     * Creates a rate limiter
+     *
+     * @param _config the settings of this limiter
+     * @param _scheduler the scheduler used to measure time and delay calls
+     */
+    public RateLimiter(RateLimitConfig _config, Scheduler _scheduler) {
+        burst = _config.getBurst();
+        permitsPerMilli = _config.getPermitsPerSecond() / 1000;
+        scheduler = _scheduler;
+        tokens = burst;
+        refilled = scheduler.now();
+    }
+
+    /**
+     * Delays the subscription to a call until it fits the rate limit
+     *
+     * @param <T> the type of the items emitted by the call
+     * @param _call the call to limit
+     *
+     * @return the limited call
+     */
+    public <T> Observable<T> throttle(Observable<T> _call) {
+        return Observable.defer(() -> {
+            long wait = reserve();
+            if (wait == 0) {
+                return _call;
+            }
+            queued.incrementAndGet();
+            AtomicBoolean waiting = new AtomicBoolean(true);
+            return Observable
+                    .timer(wait, TimeUnit.MILLISECONDS, scheduler)
+                    .doOnNext((Long t) -> {
+                        if (waiting.compareAndSet(true, false)) {
+                            queued.decrementAndGet();
+                        }
+                    })
+                    .doOnUnsubscribe(() -> {
+                        if (waiting.compareAndSet(true, false)) {
+                            queued.decrementAndGet();
+                            refund();
+                        }
+                    })
+                    .flatMap((Long t) -> _call);
+        });
+    }
+
+    /**
+     * Returns a snapshot of the state of this limiter
+     *
+     * @return the statistics of this limiter
+     */
+    public synchronized RateLimitStats getStats() {
+        refill();
+        return new RateLimitStats((int) Math.max(0, Math.floor(tokens)), queued.get(), delayed, totalWait, maxWait);
+    }
+
+    private synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        long wait = (long) Math.ceil(-tokens / permitsPerMilli);
+        delayed++;
+        totalWait += wait;
+        maxWait = Math.max(maxWait, wait);
+        return wait;
+    }
+
+    private synchronized void refund() {
+        refill();
+        tokens = Math.min(burst, tokens + 1);
+    }
+
+    private void refill() {
+        long now = scheduler.now();
+        tokens = Math.min(burst, tokens + (now - refilled) * permitsPerMilli);
+        refilled = now;
+    }
+
+}
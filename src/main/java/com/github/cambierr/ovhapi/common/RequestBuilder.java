@@ -24,13 +24,18 @@
 package com.github.cambierr.ovhapi.common;
 
 import com.github.cambierr.ovhapi.auth.Credential;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.request.HttpRequest;
-import java.util.concurrent.Future;
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.json.JSONException;
+import org.json.JSONTokener;
 import rx.Observable;
 import rx.Subscriber;
-import rx.schedulers.Schedulers;
+import rx.functions.Func0;
+import rx.functions.Func1;
 
 /**
  *
@@ -44,6 +49,12 @@ public class RequestBuilder {
     private static final String userAgent = "Java " + System.getProperty("java.version") + " | com.github.cambierr.ovhapi wrapper (https://github.com/cambierr/OvhApi)";
     private final Credential credentials;
     private final String applicationKey;
+    private final OvhClient client;
+    private RetryPolicy retryPolicy;
+    private HedgingPolicy hedgingPolicy;
+    private ParallelDecoding parallelDecoding;
+    private Timeouts timeouts;
+    private Deadline deadline;
 
     /**
      * Creates a RequestBuilder for CredentialRequest
@@ -53,10 +64,23 @@ public class RequestBuilder {
      * @param _applicatioKey the OVH API application key
      */
     public RequestBuilder(String _path, Method _method, String _applicatioKey) {
+        this(_path, _method, _applicatioKey, OvhClient.getDefault());
+    }
+
+    /**
+     * Creates a RequestBuilder for CredentialRequest using a specific client
+     *
+     * @param _path the path of the request
+     * @param _method the method of the request
+     * @param _applicatioKey the OVH API application key
+     * @param _client the client to send the request with
+     */
+    public RequestBuilder(String _path, Method _method, String _applicatioKey, OvhClient _client) {
         path = _path;
         method = _method;
         credentials = null;
         applicationKey = _applicatioKey;
+        client = _client;
     }
 
     /**
@@ -71,6 +95,7 @@ public class RequestBuilder {
         method = _method;
         credentials = _credentials;
         applicationKey = null;
+        client = _credentials.getClient();
     }
 
     /**
@@ -91,51 +116,383 @@ public class RequestBuilder {
         return this;
     }
 
+    /**
+     * Sets the policy used to retry this request, instead of the client's one
+     *
+     * @param _policy the retry policy
+     *
+     * @return the updated RequestBuilder
+     */
+    public RequestBuilder retry(RetryPolicy _policy) {
+        retryPolicy = _policy;
+        return this;
+    }
+
+    /**
+     * Sets the timeouts of this request, instead of the client's ones
+     *
+     * @param _timeouts the timeouts
+     *
+     * @return the updated RequestBuilder
+     */
+    public RequestBuilder timeouts(Timeouts _timeouts) {
+        timeouts = _timeouts;
+        return this;
+    }
+
+    /**
+     * Sets a deadline this request must complete before, in addition to the
+     * deadline of its credentials
+     *
+     * @param _deadline the deadline
+     *
+     * @return the updated RequestBuilder
+     */
+    public RequestBuilder deadline(Deadline _deadline) {
+        deadline = _deadline;
+        return this;
+    }
+
+    /**
+     * Hedges this request, instead of following the client's hedging policy
+     * (only for GET requests)
+     *
+     * @param _policy the hedging policy
+     *
+     * @return the updated RequestBuilder
+     *
+     * @throws IllegalArgumentException if called on a request that is not a
+     * GET
+     */
+    public RequestBuilder hedge(HedgingPolicy _policy) {
+        if (!this.method.equals(Method.GET)) {
+            throw new IllegalArgumentException("Only GET requests should be hedged");
+        }
+        hedgingPolicy = _policy;
+        return this;
+    }
+
+    /**
+     * Decodes the elements of the array returned by this request in parallel,
+     * instead of following the client's settings (only for streamArray with a
+     * binder)
+     *
+     * @param _decoding the parallel decoding settings
+     *
+     * @return the updated RequestBuilder
+     */
+    public RequestBuilder parallel(ParallelDecoding _decoding) {
+        parallelDecoding = _decoding;
+        return this;
+    }
+
     /**
      * Builds and execute the request, returning a response
      *
+     * <p>
+     * Identical GET requests already in flight on the same client are joined
+     * instead of being sent again. Requests over the client's rate limit are
+     * delayed until they fit it, requests to a route whose circuit is open fail
+     * fast, and idempotent requests failing because of a transient error are
+     * retried. Slow GET requests are hedged if a hedging policy is set. The
+     * request is abandoned (and its exchange aborted) once its overall timeout
+     * or deadline is reached.</p>
+     *
      * @return an observable Resposne object
      */
     public Observable<SafeResponse> build() {
+        return limit((Func0<Boolean> _abandoned) -> {
+            Observable<SafeResponse> call = prepare()
+                    .flatMap((PreparedRequest arg0) -> {
+                        ValidatorCache cache = (method == Method.GET) ? client.getValidatorCache() : null;
+                        if (cache == null) {
+                            return measure(arg0, execute(arg0));
+                        }
+                        String key = callKey() + " " + arg0.getEndpoint();
+                        ValidatorCache.Entry entry = cache.get(key);
+                        if (entry != null && entry.getResponse() != null) {
+                            entry.applyTo(arg0);
+                        } else {
+                            entry = null;
+                        }
+                        ValidatorCache.Entry cached = entry;
+                        return measure(arg0, execute(arg0))
+                                .map((SafeResponse t) -> {
+                                    if (cached != null && t.getStatus() == 304) {
+                                        cache.countRevalidated();
+                                        return cached.getResponse();
+                                    }
+                                    if (cached != null) {
+                                        cache.countModified();
+                                    }
+                                    if (t.getStatus() == 200) {
+                                        cache.store(key, t, t, null);
+                                    }
+                                    return t;
+                                });
+                    });
+            ClockSync clock = clock();
+            if (clock != null) {
+                Observable<SafeResponse> signed = clock.replay(call, () -> clock.sync(client.getTransport(), endpoints().select(), true));
+                call = clock.synced(client.getTransport(), endpoints().select()).concatMap((Long t) -> signed);
+            }
+            HedgingPolicy hedging = (hedgingPolicy == null) ? client.getHedgingPolicy() : hedgingPolicy;
+            if (hedging != null && method == Method.GET) {
+                call = hedging.apply(CircuitBreaker.route(method, path), throttle(call));
+            } else {
+                call = throttle(call);
+            }
+            CircuitBreaker breaker = client.getCircuitBreaker(method, path);
+            if (breaker != null) {
+                call = breaker.protect(call, (SafeResponse t) -> t.getStatus() >= 500, _abandoned);
+            }
+            call = retryPolicy().apply(method, call);
+
+            RequestCoalescer coalescer = client.getCoalescer();
+            if (coalescer != null && method == Method.GET) {
+                call = coalescer.coalesce(callKey(), call);
+            }
+            return call;
+        });
+    }
+
+    /**
+     * Builds and execute a request returning a JSON array, emitting each
+     * element as soon as it has been received, without buffering the whole
+     * response
+     *
+     * @param <T> the type of the array elements
+     * @param _model the class of the array elements (JSONObject, String,
+     * JSONArray, ...)
+     *
+     * @return zero to several observable elements, or a RequestException if
+     * the response status is not 2xx
+     */
+    public <T> Observable<T> streamArray(Class<T> _model) {
+        return stream((Observable<String> t) -> t.map((String t1) -> new JSONTokener(t1).nextValue()))
+                .map((Object t) -> {
+                    if (!_model.isInstance(t)) {
+                        throw new JSONException("Array element is not a " + _model.getSimpleName() + ": " + t);
+                    }
+                    return _model.cast(t);
+                });
+    }
+
+    /**
+     * Builds and execute a request returning a JSON array, binding each
+     * element as soon as it has been received, without building any JSON
+     * document (or in parallel batches, if parallel decoding is enabled)
+     *
+     * <p>
+     * With a validator cache, the raw elements are bound again when the array
+     * is not modified, so that each call gets its own objects.</p>
+     *
+     * @param <T> the type of the array elements
+     * @param _binder the binder reading each array element
+     *
+     * @return zero to several observable elements, or a RequestException if
+     * the response status is not 2xx
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Observable<T> streamArray(JsonBinder<T> _binder) {
+        Func1<String, T> bind = (String t) -> {
+            JsonReader reader = new JsonReader(t);
+            T value = _binder.bind(reader);
+            reader.end();
+            return value;
+        };
+        ParallelDecoding decoding = (parallelDecoding == null) ? client.getParallelDecoding() : parallelDecoding;
+        return stream((Observable<String> t) -> ((decoding == null) ? t.map(bind) : decoding.decode(t, bind)).map((T t1) -> (Object) t1))
+                .map((Object t) -> (T) t);
+    }
+
+    /**
+     * Streams the elements of a JSON array, decoded by the provided function
+     * (the raw elements are replayed from the validator cache and decoded
+     * again when the array is not modified)
+     */
+    private Observable<Object> stream(Func1<Observable<String>, Observable<Object>> _decode) {
+        return limit((Func0<Boolean> _abandoned) -> retryPolicy().applyToStream(method, protect(_abandoned, throttle(clocked(prepare()
+                .flatMap((PreparedRequest arg0) -> Observable.defer(() -> {
+                    ValidatorCache cache = (method == Method.GET) ? client.getValidatorCache() : null;
+                    String key = "[] " + callKey() + " " + arg0.getEndpoint();
+                    ValidatorCache.Entry entry = (cache == null) ? null : cache.get(key);
+                    if (entry != null && entry.getElements() != null) {
+                        entry.applyTo(arg0);
+                    } else {
+                        entry = null;
+                    }
+                    ValidatorCache.Entry cached = entry;
+                    SafeResponse[] head = new SafeResponse[1];
+                    List<String> elements = (cache == null) ? null : new ArrayList<>();
+                    JsonArraySplitter splitter = new JsonArraySplitter();
+                    EndpointSelector endpoints = endpoints();
+
+                    Observable<String> raw = client.getTransport()
+                            .stream(arg0, (SafeResponse t) -> {
+                                head[0] = t;
+                                endpoints.record(arg0.getEndpoint(), true);
+                            })
+                            .doOnError((Throwable t) -> {
+                                if (head[0] == null) {
+                                    endpoints.record(arg0.getEndpoint(), t instanceof RequestException && ((RequestException) t).code() < 500);
+                                }
+                            })
+                            .concatMap((PooledBuffer t) -> {
+                                try {
+                                    return Observable.from(splitter.feed(t.getBuffer()));
+                                } finally {
+                                    t.release();
+                                }
+                            })
+                            .concatWith(Observable.defer(() -> {
+                                splitter.finish();
+                                return Observable.<String>empty();
+                            }));
+                    if (cache == null) {
+                        return _decode.call(raw);
+                    }
+                    return _decode.call(raw.doOnNext((String t) -> elements.add(t)))
+                            .doOnCompleted(() -> {
+                                if (cached != null) {
+                                    cache.countModified();
+                                }
+                                if (head[0] != null && head[0].getStatus() == 200) {
+                                    cache.store(key, head[0], null, elements);
+                                }
+                            })
+                            .onErrorResumeNext((Throwable t) -> {
+                                if (cached != null && t instanceof RequestException && ((RequestException) t).code() == 304) {
+                                    cache.countRevalidated();
+                                    return _decode.call(Observable.from(cached.getElements()));
+                                }
+                                return Observable.error(t);
+                            });
+                })))))));
+    }
+
+    /**
+     * Abandons a call once its overall timeout or its deadline is reached,
+     * unsubscribing from (and so cancelling) the in-flight exchange
+     *
+     * <p>
+     * The call is built for each subscription, with a function telling
+     * whether it has been abandoned this way (and not just cancelled).</p>
+     */
+    private <T> Observable<T> limit(Func1<Func0<Boolean>, Observable<T>> _call) {
+        return Observable.defer(() -> {
+            Timeouts timeouts = timeouts();
+            long timeout = timeouts.getRequest();
+            Deadline limit = Deadline.earliest(deadline, (credentials == null) ? null : credentials.getDeadline());
+            if (limit == null && timeout == 0) {
+                return _call.call(() -> false);
+            }
+            long remaining = (limit == null) ? timeout : limit.remaining(TimeUnit.MILLISECONDS);
+            if (remaining <= 0) {
+                return Observable.error(new TimeoutException("Deadline exceeded before " + method + " " + path));
+            }
+            if (timeout > 0) {
+                remaining = Math.min(remaining, timeout);
+            }
+            AtomicBoolean abandoned = new AtomicBoolean();
+            return _call.call(abandoned::get).takeUntil(Observable
+                    .timer(remaining, TimeUnit.MILLISECONDS, timeouts.getScheduler())
+                    .flatMap((Long t) -> {
+                        abandoned.set(true);
+                        return Observable.<Long>error(new TimeoutException("Deadline exceeded during " + method + " " + path));
+                    }));
+        });
+    }
+
+    /**
+     * Records the response time and outcome of an exchange in the endpoint
+     * selector it was sent with
+     */
+    private Observable<SafeResponse> measure(PreparedRequest _request, Observable<SafeResponse> _exchange) {
+        EndpointSelector endpoints = endpoints();
+        return Observable.defer(() -> {
+            long start = System.nanoTime();
+            return _exchange
+                    .doOnNext((SafeResponse t) -> endpoints.record(_request.getEndpoint(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), t.getStatus() < 500))
+                    .doOnError((Throwable t) -> endpoints.record(_request.getEndpoint(), 0, false));
+        });
+    }
+
+    /**
+     * Executes a request, binding its response to the codecs of the client
+     */
+    private Observable<SafeResponse> execute(PreparedRequest _request) {
+        Codecs codecs = client.getCodecs();
+        return client.getTransport().execute(_request).map((SafeResponse t) -> t.withCodecs(codecs));
+    }
+
+    private EndpointSelector endpoints() {
+        return (credentials == null || credentials.getEndpoints() == null) ? client.getEndpoints() : credentials.getEndpoints();
+    }
+
+    /**
+     * Syncs the clock before the first signed call, and replays once a
+     * streaming call whose timestamp was rejected
+     */
+    private <T> Observable<T> clocked(Observable<T> _call) {
+        ClockSync clock = clock();
+        if (clock == null) {
+            return _call;
+        }
+        Observable<T> signed = clock.replayStream(_call, () -> clock.sync(client.getTransport(), endpoints().select(), true));
+        return clock.synced(client.getTransport(), endpoints().select()).concatMap((Long t) -> signed);
+    }
+
+    private ClockSync clock() {
+        return (credentials == null) ? null : client.getClockSync();
+    }
+
+    private Timeouts timeouts() {
+        return (timeouts == null) ? client.getTimeouts() : timeouts;
+    }
+
+    private RetryPolicy retryPolicy() {
+        return (retryPolicy == null) ? client.getRetryPolicy() : retryPolicy;
+    }
+
+    private <T> Observable<T> protect(Func0<Boolean> _abandoned, Observable<T> _call) {
+        CircuitBreaker breaker = client.getCircuitBreaker(method, path);
+        return (breaker == null) ? _call : breaker.protect(_call, (T t) -> false, _abandoned);
+    }
+
+    private <T> Observable<T> throttle(Observable<T> _call) {
+        RateLimiter limiter = (credentials == null) ? client.getRateLimiter(applicationKey, null) : client.getRateLimiter(credentials.getApplicationKey(), credentials.getConsumerKey());
+        return (limiter == null) ? _call : limiter.throttle(_call);
+    }
+
+    private String callKey() {
+        return method.name() + " " + path + " " + ((credentials == null) ? applicationKey : credentials.getApplicationKey() + "+" + credentials.getConsumerKey());
+    }
+
+    private Observable<PreparedRequest> prepare() {
         return Observable
-                .create((Subscriber<? super Future<HttpResponse<String>>> arg0) -> {
+                .create((Subscriber<? super PreparedRequest> arg0) -> {
                     arg0.onStart();
                     try {
-                        String completePath = "https://" + OvhApi.API_ENDPOINT + "/" + OvhApi.API_VERSION + path;
-                        HttpRequest req = null;
-                        switch (method) {
-                            case GET:
-                                req = Unirest.get(completePath);
-                                break;
-                            case DELETE:
-                                req = Unirest.delete(completePath);
-                                break;
-                            case POST:
-                                req = ((body == null) ? Unirest.post(completePath) : Unirest.post(completePath).header("Content-type", "application/json").body(body)).getHttpRequest();
-                                break;
-                            case PUT:
-                                req = ((body == null) ? Unirest.put(completePath) : Unirest.put(completePath).header("Content-type", "application/json").body(body)).getHttpRequest();
-                                break;
-                            default:
-                                throw new RuntimeException("wrong method received");
+                        Endpoint endpoint = endpoints().select();
+                        PreparedRequest req = new PreparedRequest(method, endpoint.getUrl() + path, body);
+                        req.endpoint(endpoint);
+                        if (body != null) {
+                            req.header("Content-type", "application/json");
                         }
                         if (credentials != null) {
-                            credentials.sign(req, method, body);
+                            credentials.sign(req);
                         } else if (applicationKey != null) {
                             req.header("X-Ovh-Application", applicationKey);
                         }
                         req.header("User-Agent", userAgent);
-                        arg0.onNext(req.asStringAsync());
+                        req.timeouts(timeouts());
+                        arg0.onNext(req);
                         arg0.onCompleted();
                     } catch (Exception ex) {
                         arg0.onError(ex);
                     }
-                })
-                .flatMap((Future<HttpResponse<String>> arg0) -> Observable
-                        .from(arg0, Schedulers.io())
-                        .map((HttpResponse<String> t) -> new SafeResponse(t))
-                );
-
+                });
     }
 
 }
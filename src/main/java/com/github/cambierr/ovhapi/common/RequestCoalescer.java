@@ -0,0 +1,75 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import rx.Observable;
+
+/**
+ * Shares identical in-flight calls between their subscribers
+ *
+ * <p>
+ * While a call is in flight, any subscription to an identical call joins it
+ * instead of sending a new request. Once the call has terminated, the next
+ * subscription sends a new request.</p>
+ *
+ * @author cambierr
+ */
+public class RequestCoalescer {
+
+    private final Map<String, Observable<SafeResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Joins the in-flight call matching a key, or starts the provided one
+     *
+     * @param _key the identity of the call
+     * @param _call the call to start if none is in flight
+     *
+     * @return an observable SafeResponse shared by all concurrent subscribers
+     */
+    public Observable<SafeResponse> coalesce(String _key, Observable<SafeResponse> _call) {
+        return Observable.defer(() -> inFlight.computeIfAbsent(_key, (String t) -> {
+            AtomicReference<Observable<SafeResponse>> self = new AtomicReference<>();
+            Observable<SafeResponse> shared = _call
+                    .doOnTerminate(() -> inFlight.remove(t, self.get()))
+                    .doOnUnsubscribe(() -> inFlight.remove(t, self.get()))
+                    .replay(1)
+                    .refCount();
+            self.set(shared);
+            return shared;
+        }));
+    }
+
+    /**
+     * Returns the number of distinct calls currently in flight
+     *
+     * @return the number of in-flight calls
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+}
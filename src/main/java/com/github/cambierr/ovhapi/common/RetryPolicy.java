@@ -0,0 +1,288 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Retries the idempotent requests that failed because of a transient error
+ *
+ * <p>
+ * A request is retried when the API answers 429, 502, 503 or 504, or when
+ * the connection could not be established or timed out. Delays follow an
+ * exponential backoff with decorrelated jitter, and are never shorter than a
+ * Retry-After header. A request is not retried once it has started emitting
+ * items.</p>
+ *
+ * @author cambierr
+ */
+public class RetryPolicy {
+
+    private final Scheduler scheduler;
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    private int maxAttempts = 4;
+    private long maxElapsed = TimeUnit.SECONDS.toMillis(30);
+    private long baseDelay = 100;
+    private long maxDelay = TimeUnit.SECONDS.toMillis(10);
+    private Set<Method> methods = EnumSet.of(Method.GET, Method.PUT, Method.DELETE);
+    private Set<Integer> statuses = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+
+    /**
+     * Creates a retry policy with the default settings, waiting on the
+     * computation scheduler: up to 4 attempts within 30s, delays between 100ms
+     * and 10s
+     */
+    public RetryPolicy() {
+        this(Schedulers.computation());
+    }
+
+    /**
+     * Creates a retry policy with the default settings
+     *
+     * @param _scheduler the scheduler used to measure time and delay retries
+     */
+    public RetryPolicy(Scheduler _scheduler) {
+        scheduler = _scheduler;
+    }
+
+    /**
+     * Creates a policy that never retries
+     *
+     * @return a policy that never retries
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy().maxAttempts(1);
+    }
+
+    /**
+     * Sets the maximum number of attempts of a request, including the first
+     * one
+     *
+     * @param _maxAttempts the maximum number of attempts
+     *
+     * @return the updated RetryPolicy
+     */
+    public RetryPolicy maxAttempts(int _maxAttempts) {
+        if (_maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        maxAttempts = _maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the time after which a failed request is not retried anymore
+     *
+     * @param _duration the maximum time spent on a request
+     * @param _unit the unit of the provided duration
+     *
+     * @return the updated RetryPolicy
+     */
+    public RetryPolicy maxElapsed(long _duration, TimeUnit _unit) {
+        maxElapsed = _unit.toMillis(_duration);
+        return this;
+    }
+
+    /**
+     * Sets the bounds of the delay between two attempts
+     *
+     * @param _base the minimum delay
+     * @param _max the maximum delay (unless the API requests more)
+     * @param _unit the unit of the provided delays
+     *
+     * @return the updated RetryPolicy
+     */
+    public RetryPolicy delays(long _base, long _max, TimeUnit _unit) {
+        if (_base <= 0 || _max < _base) {
+            throw new IllegalArgumentException("delays must be positive and ordered");
+        }
+        baseDelay = _unit.toMillis(_base);
+        maxDelay = _unit.toMillis(_max);
+        return this;
+    }
+
+    /**
+     * Sets the methods that can be retried
+     *
+     * @param _methods the retriable methods
+     *
+     * @return the updated RetryPolicy
+     */
+    public RetryPolicy methods(Method... _methods) {
+        methods = EnumSet.noneOf(Method.class);
+        methods.addAll(Arrays.asList(_methods));
+        return this;
+    }
+
+    /**
+     * Sets the response statuses that are retried
+     *
+     * @param _statuses the retriable statuses
+     *
+     * @return the updated RetryPolicy
+     */
+    public RetryPolicy statuses(Integer... _statuses) {
+        statuses = new HashSet<>(Arrays.asList(_statuses));
+        return this;
+    }
+
+    /**
+     * Returns the number of retries made with this policy
+     *
+     * @return the number of retries
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Returns the number of requests that still failed once this policy gave
+     * up on them
+     *
+     * @return the number of exhausted requests
+     */
+    public long getExhausted() {
+        return exhausted.get();
+    }
+
+    /**
+     * Applies this policy to a request
+     *
+     * @param _method the method of the request
+     * @param _call the request, sent again on each subscription
+     *
+     * @return the observable response of the last attempt
+     */
+    public Observable<SafeResponse> apply(Method _method, Observable<SafeResponse> _call) {
+        if (maxAttempts == 1 || !methods.contains(_method)) {
+            return _call;
+        }
+        return retry(_call.flatMap((SafeResponse t) -> statuses.contains(t.getStatus()) ? Observable.error(new RetriableResponse(t)) : Observable.just(t)))
+                .onErrorResumeNext((Throwable t) -> (t instanceof RetriableResponse) ? Observable.just(((RetriableResponse) t).response) : Observable.error(t));
+    }
+
+    /**
+     * Applies this policy to a streamed request, which fails with a
+     * RequestException when the API answers with an error status
+     *
+     * @param <T> the type of the items emitted by the request
+     * @param _method the method of the request
+     * @param _call the request, sent again on each subscription
+     *
+     * @return the observable items of the last attempt
+     */
+    public <T> Observable<T> applyToStream(Method _method, Observable<T> _call) {
+        if (maxAttempts == 1 || !methods.contains(_method)) {
+            return _call;
+        }
+        return retry(_call);
+    }
+
+    private <T> Observable<T> retry(Observable<T> _call) {
+        return Observable.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean();
+            long start = scheduler.now();
+            int[] attempts = {1};
+            long[] delay = {baseDelay};
+            return _call
+                    .doOnNext((T t) -> emitted.set(true))
+                    .retryWhen((Observable<? extends Throwable> errors) -> errors.flatMap((Throwable t) -> {
+                        if (emitted.get() || !isRetriable(t)) {
+                            return Observable.error(t);
+                        }
+                        delay[0] = Math.min(maxDelay, ThreadLocalRandom.current().nextLong(baseDelay, delay[0] * 3 + 1));
+                        long wait = Math.max(delay[0], retryAfter(t));
+                        if (attempts[0] >= maxAttempts || scheduler.now() - start + wait > maxElapsed) {
+                            exhausted.incrementAndGet();
+                            return Observable.error(t);
+                        }
+                        attempts[0]++;
+                        retries.incrementAndGet();
+                        return Observable.timer(wait, TimeUnit.MILLISECONDS, scheduler);
+                    }));
+        });
+    }
+
+    private boolean isRetriable(Throwable _error) {
+        if (_error instanceof RetriableResponse) {
+            return true;
+        }
+        if (_error instanceof RequestException) {
+            return statuses.contains(((RequestException) _error).code());
+        }
+        return _error instanceof ConnectException || _error instanceof InterruptedIOException;
+    }
+
+    private long retryAfter(Throwable _error) {
+        String value;
+        if (_error instanceof RetriableResponse) {
+            value = ((RetriableResponse) _error).response.getHeader("Retry-After");
+        } else if (_error instanceof RequestException) {
+            value = ((RequestException) _error).header("Retry-After");
+        } else {
+            return 0;
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ex) {
+            try {
+                return Math.max(0, ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException ex2) {
+                return 0;
+            }
+        }
+    }
+
+    private static class RetriableResponse extends RuntimeException {
+
+        private final SafeResponse response;
+
+        private RetriableResponse(SafeResponse _response) {
+            super(null, null, false, false);
+            response = _response;
+        }
+    }
+
+}
@@ -25,9 +25,13 @@ package com.github.cambierr.ovhapi.common;
 
 import com.github.cambierr.ovhapi.exception.RequestException;
 import com.mashape.unirest.http.HttpResponse;
-import org.json.JSONArray;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import org.json.JSONException;
-import org.json.JSONObject;
 import rx.Observable;
 import rx.Subscriber;
 
@@ -37,14 +41,86 @@ import rx.Subscriber;
  */
 public class SafeResponse {
 
-    private final String data;
+    private static final Codecs DEFAULT_CODECS = new Codecs();
+
+    private volatile String data;
+    private final ByteBuffer bytes;
     private final String statusText;
     private final int status;
+    private final Map<String, String> headers;
+    private final Codecs codecs;
 
     protected SafeResponse(HttpResponse<String> _from) {
         data = _from.getBody();
+        bytes = null;
+        codecs = DEFAULT_CODECS;
         statusText = _from.getStatusText();
         status = _from.getStatus();
+        headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : _from.getHeaders().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                headers.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+    }
+
+    /**
+     * Creates a response from its raw parts (for Transport implementations)
+     *
+     * @param _status the response status code
+     * @param _statusText the response status text
+     * @param _body the response body (can be null)
+     */
+    public SafeResponse(int _status, String _statusText, String _body) {
+        this(_status, _statusText, _body, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a response from its raw parts (for Transport implementations)
+     *
+     * @param _status the response status code
+     * @param _statusText the response status text
+     * @param _body the response body (can be null)
+     * @param _headers the response headers
+     */
+    public SafeResponse(int _status, String _statusText, String _body, Map<String, String> _headers) {
+        this(_status, _statusText, _body, null, _headers);
+    }
+
+    private SafeResponse(int _status, String _statusText, String _body, ByteBuffer _bytes, Map<String, String> _headers) {
+        data = _body;
+        bytes = _bytes;
+        statusText = _statusText;
+        status = _status;
+        headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(_headers);
+        codecs = DEFAULT_CODECS;
+    }
+
+    private SafeResponse(SafeResponse _from, Codecs _codecs) {
+        data = _from.data;
+        bytes = _from.bytes;
+        statusText = _from.statusText;
+        status = _from.status;
+        headers = _from.headers;
+        codecs = (_codecs == null) ? DEFAULT_CODECS : _codecs;
+    }
+
+    /**
+     * Creates a response from its raw parts, without decoding its body until
+     * it is requested (for Transport implementations)
+     *
+     * @param _status the response status code
+     * @param _statusText the response status text
+     * @param _body the UTF-8 bytes of the response body, between the position
+     * and the limit of the buffer (can be null). The buffer is not copied and
+     * must not be modified afterwards
+     * @param _headers the response headers
+     *
+     * @return a SafeResponse
+     */
+    public static SafeResponse wrap(int _status, String _statusText, ByteBuffer _body, Map<String, String> _headers) {
+        return new SafeResponse(_status, _statusText, null, (_body == null) ? null : _body.slice(), _headers);
     }
 
     public String getStatusText() {
@@ -52,34 +128,121 @@ public class SafeResponse {
     }
 
     public String getBody() {
-        return data;
+        String body = data;
+        if (body == null && bytes != null) {
+            body = Codecs.decode(bytes);
+            data = body;
+        }
+        return body;
     }
 
     public int getStatus() {
         return status;
     }
 
+    /**
+     * Returns a response header
+     *
+     * @param _name the header name (case insensitive)
+     *
+     * @return the header value, or null if absent
+     */
+    public String getHeader(String _name) {
+        return headers.get(_name);
+    }
+
+    /**
+     * Returns the response headers
+     *
+     * @return an unmodifiable, case insensitive, view of the response headers
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Decodes the body of a successful response with the codec registered for
+     * a type
+     *
+     * @param <T> the decoded type
+     * @param _model the decoded type (String, JSONObject, JSONArray or any type
+     * registered in the client codecs), or null to ignore the body
+     *
+     * @return the observable decoded object, a RequestException if the
+     * response status is not 2xx or if the body can not be decoded, or an
+     * IllegalArgumentException if no codec is registered for this type
+     */
     public <T extends Object> Observable<T> validateResponse(Class<T> _model) {
         return Observable.create((Subscriber<? super T> arg0) -> {
             try {
                 if (getStatus() < 200 || getStatus() >= 300) {
-                    throw new RequestException(getStatus(), getStatusText(), (data == null) ? null : data);
+                    throw new RequestException(getStatus(), getStatusText(), getBody(), headers);
                 }
                 if (_model == null) {
                     arg0.onNext(null);
-                } else if (_model.equals(String.class)) {
-                    arg0.onNext((T) getBody());
-                } else if (_model.equals(JSONObject.class)) {
-                    arg0.onNext((T) new JSONObject(getBody()));
-                } else if (_model.equals(JSONArray.class)) {
-                    arg0.onNext((T) new JSONArray(getBody()));
                 } else {
-                    throw new IllegalArgumentException("model class unknown");
+                    Codec<? extends T> codec = codecs.get(_model);
+                    if (codec == null) {
+                        throw new IllegalArgumentException("model class unknown");
+                    }
+                    T value;
+                    try {
+                        value = (codec == Codecs.TEXT) ? _model.cast(getBody()) : codec.decode(body());
+                    } catch (Exception ex) {
+                        RequestException error = new RequestException(getStatus(), getStatusText(), getBody(), headers);
+                        error.initCause(ex);
+                        throw error;
+                    }
+                    arg0.onNext(value);
+                }
+                arg0.onCompleted();
+            } catch (RequestException | IllegalArgumentException ex) {
+                arg0.onError(ex);
+            }
+        });
+    }
+
+    /**
+     * For internal use only
+     *
+     * @param _codecs the codecs of the client this response was received by
+     *
+     * @return a response sharing the body and headers of this one, decoded
+     * with the provided codecs
+     */
+    SafeResponse withCodecs(Codecs _codecs) {
+        return new SafeResponse(this, _codecs);
+    }
+
+    private ByteBuffer body() {
+        if (bytes != null) {
+            return bytes.duplicate();
+        }
+        return (data == null) ? null : ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Binds the body of a successful response to an object
+     *
+     * @param <T> the type of the bound object
+     * @param _binder the binder reading the body
+     *
+     * @return the observable bound object
+     */
+    public <T> Observable<T> bindResponse(JsonBinder<T> _binder) {
+        return Observable.create((Subscriber<? super T> arg0) -> {
+            try {
+                if (getStatus() < 200 || getStatus() >= 300) {
+                    throw new RequestException(getStatus(), getStatusText(), getBody(), headers);
                 }
+                JsonReader reader = new JsonReader(getBody());
+                T value = _binder.bind(reader);
+                reader.end();
+                arg0.onNext(value);
                 arg0.onCompleted();
-            } catch (RequestException | IllegalArgumentException | JSONException ex) {
+            } catch (RequestException | JSONException ex) {
                 if (ex instanceof JSONException) {
-                    arg0.onError(new RequestException(getStatus(), getStatusText(), (data == null) ? null : data));
+                    arg0.onError(new RequestException(getStatus(), getStatusText(), getBody(), headers));
                 } else {
                     arg0.onError(ex);
                 }
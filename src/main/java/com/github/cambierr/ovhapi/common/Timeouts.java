@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Timeouts of a request
+ *
+ * @author cambierr
+ */
+public class Timeouts {
+
+    private final Scheduler scheduler;
+
+    private long connect = TimeUnit.SECONDS.toMillis(10);
+    private long read = TimeUnit.SECONDS.toMillis(60);
+    private long request = 0;
+
+    /**
+     * Creates timeouts with the default settings, timed on the computation
+     * scheduler: 10s to connect, 60s between two packets, and no overall
+     * limit
+     */
+    public Timeouts() {
+        this(Schedulers.computation());
+    }
+
+    /**
+     * Creates timeouts with the default settings
+     *
+     * @param _scheduler the scheduler the overall timeout and the deadlines
+     * are timed on
+     */
+    public Timeouts(Scheduler _scheduler) {
+        scheduler = _scheduler;
+    }
+
+    /**
+     * Sets the time allowed to establish a connection
+     *
+     * @param _duration the connect timeout (0 = no limit)
+     * @param _unit the unit of the provided duration
+     *
+     * @return the updated Timeouts
+     */
+    public Timeouts connect(long _duration, TimeUnit _unit) {
+        connect = check(_duration, _unit);
+        return this;
+    }
+
+    /**
+     * Sets the time allowed without receiving any data while waiting for a
+     * response
+     *
+     * @param _duration the read timeout (0 = no limit)
+     * @param _unit the unit of the provided duration
+     *
+     * @return the updated Timeouts
+     */
+    public Timeouts read(long _duration, TimeUnit _unit) {
+        read = check(_duration, _unit);
+        return this;
+    }
+
+    /**
+     * Sets the time allowed for a whole call, retries included
+     *
+     * @param _duration the overall timeout (0 = no limit)
+     * @param _unit the unit of the provided duration
+     *
+     * @return the updated Timeouts
+     */
+    public Timeouts request(long _duration, TimeUnit _unit) {
+        request = check(_duration, _unit);
+        return this;
+    }
+
+    /**
+     * Returns the time allowed to establish a connection
+     *
+     * @return the connect timeout, in milliseconds (0 = no limit)
+     */
+    public long getConnect() {
+        return connect;
+    }
+
+    /**
+     * Returns the time allowed without receiving any data
+     *
+     * @return the read timeout, in milliseconds (0 = no limit)
+     */
+    public long getRead() {
+        return read;
+    }
+
+    /**
+     * Returns the time allowed for a whole call
+     *
+     * @return the overall timeout, in milliseconds (0 = no limit)
+     */
+    public long getRequest() {
+        return request;
+    }
+
+    /**
+     * Returns the scheduler the overall timeout and the deadlines are timed on
+     *
+     * @return the scheduler of these timeouts
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    private static long check(long _duration, TimeUnit _unit) {
+        if (_duration < 0) {
+            throw new IllegalArgumentException("timeouts must not be negative");
+        }
+        return _unit.toMillis(_duration);
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import rx.Observable;
+import rx.functions.Action1;
+
+/**
+ * Sends prepared requests to the API
+ *
+ * <p>
+ * Implementations must not block the subscribing thread: the returned
+ * Observable should be completed from the I/O layer callback once the
+ * response is available.</p>
+ *
+ * @author cambierr
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Executes a request
+     *
+     * @param _request the request to execute
+     *
+     * @return an observable SafeResponse, emitted once the response has been
+     * received
+     */
+    Observable<SafeResponse> execute(PreparedRequest _request);
+
+    /**
+     * Executes a request, streaming its response body
+     *
+     * <p>
+     * The default implementation buffers the whole body, then emits it in
+     * slices of 8KB as they are requested; transports able to do so should
+     * emit the body as it is received, honoring the downstream demand.</p>
+     *
+     * <p>
+     * Chunks may be leased from a {@link BufferPool}: subscribers must release
+     * each chunk once consumed.</p>
+     *
+     * @param _request the request to execute
+     * @param _onHead called with the status and headers of a 2xx response
+     * (and no body) before the first chunk is emitted
+     *
+     * @return the body of the response, chunk by chunk, or a RequestException
+     * if the response status is not 2xx
+     */
+    default Observable<PooledBuffer> stream(PreparedRequest _request, Action1<? super SafeResponse> _onHead) {
+        return execute(_request)
+                .flatMap((SafeResponse arg0) -> {
+                    if (arg0.getStatus() < 200 || arg0.getStatus() >= 300) {
+                        return Observable.error(new RequestException(arg0.getStatus(), arg0.getStatusText(), arg0.getBody(), arg0.getHeaders()));
+                    }
+                    _onHead.call(new SafeResponse(arg0.getStatus(), arg0.getStatusText(), null, arg0.getHeaders()));
+                    byte[] body = (arg0.getBody() == null) ? new byte[0] : arg0.getBody().getBytes(StandardCharsets.UTF_8);
+                    return Observable
+                            .range(0, Math.max(1, (body.length + 8191) / 8192))
+                            .map((Integer t) -> PooledBuffer.wrap(ByteBuffer.wrap(body, t * 8192, Math.min(8192, body.length - t * 8192))));
+                });
+    }
+
+}
@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+/**
+ * A bounded cache whose entries expire after a fixed delay
+ *
+ * <p>
+ * Least recently used entries are evicted first when either the number of
+ * entries or their total weight exceeds the configured limits. Concurrent
+ * loads of the same key share a single call, and a load still running when
+ * its key is invalidated is not stored.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ *
+ * @author cambierr
+ */
+public class TtlCache<K, V> {
+
+    private final CacheConfig config;
+    private final Func1<? super V, Integer> weigher;
+    private final Scheduler clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Observable<V>> loading = new ConcurrentHashMap<>();
+    private final Set<K> oversized = new HashSet<>();
+
+    private long generation = 0;
+    private long weight = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates a cache where each entry weighs 1
+     *
+     * @param _config the settings of this cache
+     */
+    public TtlCache(CacheConfig _config) {
+        this(_config, (V t) -> 1, Schedulers.immediate());
+    }
+
+    /**
+     * Creates a cache
+     *
+     * @param _config the settings of this cache
+     * @param _weigher computes the weight of a value
+     * @param _clock the scheduler whose time is used to expire entries
+     */
+    public TtlCache(CacheConfig _config, Func1<? super V, Integer> _weigher, Scheduler _clock) {
+        config = _config;
+        weigher = _weigher;
+        clock = _clock;
+    }
+
+    /**
+     * Returns a cached value, loading it if it is missing or expired
+     *
+     * @param _key the key of the value
+     * @param _loader provides the call loading the value
+     *
+     * @return the observable value
+     */
+    public Observable<V> get(K _key, Func0<Observable<V>> _loader) {
+        return Observable.defer(() -> {
+            V cached = getIfPresent(_key);
+            if (cached != null) {
+                return Observable.just(cached);
+            }
+            return loading.computeIfAbsent(_key, (K k) -> {
+                AtomicReference<Observable<V>> self = new AtomicReference<>();
+                long started = generation();
+                Observable<V> shared = _loader.call()
+                        .last()
+                        .doOnNext((V t) -> put(k, t, started))
+                        .doOnTerminate(() -> loading.remove(k, self.get()))
+                        .doOnUnsubscribe(() -> loading.remove(k, self.get()))
+                        .replay(1)
+                        .refCount();
+                self.set(shared);
+                return shared;
+            });
+        });
+    }
+
+    /**
+     * Returns a cached value without loading it
+     *
+     * @param _key the key of the value
+     *
+     * @return the cached value, or null if it is missing or expired
+     */
+    public synchronized V getIfPresent(K _key) {
+        Entry<V> entry = entries.get(_key);
+        if (entry != null && entry.expires <= clock.now()) {
+            remove(_key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Stores a value in this cache
+     *
+     * @param _key the key of the value
+     * @param _value the value
+     */
+    public synchronized void put(K _key, V _value) {
+        remove(_key);
+        long valueWeight = weigher.call(_value);
+        if (valueWeight > config.getMaxWeight()) {
+            oversized.add(_key);
+            return;
+        }
+        oversized.remove(_key);
+        if (config.getTimeToLive() == 0) {
+            return;
+        }
+        entries.put(_key, new Entry<>(_value, valueWeight, clock.now() + config.getTimeToLive()));
+        weight += valueWeight;
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > config.getMaxEntries() || weight > config.getMaxWeight()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Tells whether a loaded value could be stored: false when this cache is
+     * disabled, or when the last value loaded for this key was too heavy
+     *
+     * @param _key the key of the value
+     *
+     * @return true if a value loaded for this key would be cached
+     */
+    public synchronized boolean accepts(K _key) {
+        return config.getTimeToLive() > 0 && config.getMaxEntries() > 0 && !oversized.contains(_key);
+    }
+
+    /**
+     * Drops a value from this cache
+     *
+     * @param _key the key of the value
+     */
+    public synchronized void invalidate(K _key) {
+        generation++;
+        loading.remove(_key);
+        oversized.remove(_key);
+        remove(_key);
+    }
+
+    /**
+     * Drops all values from this cache
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        loading.clear();
+        oversized.clear();
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns a snapshot of the state of this cache
+     *
+     * @return the statistics of this cache
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a loaded value, unless the cache was invalidated since its load
+     * started
+     */
+    private synchronized void put(K _key, V _value, long _generation) {
+        if (_generation == generation) {
+            put(_key, _value);
+        }
+    }
+
+    private void remove(K _key) {
+        Entry<V> entry = entries.remove(_key);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long weight;
+        private final long expires;
+
+        private Entry(V _value, long _weight, long _expires) {
+            value = _value;
+            weight = _weight;
+            expires = _expires;
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the validators (ETag / Last-Modified) of GET responses, so that
+ * they can be revalidated with conditional requests
+ *
+ * <p>
+ * When the API answers "304 Not Modified", the cached response is used again
+ * without being downloaded nor parsed twice, and the raw elements of a
+ * streamed array are decoded again (so that each call gets its own objects).
+ * Responses are cached per API endpoint, since mirrors may disagree on their
+ * validators.</p>
+ *
+ * @author cambierr
+ */
+public class ValidatorCache {
+
+    private final Map<String, Entry> entries;
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong modified = new AtomicLong();
+
+    /**
+     * Creates a validator cache keeping up to 256 responses
+     */
+    public ValidatorCache() {
+        this(256);
+    }
+
+    /**
+     * Creates a validator cache
+     *
+     * @param _maxEntries the maximum number of responses kept (least recently
+     * used ones are evicted first)
+     */
+    public ValidatorCache(int _maxEntries) {
+        if (_maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> _eldest) {
+                return size() > _maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Drops all cached responses
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of cached responses
+     *
+     * @return the number of cached responses
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of responses served from this cache after a "304 Not
+     * Modified"
+     *
+     * @return the number of revalidated responses
+     */
+    public long getRevalidated() {
+        return revalidated.get();
+    }
+
+    /**
+     * Returns the number of conditional requests for which the API sent a new
+     * response
+     *
+     * @return the number of modified responses
+     */
+    public long getModified() {
+        return modified.get();
+    }
+
+    Entry get(String _key) {
+        return entries.get(_key);
+    }
+
+    void store(String _key, SafeResponse _head, SafeResponse _response, List<String> _elements) {
+        String etag = _head.getHeader("ETag");
+        String lastModified = _head.getHeader("Last-Modified");
+        if (etag == null && lastModified == null) {
+            entries.remove(_key);
+            return;
+        }
+        entries.put(_key, new Entry(etag, lastModified, _response, (_elements == null) ? null : Collections.unmodifiableList(_elements)));
+    }
+
+    void countRevalidated() {
+        revalidated.incrementAndGet();
+    }
+
+    void countModified() {
+        modified.incrementAndGet();
+    }
+
+    static class Entry {
+
+        private final String etag;
+        private final String lastModified;
+        private final SafeResponse response;
+        private final List<String> elements;
+
+        private Entry(String _etag, String _lastModified, SafeResponse _response, List<String> _elements) {
+            etag = _etag;
+            lastModified = _lastModified;
+            response = _response;
+            elements = _elements;
+        }
+
+        void applyTo(PreparedRequest _request) {
+            if (etag != null) {
+                _request.header("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                _request.header("If-Modified-Since", lastModified);
+            }
+        }
+
+        SafeResponse getResponse() {
+            return response;
+        }
+
+        List<String> getElements() {
+            return elements;
+        }
+    }
+
+}
@@ -23,6 +23,10 @@
  */
 package com.github.cambierr.ovhapi.exception;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
 /**
  * Fired when something does wrong with an API call
  *
@@ -33,12 +37,27 @@ public class RequestException extends Exception {
     private final int code;
     private final String message;
     private final String body;
+    private final Map<String, String> headers;
 
     public RequestException(int _code, String _message, String _body) {
+        this(_code, _message, _body, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a RequestException carrying the headers of the failed response
+     *
+     * @param _code the response status code
+     * @param _message the response status title
+     * @param _body the response body
+     * @param _headers the response headers
+     */
+    public RequestException(int _code, String _message, String _body, Map<String, String> _headers) {
         super(_message);
         code = _code;
         body = _body;
         message = _message;
+        headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(_headers);
     }
 
     /**
@@ -67,4 +86,24 @@ public class RequestException extends Exception {
     public String body() {
         return body;
     }
+
+    /**
+     * Returns a header of the failed response
+     *
+     * @param _name the header name (case insensitive)
+     *
+     * @return the header value, or null if absent
+     */
+    public String header(String _name) {
+        return headers.get(_name);
+    }
+
+    /**
+     * Returns the headers of the failed response
+     *
+     * @return an unmodifiable, case insensitive, view of the response headers
+     */
+    public Map<String, String> headers() {
+        return Collections.unmodifiableMap(headers);
+    }
 }
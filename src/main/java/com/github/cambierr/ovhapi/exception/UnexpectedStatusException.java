@@ -0,0 +1,60 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 cambierr.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.cambierr.ovhapi.exception;
+
+/**
+ * Fired when an instance reaches a failure status while waiting for another
+ * one
+ *
+ * @author cambierr
+ */
+public class UnexpectedStatusException extends Exception {
+
+    private final String instanceId;
+    private final String status;
+
+    public UnexpectedStatusException(String _instanceId, String _status, String _expected) {
+        super("Instance " + _instanceId + " is " + _status + " while waiting for " + _expected);
+        instanceId = _instanceId;
+        status = _status;
+    }
+
+    /**
+     * Returns the id of the instance
+     *
+     * @return the id of the instance
+     */
+    public String instanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Returns the status reached by the instance
+     *
+     * @return the status reached by the instance
+     */
+    public String status() {
+        return status;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.auth;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the request signer with the former String based implementation
+ *
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.cambierr.ovhapi.auth.SignerBenchmark (the GC
+ * profiler reports the allocated bytes/op as gc.alloc.rate.norm)</p>
+ *
+ * @author cambierr
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignerBenchmark {
+
+    @Param({"0", "1024"})
+    public int bodyLength;
+
+    private final String secret = "7kcH4hFqDQvnCMK2rWh9Ayj8QxE9kB4v";
+    private final String consumerKey = "MtSwSrPpNjqfVSmJhLbPyr2i45lSwPU1";
+    private final String url = "https://eu.api.ovh.com/1.0/cloud/project/0123456789abcdef0123456789abcdef/instance?region=GRA1";
+    private final long time = 1458814225L;
+    private byte[] prefix;
+    private String body;
+
+    @Setup
+    public void setUp() {
+        prefix = Signer.prefix(secret, consumerKey);
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < bodyLength) {
+            builder.append("{\"name\":\"instance\"}");
+        }
+        body = (bodyLength == 0) ? null : builder.substring(0, bodyLength);
+    }
+
+    @Benchmark
+    public String signer() {
+        return Signer.sign(prefix, "GET", url, body, time);
+    }
+
+    @Benchmark
+    public String legacy() {
+        String preHash = secret
+                + "+" + consumerKey
+                + "+" + "GET"
+                + "+" + url
+                + "+" + ((body == null) ? "" : body)
+                + "+" + time;
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = md.digest(preHash.getBytes());
+            String result = "";
+            for (int i = 0; i < bytes.length; i++) {
+                result += Integer.toString((bytes[i] & 0xff) + 0x100, 16).substring(1);
+            }
+            return "$1$" + result;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SignerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+}
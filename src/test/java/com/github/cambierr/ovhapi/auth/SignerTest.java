@@ -0,0 +1,73 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author cambierr
+ */
+public class SignerTest {
+
+    public SignerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * The signature as documented by OVH
+     */
+    static String reference(String _secret, String _consumerKey, String _method, String _url, String _body, long _time) throws Exception {
+        String preHash = _secret + "+" + _consumerKey + "+" + _method + "+" + _url + "+" + ((_body == null) ? "" : _body) + "+" + _time;
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(preHash.getBytes(StandardCharsets.UTF_8));
+        StringBuilder result = new StringBuilder("$1$");
+        for (byte b : digest) {
+            result.append(String.format("%02x", b & 0xff));
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void testSign() throws Exception {
+        System.out.println("sign");
+        byte[] prefix = Signer.prefix("secret", "ck");
+        String url = "https://eu.api.ovh.com/1.0/cloud/project/p1/instance?region=GRA1";
+        assertEquals(reference("secret", "ck", "GET", url, null, 1458814225L), Signer.sign(prefix, "GET", url, null, 1458814225L));
+        assertEquals(reference("secret", "ck", "GET", url, null, 0L), Signer.sign(prefix, "GET", url, null, 0L));
+        assertEquals(reference("secret", "ck", "PUT", url, "{\"description\":\"projet été ☃ 🚀\"}", 1458814226L),
+                Signer.sign(prefix, "PUT", url, "{\"description\":\"projet été ☃ 🚀\"}", 1458814226L));
+
+        StringBuilder large = new StringBuilder();
+        while (large.length() < 200000) {
+            large.append("{\"name\":\"instance\"},");
+        }
+        assertEquals(reference("secret", "ck", "POST", url, large.toString(), 42L), Signer.sign(prefix, "POST", url, large.toString(), 42L));
+        assertEquals(reference("secret", "ck", "DELETE", url, "", 43L), Signer.sign(prefix, "DELETE", url, "", 43L));
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.cloud;
+
+import com.github.cambierr.ovhapi.auth.Credential;
+import com.github.cambierr.ovhapi.common.JsonReader;
+import com.github.cambierr.ovhapi.common.OvhApi;
+import com.github.cambierr.ovhapi.common.OvhClient;
+import com.github.cambierr.ovhapi.common.PreparedRequest;
+import com.github.cambierr.ovhapi.common.SafeResponse;
+import com.github.cambierr.ovhapi.common.Transport;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import rx.Observable;
+
+/**
+ * Compares the binding of 10k elements arrays to models with the former
+ * org.json mapping (a JSONObject per element, and a lookup per field)
+ *
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.cambierr.ovhapi.cloud.BindingBenchmark</p>
+ *
+ * @author cambierr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingBenchmark {
+
+    private static final int SIZE = 10000;
+
+    private Project project;
+    private String images;
+    private String instances;
+    private final Map<String, Flavor> flavorsById = new HashMap<>();
+    private final Map<String, Image> imagesById = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        OvhClient client = new OvhClient(new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.just(new SafeResponse(200, "OK", "[\"p1\"]"));
+            }
+
+            @Override
+            public void close() {
+            }
+        }).clockSync(null);
+        project = Project.list(Credential.build(client, "ak", "as", "ck").toBlocking().single()).toBlocking().single();
+
+        JSONArray imageArray = new JSONArray();
+        JSONArray instanceArray = new JSONArray();
+        for (int i = 0; i < SIZE; i++) {
+            imageArray.put(new JSONObject()
+                    .put("id", "9c9b3772-5320-414a-90bf-" + String.format("%012d", i))
+                    .put("visibility", "public")
+                    .put("creationDate", "2016-03-24T11:10:25+01:00")
+                    .put("status", "active")
+                    .put("region", "GRA1")
+                    .put("name", "Ubuntu 16.04 #" + i)
+                    .put("type", "linux")
+                    .put("minDisk", 10)
+                    .put("size", 0.3)
+                    .put("user", "admin"));
+            instanceArray.put(new JSONObject()
+                    .put("id", "5f4d1a2c-7a44-4d3e-8b1a-" + String.format("%012d", i))
+                    .put("status", "ACTIVE")
+                    .put("region", "GRA1")
+                    .put("name", "instance-" + i)
+                    .put("imageId", "image-" + (i % 8))
+                    .put("created", "2016-03-24T11:10:25+01:00")
+                    .put("flavorId", "flavor-" + (i % 4))
+                    .put("sshKeyId", JSONObject.NULL)
+                    .put("monthlyBilling", JSONObject.NULL)
+                    .put("ipAddresses", new JSONArray().put(new JSONObject().put("ip", "10.0.0." + (i % 250)).put("version", 4).put("type", "public"))));
+        }
+        images = imageArray.toString();
+        instances = instanceArray.toString();
+        for (int i = 0; i < 8; i++) {
+            imagesById.put("image-" + i, Image.byId(project, "image-" + i, Region.byName(project, "GRA1")));
+        }
+        for (int i = 0; i < 4; i++) {
+            flavorsById.put("flavor-" + i, Flavor.byId(project, "flavor-" + i, Region.byName(project, "GRA1")));
+        }
+    }
+
+    @Benchmark
+    public List<Image> imagesDom() {
+        JSONArray array = new JSONArray(images);
+        List<Image> output = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject image = array.getJSONObject(i);
+            output.add(new Image(project,
+                    image.getString("id"),
+                    image.getString("visibility"),
+                    OvhApi.dateToTime(image.getString("creationDate")),
+                    image.getString("status"),
+                    Region.byName(project, image.getString("region")),
+                    image.getString("name"),
+                    image.getString("type"),
+                    image.getInt("minDisk")));
+        }
+        return output;
+    }
+
+    @Benchmark
+    public List<Image> imagesBinding() {
+        JsonReader reader = new JsonReader(images);
+        List<Image> output = new ArrayList<>(SIZE);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            output.add(Image.read(project, reader, Image::new));
+        }
+        reader.endArray();
+        return output;
+    }
+
+    @Benchmark
+    public List<Instance> instancesDom() {
+        JSONArray array = new JSONArray(instances);
+        List<Instance> output = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject instance = array.getJSONObject(i);
+            output.add(new Instance(project,
+                    Instance.Status.valueOf(instance.getString("status")),
+                    Region.byName(project, instance.getString("region")),
+                    instance.getString("name"),
+                    imagesById.get(instance.getString("imageId")),
+                    OvhApi.dateToTime(instance.getString("created")),
+                    flavorsById.get(instance.getString("flavorId")),
+                    instance.get("sshKeyId") == JSONObject.NULL ? null : SshKey.byIdPartial(project, instance.getString("sshKeyId")),
+                    instance.getString("id")));
+        }
+        return output;
+    }
+
+    @Benchmark
+    public List<Instance> instancesBinding() {
+        JsonReader reader = new JsonReader(instances);
+        List<Instance> output = new ArrayList<>(SIZE);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            output.add(Instance.read(project, reader, flavorsById::get, imagesById::get));
+        }
+        reader.endArray();
+        return output;
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BindingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+}
@@ -72,7 +72,9 @@ public class FlavorTest {
     public void testIsPartial() {
         System.out.println("isPartial");
         Flavor instance = Flavor.byId(project, Settings.defaultFlavorId, region);
-        boolean expResult = true;
+        // the flavor has already been loaded in this project: its canonical object is complete
+        assertSame(flavor, instance);
+        boolean expResult = false;
         boolean result = instance.isPartial();
         assertEquals(expResult, result);
     }
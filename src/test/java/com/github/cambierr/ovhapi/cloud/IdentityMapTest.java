@@ -0,0 +1,119 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.cloud;
+
+import com.github.cambierr.ovhapi.auth.Credential;
+import com.github.cambierr.ovhapi.common.OvhClient;
+import com.github.cambierr.ovhapi.common.PreparedRequest;
+import com.github.cambierr.ovhapi.common.SafeResponse;
+import com.github.cambierr.ovhapi.common.Transport;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+
+/**
+ *
+ * @author cambierr
+ */
+public class IdentityMapTest {
+
+    private List<String> urls;
+    private Project project;
+
+    public IdentityMapTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        urls = Collections.synchronizedList(new ArrayList<>());
+        OvhClient client = new OvhClient(new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                String path = _request.getUrl().substring(_request.getUrl().indexOf("/cloud/"));
+                urls.add(path);
+                if (path.equals("/cloud/project")) {
+                    return Observable.just(new SafeResponse(200, "OK", "[\"p1\"]"));
+                }
+                if (path.startsWith("/cloud/project/p1/flavor?")) {
+                    return Observable.just(new SafeResponse(200, "OK", new JSONArray().put(flavor("f1")).put(flavor("f2")).toString()));
+                }
+                if (path.equals("/cloud/project/p1/flavor/f1")) {
+                    return Observable.just(new SafeResponse(200, "OK", flavor("f1").toString()));
+                }
+                return Observable.just(new SafeResponse(404, "Not Found", "{\"message\":\"not found\"}"));
+            }
+
+            @Override
+            public void close() {
+            }
+        }).clockSync(null);
+        Credential credentials = Credential.build(client, "ak", "as", "ck").toBlocking().single();
+        project = Project.list(credentials).toBlocking().single();
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private static JSONObject flavor(String _id) {
+        return new JSONObject()
+                .put("id", _id)
+                .put("disk", 10)
+                .put("region", "GRA1")
+                .put("name", "flavor " + _id)
+                .put("vcpus", 2)
+                .put("type", "ovh.ssd.eg")
+                .put("osType", "linux")
+                .put("ram", 4000);
+    }
+
+    @Test
+    public void testRegion() {
+        System.out.println("region");
+        assertSame(Region.byName(project, "GRA1"), Region.byName(project, "GRA1"));
+        assertNotSame(Region.byName(project, "GRA1"), Region.byName(project, "SBG1"));
+    }
+
+    @Test
+    public void testComplete() {
+        System.out.println("complete");
+        Region region = Region.byName(project, "GRA1");
+        Flavor first = Flavor.byId(project, "f1", region);
+        Flavor second = Flavor.byId(project, "f1", region);
+        Flavor other = Flavor.byId(project, "f2", region);
+        assertSame(first, second);
+        assertTrue(second.isPartial());
+
+        assertSame(first, first.complete().toBlocking().single());
+        assertFalse(second.isPartial());
+        assertEquals("flavor f1", second.getName());
+        assertSame(region, second.getRegion());
+
+        assertSame(other, Flavor.list(project, region).filter((Flavor t) -> t.getId().equals("f2")).toBlocking().single());
+        assertFalse(other.isPartial());
+        assertEquals(4000, other.getRam());
+        assertEquals(3, urls.size());
+        assertEquals("/cloud/project/p1/flavor/f1", urls.get(1));
+    }
+
+}
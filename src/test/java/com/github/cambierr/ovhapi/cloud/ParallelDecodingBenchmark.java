@@ -0,0 +1,125 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.cloud;
+
+import com.github.cambierr.ovhapi.auth.Credential;
+import com.github.cambierr.ovhapi.common.JsonReader;
+import com.github.cambierr.ovhapi.common.Method;
+import com.github.cambierr.ovhapi.common.OvhClient;
+import com.github.cambierr.ovhapi.common.ParallelDecoding;
+import com.github.cambierr.ovhapi.common.PreparedRequest;
+import com.github.cambierr.ovhapi.common.RequestBuilder;
+import com.github.cambierr.ovhapi.common.SafeResponse;
+import com.github.cambierr.ovhapi.common.Transport;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import rx.Observable;
+
+/**
+ * Compares the sequential and the parallel decoding of streamed image
+ * catalogs of 1k, 10k and 100k rows
+ *
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.cambierr.ovhapi.cloud.ParallelDecodingBenchmark</p>
+ *
+ * @author cambierr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelDecodingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private Project project;
+    private OvhClient sequential;
+    private OvhClient parallel;
+    private OvhClient unordered;
+
+    @Setup
+    public void setUp() {
+        JSONArray catalog = new JSONArray();
+        for (int i = 0; i < rows; i++) {
+            catalog.put(new JSONObject()
+                    .put("id", "9c9b3772-5320-414a-90bf-" + String.format("%012d", i))
+                    .put("visibility", "public")
+                    .put("creationDate", "2016-03-24T11:10:25+01:00")
+                    .put("status", "active")
+                    .put("region", "GRA" + (i % 8))
+                    .put("name", "Ubuntu 16.04 #" + i)
+                    .put("type", "linux")
+                    .put("minDisk", 10)
+                    .put("size", 0.3)
+                    .put("user", "admin"));
+        }
+        String body = catalog.toString();
+        Transport transport = new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.just(new SafeResponse(200, "OK", _request.getUrl().endsWith("/cloud/project") ? "[\"p1\"]" : body));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        sequential = new OvhClient(transport).clockSync(null).coalescing(false);
+        parallel = new OvhClient(transport).clockSync(null).coalescing(false).parallelDecoding(new ParallelDecoding());
+        unordered = new OvhClient(transport).clockSync(null).coalescing(false).parallelDecoding(new ParallelDecoding().ordered(false));
+        project = Project.list(Credential.build(sequential, "ak", "as", "ck").toBlocking().single()).toBlocking().single();
+    }
+
+    private List<Image> decode(OvhClient _client) {
+        return new RequestBuilder("/cloud/project/p1/image", Method.GET, "ak", _client)
+                .streamArray((JsonReader t) -> Image.read(project, t, Image::new))
+                .toList()
+                .toBlocking()
+                .single();
+    }
+
+    @Benchmark
+    public List<Image> sequential() {
+        return decode(sequential);
+    }
+
+    @Benchmark
+    public List<Image> parallel() {
+        return decode(parallel);
+    }
+
+    @Benchmark
+    public List<Image> parallelUnordered() {
+        return decode(unordered);
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParallelDecodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
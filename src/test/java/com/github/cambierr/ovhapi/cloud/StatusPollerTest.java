@@ -0,0 +1,198 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.cloud;
+
+import com.github.cambierr.ovhapi.cloud.Instance.Status;
+import com.github.cambierr.ovhapi.exception.RequestException;
+import com.github.cambierr.ovhapi.exception.UnexpectedStatusException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.Subscription;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+/**
+ *
+ * @author cambierr
+ */
+public class StatusPollerTest {
+
+    private TestScheduler scheduler;
+    private Map<String, Status> statuses;
+    private StatusPoller poller;
+
+    public StatusPollerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        statuses = new ConcurrentHashMap<>();
+        poller = new StatusPoller(() -> {
+            List<Instance> listed = new ArrayList<>();
+            statuses.forEach((String t, Status u) -> listed.add(instance(t, u)));
+            return Observable.from(listed);
+        }, scheduler).intervals(100, 30000, TimeUnit.MILLISECONDS).estimate(10, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private static Instance instance(String _id, Status _status) {
+        return new Instance(null, _status, null, "name-" + _id, null, 0, null, null, _id);
+    }
+
+    @Test
+    public void testAwait() {
+        System.out.println("await");
+        statuses.put("i1", Status.BUILD);
+        statuses.put("i2", Status.BUILD);
+        statuses.put("i3", Status.ACTIVE);
+        Instance first = instance("i1", Status.BUILD);
+        TestSubscriber<Instance> firstWait = new TestSubscriber<>();
+        poller.await(first, Status.ACTIVE).subscribe(firstWait);
+        TestSubscriber<Instance> secondWait = new TestSubscriber<>();
+        poller.await(instance("i2", Status.BUILD), Status.ACTIVE).subscribe(secondWait);
+        assertEquals(2, poller.getPending());
+
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+        assertEquals(0, poller.getTicks());
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+        assertEquals(2, poller.getTicks());
+        firstWait.assertNoTerminalEvent();
+
+        statuses.put("i1", Status.ACTIVE);
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+        firstWait.assertValue(first);
+        firstWait.assertCompleted();
+        assertEquals(Status.ACTIVE, first.getStatus());
+        secondWait.assertNoTerminalEvent();
+        assertEquals(1, poller.getPending());
+
+        statuses.put("i2", Status.ACTIVE);
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+        secondWait.assertCompleted();
+        assertEquals(0, poller.getPending());
+
+        long ticks = poller.getTicks();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        assertEquals(ticks, poller.getTicks());
+
+        TestSubscriber<Instance> activeWait = new TestSubscriber<>();
+        poller.await(instance("i3", Status.ACTIVE), Status.ACTIVE).subscribe(activeWait);
+        activeWait.assertCompleted();
+        assertEquals(ticks, poller.getTicks());
+    }
+
+    @Test
+    public void testError() {
+        System.out.println("error");
+        statuses.put("i1", Status.ERROR);
+        TestSubscriber<Instance> failedWait = new TestSubscriber<>();
+        poller.await(instance("i1", Status.BUILD), Status.ACTIVE).subscribe(failedWait);
+        TestSubscriber<Instance> deletedWait = new TestSubscriber<>();
+        poller.await(instance("i2", Status.ACTIVE), Status.DELETED).subscribe(deletedWait);
+
+        scheduler.advanceTimeBy(30, TimeUnit.SECONDS);
+        failedWait.assertError(UnexpectedStatusException.class);
+        assertEquals("i1", ((UnexpectedStatusException) failedWait.getOnErrorEvents().get(0)).instanceId());
+        deletedWait.assertCompleted();
+        assertEquals(0, poller.getPending());
+    }
+
+    @Test
+    public void testFailedTicks() {
+        System.out.println("failedTicks");
+        AtomicInteger failing = new AtomicInteger(2);
+        StatusPoller flaky = new StatusPoller(() -> {
+            if (failing.getAndDecrement() > 0) {
+                return Observable.error(new RequestException(503, "Service Unavailable", null));
+            }
+            return Observable.just(instance("i1", Status.ACTIVE));
+        }, scheduler).intervals(100, 30000, TimeUnit.MILLISECONDS).estimate(10, TimeUnit.SECONDS);
+        TestSubscriber<Instance> wait = new TestSubscriber<>();
+        flaky.await(instance("i1", Status.BUILD), Status.ACTIVE).subscribe(wait);
+
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertEquals(1, flaky.getTicks());
+        wait.assertNoTerminalEvent();
+        scheduler.advanceTimeBy(27, TimeUnit.SECONDS);
+        assertEquals(1, flaky.getTicks());
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+        assertEquals(2, flaky.getTicks());
+        wait.assertNoTerminalEvent();
+        scheduler.advanceTimeBy(30, TimeUnit.SECONDS);
+        wait.assertCompleted();
+
+        failing.set(3);
+        TestSubscriber<Instance> failedWait = new TestSubscriber<>();
+        flaky.await(instance("i2", Status.BUILD), Status.ACTIVE).subscribe(failedWait);
+        scheduler.advanceTimeBy(2, TimeUnit.MINUTES);
+        failedWait.assertError(RequestException.class);
+        assertEquals(0, flaky.getPending());
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        System.out.println("unsubscribe");
+        statuses.put("i1", Status.BUILD);
+        Subscription wait = poller.await(instance("i1", Status.BUILD), Status.ACTIVE).subscribe();
+        wait.unsubscribe();
+        assertEquals(0, poller.getPending());
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        assertEquals(0, poller.getTicks());
+    }
+
+    @Test
+    public void testAdaptiveInterval() {
+        System.out.println("adaptiveInterval");
+        statuses.put("i0", Status.BUILD);
+        poller.await(instance("i0", Status.BUILD), Status.ACTIVE).subscribe();
+        scheduler.advanceTimeBy(12, TimeUnit.SECONDS);
+        long single = poller.getTicks();
+
+        for (int i = 1; i <= 20; i++) {
+            statuses.put("i" + i, Status.BUILD);
+        }
+        StatusPoller crowded = new StatusPoller(() -> {
+            List<Instance> listed = new ArrayList<>();
+            statuses.forEach((String t, Status u) -> listed.add(instance(t, u)));
+            return Observable.from(listed);
+        }, scheduler).intervals(100, 30000, TimeUnit.MILLISECONDS).estimate(10, TimeUnit.SECONDS);
+        for (int i = 0; i <= 20; i++) {
+            crowded.await(instance("i" + i, Status.BUILD), Status.ACTIVE).subscribe();
+        }
+        scheduler.advanceTimeBy(12, TimeUnit.SECONDS);
+        assertTrue(single + " ticks for 1 instance, " + crowded.getTicks() + " for 21", crowded.getTicks() > single);
+
+        statuses.put("i0", Status.ACTIVE);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertTrue(crowded.getEstimate(Status.BUILD, Status.ACTIVE) > 10000);
+        assertEquals(10000, crowded.getEstimate(Status.SHUTOFF, Status.ACTIVE));
+        assertEquals(10000, crowded.getEstimate(Status.BUILD, Status.REBOOT));
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import rx.schedulers.Schedulers;
+
+/**
+ * Polls a local server answering a 64KB instance list, to measure the memory
+ * allocated per response by the transport (run with -prof gc)
+ *
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.cambierr.ovhapi.common.AsyncTransportBenchmark</p>
+ *
+ * @author cambierr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncTransportBenchmark {
+
+    private HttpServer server;
+    private AsyncTransport transport;
+    private PreparedRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        JSONArray array = new JSONArray();
+        for (int i = 0; array.toString().length() < 64 * 1024; i++) {
+            array.put(new JSONObject()
+                    .put("id", "5f4d1a2c-7a44-4d3e-8b1a-" + String.format("%012d", i))
+                    .put("status", "ACTIVE")
+                    .put("region", "GRA1")
+                    .put("name", "instance-" + i)
+                    .put("created", "2016-03-24T11:10:25+01:00")
+                    .put("flavorId", "flavor-" + (i % 4)));
+        }
+        byte[] body = array.toString().getBytes(StandardCharsets.UTF_8);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/instance", (exchange) -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+        transport = new AsyncTransport(new PoolConfig(), Schedulers.immediate());
+        request = new PreparedRequest(Method.GET, "http://127.0.0.1:" + server.getAddress().getPort() + "/instance", null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        transport.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int execute() {
+        return transport.execute(request).toBlocking().single().getBody().length();
+    }
+
+    @Benchmark
+    public int stream() {
+        return transport.stream(request, (SafeResponse t) -> {
+        })
+                .map((PooledBuffer t) -> {
+                    int length = t.getBuffer().remaining();
+                    t.release();
+                    return length;
+                })
+                .reduce(0, (Integer t1, Integer t2) -> t1 + t2)
+                .toBlocking()
+                .single();
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AsyncTransportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
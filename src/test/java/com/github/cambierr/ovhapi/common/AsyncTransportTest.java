@@ -0,0 +1,333 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.sun.net.httpserver.HttpServer;
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+
+/**
+ *
+ * @author cambierr
+ */
+public class AsyncTransportTest {
+
+    private static HttpServer server;
+    private static AsyncTransport transport;
+    private static String baseUrl;
+    private static final long LARGE_SIZE = 64L * 1024 * 1024;
+    private static final AtomicLong written = new AtomicLong();
+
+    public AsyncTransportTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", (exchange) -> {
+            byte[] body = readAll(exchange.getRequestBody());
+            String reply = exchange.getRequestMethod() + " " + exchange.getRequestHeaders().getFirst("X-Test") + " " + new String(body, StandardCharsets.UTF_8);
+            byte[] out = reply.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(200, out.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(out);
+            }
+        });
+        server.createContext("/large", (exchange) -> {
+            exchange.sendResponseHeaders(200, LARGE_SIZE);
+            byte[] block = new byte[64 * 1024];
+            try (OutputStream os = exchange.getResponseBody()) {
+                for (long sent = 0; sent < LARGE_SIZE; sent += block.length) {
+                    os.write(block);
+                    written.addAndGet(block.length);
+                }
+            }
+        });
+        server.createContext("/missing", (exchange) -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.getResponseBody().close();
+        });
+        server.createContext("/slow", (exchange) -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        transport = new AsyncTransport();
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        transport.close();
+        server.stop(0);
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testExecuteGet() {
+        System.out.println("execute GET");
+        PreparedRequest request = new PreparedRequest(Method.GET, baseUrl + "/echo", null).header("X-Test", "hello");
+        SafeResponse result = transport.execute(request).toBlocking().single();
+        assertEquals(200, result.getStatus());
+        assertEquals("GET hello ", result.getBody());
+    }
+
+    @Test
+    public void testExecutePost() {
+        System.out.println("execute POST");
+        PreparedRequest request = new PreparedRequest(Method.POST, baseUrl + "/echo", "{\"a\":1}").header("X-Test", "body");
+        SafeResponse result = transport.execute(request).toBlocking().single();
+        assertEquals(200, result.getStatus());
+        assertEquals("POST body {\"a\":1}", result.getBody());
+    }
+
+    @Test
+    public void testExecuteError() {
+        System.out.println("execute 404");
+        PreparedRequest request = new PreparedRequest(Method.GET, baseUrl + "/missing", null);
+        SafeResponse result = transport.execute(request).toBlocking().single();
+        assertEquals(404, result.getStatus());
+    }
+
+    @Test
+    public void testStream() {
+        System.out.println("stream");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        SafeResponse[] head = new SafeResponse[1];
+        transport.stream(new PreparedRequest(Method.POST, baseUrl + "/echo", "[1,2,3]").header("X-Test", "chunks"), (SafeResponse t) -> head[0] = t)
+                .toBlocking()
+                .forEach((PooledBuffer t) -> {
+                    byte[] bytes = new byte[t.getBuffer().remaining()];
+                    t.getBuffer().get(bytes);
+                    t.release();
+                    result.write(bytes, 0, bytes.length);
+                });
+        assertEquals("POST chunks [1,2,3]", new String(result.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(200, head[0].getStatus());
+        assertEquals("text/plain; charset=UTF-8", head[0].getHeader("content-type"));
+
+        try {
+            transport.stream(new PreparedRequest(Method.GET, baseUrl + "/missing", null), (SafeResponse t) -> fail("No head expected")).toBlocking().forEach((PooledBuffer t) -> fail("No chunk expected"));
+            fail("A RequestException should have been thrown");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof RequestException);
+            assertEquals(404, ((RequestException) ex.getCause()).code());
+        }
+    }
+
+    @Test
+    public void testStreamBackpressure() throws InterruptedException {
+        System.out.println("stream backpressure");
+        TestSubscriber<PooledBuffer> subscriber = new TestSubscriber<>(1);
+        transport.stream(new PreparedRequest(Method.GET, baseUrl + "/large", null), (SafeResponse t) -> {
+        }).subscribe(subscriber);
+
+        Thread.sleep(1000);
+        assertEquals(1, subscriber.getOnNextEvents().size());
+        assertTrue("the server should be blocked, " + written.get() + " bytes written", written.get() < LARGE_SIZE / 2);
+
+        subscriber.requestMore(Long.MAX_VALUE);
+        subscriber.awaitTerminalEvent(30, TimeUnit.SECONDS);
+        subscriber.assertCompleted();
+        long received = 0;
+        for (PooledBuffer chunk : subscriber.getOnNextEvents()) {
+            received += chunk.getBuffer().remaining();
+            chunk.release();
+        }
+        assertEquals(LARGE_SIZE, received);
+    }
+
+    @Test
+    public void testBufferPool() throws IOException, InterruptedException {
+        System.out.println("bufferPool");
+        BufferPool buffers = new BufferPool();
+        AsyncTransport pooled = new AsyncTransport(new PoolConfig(), buffers, Schedulers.computation());
+        try {
+            for (int i = 0; i < 3; i++) {
+                PreparedRequest request = new PreparedRequest(Method.POST, baseUrl + "/echo", "{\"a\":" + i + "}").header("X-Test", "pooled");
+                assertEquals("POST pooled {\"a\":" + i + "}", pooled.execute(request).toBlocking().single().getBody());
+            }
+            BufferStats result = buffers.getStats();
+            assertEquals(0, result.getLeased());
+            assertEquals(1, result.getAllocated());
+            assertEquals(1, result.getIdle());
+
+            TestSubscriber<PooledBuffer> subscriber = new TestSubscriber<>(1);
+            StringBuilder large = new StringBuilder();
+            for (int i = 0; i < 100000; i++) {
+                large.append('x');
+            }
+            Subscription call = pooled.stream(new PreparedRequest(Method.POST, baseUrl + "/echo", large.toString()), (SafeResponse t) -> {
+            }).subscribe(subscriber);
+            for (int i = 0; i < 100 && subscriber.getOnNextEvents().isEmpty(); i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, subscriber.getOnNextEvents().size());
+            call.unsubscribe();
+            for (int i = 0; i < 100 && buffers.getStats().getLeased() != 1; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, buffers.getStats().getLeased());
+            assertTrue(subscriber.getOnNextEvents().get(0).release());
+            assertEquals(0, buffers.getStats().getLeased());
+            assertEquals(0, buffers.getStats().getLeaks());
+        } finally {
+            pooled.close();
+        }
+    }
+
+    @Test
+    public void testGetPoolStats() throws IOException {
+        System.out.println("getPoolStats");
+        AsyncTransport pooled = new AsyncTransport(new PoolConfig().maxTotal(4).maxPerRoute(2), Schedulers.computation());
+        try {
+            pooled.execute(new PreparedRequest(Method.GET, baseUrl + "/echo", null)).toBlocking().single();
+            PoolStats result = pooled.getPoolStats();
+            assertEquals(4, result.getMax());
+            assertEquals(0, result.getLeased());
+            assertEquals(0, result.getPending());
+            assertEquals(1, result.getIdle());
+        } finally {
+            pooled.close();
+        }
+    }
+
+    @Test
+    public void testCancel() throws IOException, InterruptedException {
+        System.out.println("cancel");
+        AsyncTransport pooled = new AsyncTransport(new PoolConfig(), Schedulers.computation());
+        try {
+            Subscription call = pooled.execute(new PreparedRequest(Method.GET, baseUrl + "/slow", null)).subscribe();
+            for (int i = 0; i < 100 && pooled.getPoolStats().getLeased() == 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, pooled.getPoolStats().getLeased());
+
+            call.unsubscribe();
+            for (int i = 0; i < 50 && pooled.getPoolStats().getLeased() != 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, pooled.getPoolStats().getLeased());
+        } finally {
+            pooled.close();
+        }
+    }
+
+    @Test
+    public void testReadTimeout() {
+        System.out.println("readTimeout");
+        PreparedRequest request = new PreparedRequest(Method.GET, baseUrl + "/slow", null)
+                .timeouts(new Timeouts().read(200, TimeUnit.MILLISECONDS));
+        long start = System.currentTimeMillis();
+        try {
+            transport.execute(request).toBlocking().single();
+            fail("A SocketTimeoutException should have been thrown");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof SocketTimeoutException);
+        }
+        assertTrue(System.currentTimeMillis() - start < 1500);
+    }
+
+    @Test
+    public void testStreamNotExecuted() throws IOException, InterruptedException {
+        System.out.println("streamNotExecuted");
+        AtomicInteger workers = new AtomicInteger();
+        Scheduler scheduler = new Scheduler() {
+            @Override
+            public Scheduler.Worker createWorker() {
+                workers.incrementAndGet();
+                Scheduler.Worker worker = Schedulers.computation().createWorker();
+                return new Scheduler.Worker() {
+                    @Override
+                    public Subscription schedule(Action0 _action) {
+                        return worker.schedule(_action);
+                    }
+
+                    @Override
+                    public Subscription schedule(Action0 _action, long _delay, TimeUnit _unit) {
+                        return worker.schedule(_action, _delay, _unit);
+                    }
+
+                    @Override
+                    public void unsubscribe() {
+                        if (!worker.isUnsubscribed()) {
+                            workers.decrementAndGet();
+                        }
+                        worker.unsubscribe();
+                    }
+
+                    @Override
+                    public boolean isUnsubscribed() {
+                        return worker.isUnsubscribed();
+                    }
+                };
+            }
+        };
+        AsyncTransport closed = new AsyncTransport(new PoolConfig(), scheduler);
+        closed.close();
+
+        TestSubscriber<PooledBuffer> subscriber = new TestSubscriber<>();
+        closed.stream(new PreparedRequest(Method.GET, baseUrl + "/echo", null), (SafeResponse t) -> {
+        }).subscribe(subscriber);
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        subscriber.assertError(IllegalStateException.class);
+        for (int i = 0; i < 100 && workers.get() != 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, workers.get());
+
+        TestSubscriber<SafeResponse> single = new TestSubscriber<>();
+        closed.execute(new PreparedRequest(Method.GET, baseUrl + "/echo", null)).subscribe(single);
+        single.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        single.assertError(IllegalStateException.class);
+    }
+
+    private static byte[] readAll(InputStream _in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = _in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+}
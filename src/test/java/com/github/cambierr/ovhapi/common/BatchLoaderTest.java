@@ -0,0 +1,142 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+/**
+ *
+ * @author cambierr
+ */
+public class BatchLoaderTest {
+
+    public BatchLoaderTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * A loader whose batch call lists "a" to "e" and records the requested
+     * keys, and whose single call answers "key!"
+     */
+    private static BatchLoader<String, String> loader(TestScheduler _scheduler, List<List<String>> _batches, List<String> _singles, int _maxBatchSize) {
+        return new BatchLoader<>((Iterable<String> t) -> {
+            List<String> keys = new ArrayList<>();
+            t.forEach(keys::add);
+            _batches.add(keys);
+            return Observable.just("a", "b", "c", "d", "e");
+        }, (String t) -> t.substring(0, 1), (String t) -> {
+            _singles.add(t);
+            return Observable.just(t + "!");
+        }, 10, TimeUnit.MILLISECONDS, _maxBatchSize, _scheduler);
+    }
+
+    @Test
+    public void testLoad() {
+        System.out.println("load");
+        TestScheduler scheduler = new TestScheduler();
+        List<List<String>> batches = new ArrayList<>();
+        List<String> singles = new ArrayList<>();
+        BatchLoader<String, String> loader = loader(scheduler, batches, singles, 100);
+
+        TestSubscriber<String> first = new TestSubscriber<>();
+        TestSubscriber<String> second = new TestSubscriber<>();
+        TestSubscriber<String> again = new TestSubscriber<>();
+        TestSubscriber<String> missing = new TestSubscriber<>();
+        loader.load("a").subscribe(first);
+        loader.load("c").subscribe(second);
+        loader.load("a").subscribe(again);
+        loader.load("z").subscribe(missing);
+        scheduler.advanceTimeBy(9, TimeUnit.MILLISECONDS);
+        assertTrue(batches.isEmpty());
+        first.assertNoValues();
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+        first.assertValue("a");
+        second.assertValue("c");
+        again.assertValue("a");
+        missing.assertValue("z!");
+        first.assertCompleted();
+        assertEquals(1, singles.size());
+        assertEquals(4, loader.getLoads());
+        assertEquals(1, loader.getBatches());
+        assertEquals(1, loader.getSingles());
+
+        TestSubscriber<String> later = new TestSubscriber<>();
+        loader.load("b").subscribe(later);
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        later.assertValue("b");
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    public void testMaxBatchSize() {
+        System.out.println("maxBatchSize");
+        TestScheduler scheduler = new TestScheduler();
+        List<List<String>> batches = new ArrayList<>();
+        BatchLoader<String, String> loader = loader(scheduler, batches, new ArrayList<>(), 2);
+
+        TestSubscriber<String> first = new TestSubscriber<>();
+        TestSubscriber<String> third = new TestSubscriber<>();
+        loader.load("a").subscribe(first);
+        loader.load("b").subscribe();
+        first.assertValue("a");
+        assertEquals(1, batches.size());
+
+        loader.load("c").subscribe(third);
+        third.assertNoValues();
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        third.assertValue("c");
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    public void testError() {
+        System.out.println("error");
+        TestScheduler scheduler = new TestScheduler();
+        BatchLoader<String, String> loader = new BatchLoader<>(
+                (Iterable<String> t) -> Observable.<String>error(new IllegalStateException("down")),
+                (String t) -> t,
+                (String t) -> Observable.just(t),
+                10, TimeUnit.MILLISECONDS, 100, scheduler);
+
+        TestSubscriber<String> first = new TestSubscriber<>();
+        TestSubscriber<String> second = new TestSubscriber<>();
+        loader.load("a").subscribe(first);
+        loader.load("b").subscribe(second);
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        first.assertError(IllegalStateException.class);
+        second.assertError(IllegalStateException.class);
+    }
+
+}
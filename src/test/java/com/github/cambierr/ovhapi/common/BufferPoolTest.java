@@ -0,0 +1,145 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author cambierr
+ */
+public class BufferPoolTest {
+
+    public BufferPoolTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testAcquire() {
+        System.out.println("acquire");
+        BufferPool instance = new BufferPool().sizes(1000, 100000);
+        assertEquals(1024, instance.getMinSize());
+        assertEquals(131072, instance.getMaxSize());
+
+        PooledBuffer small = instance.acquire(10);
+        assertTrue(small.getBuffer().isDirect());
+        assertEquals(1024, small.getBuffer().capacity());
+        PooledBuffer medium = instance.acquire(5000);
+        assertEquals(8192, medium.getBuffer().capacity());
+        PooledBuffer large = instance.acquire(200000);
+        assertFalse(large.getBuffer().isDirect());
+        assertEquals(200000, large.getBuffer().capacity());
+
+        BufferStats result = instance.getStats();
+        assertEquals(2, result.getAllocated());
+        assertEquals(1024 + 8192, result.getAllocatedBytes());
+        assertEquals(2, result.getLeased());
+        assertEquals(0, result.getIdle());
+    }
+
+    @Test
+    public void testRelease() {
+        System.out.println("release");
+        BufferPool instance = new BufferPool();
+        PooledBuffer buffer = instance.acquire(100);
+        buffer.getBuffer().put((byte) 1);
+        assertTrue(buffer.release());
+        assertFalse(buffer.release());
+        try {
+            buffer.getBuffer();
+            fail("An IllegalStateException should have been thrown");
+        } catch (IllegalStateException ex) {
+        }
+        assertEquals(1, instance.getStats().getIdle());
+
+        PooledBuffer reused = instance.acquire(4000);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.getBuffer().position());
+        assertEquals(reused.getBuffer().capacity(), reused.getBuffer().limit());
+        BufferStats result = instance.getStats();
+        assertEquals(1, result.getAllocated());
+        assertEquals(1, result.getLeased());
+        assertEquals(0, result.getIdle());
+
+        assertTrue(PooledBuffer.wrap(ByteBuffer.allocate(10)).release());
+    }
+
+    @Test
+    public void testMaxIdle() {
+        System.out.println("maxIdle");
+        BufferPool instance = new BufferPool().maxIdle(8192);
+        PooledBuffer first = instance.acquire(4096);
+        PooledBuffer second = instance.acquire(4096);
+        PooledBuffer third = instance.acquire(4096);
+        first.release();
+        second.release();
+        third.release();
+        BufferStats result = instance.getStats();
+        assertEquals(2, result.getIdle());
+        assertEquals(8192, result.getIdleBytes());
+        assertEquals(2, result.getAllocated());
+        assertEquals(0, result.getLeased());
+    }
+
+    @Test
+    public void testLeakDetection() throws InterruptedException {
+        System.out.println("leakDetection");
+        BufferPool instance = new BufferPool();
+        instance.acquire(100);
+        instance.acquire(100).release();
+        for (int i = 0; i < 50 && instance.getStats().getLeaks() == 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        BufferStats result = instance.getStats();
+        assertEquals(1, result.getLeaks());
+        assertEquals(0, result.getLeased());
+        assertEquals(1, result.getAllocated());
+
+        BufferPool untracked = new BufferPool().leakDetection(false);
+        untracked.acquire(100);
+        System.gc();
+        Thread.sleep(20);
+        assertEquals(0, untracked.getStats().getLeaks());
+    }
+
+    @Test
+    public void testDecode() {
+        System.out.println("decode");
+        BufferPool instance = new BufferPool();
+        PooledBuffer buffer = instance.acquire(100);
+        buffer.getBuffer().put("[\"héhé\"]".getBytes(StandardCharsets.UTF_8)).flip();
+        assertEquals("[\"héhé\"]", buffer.decode(StandardCharsets.UTF_8));
+        assertEquals(0, buffer.getBuffer().position());
+        buffer.release();
+
+        PooledBuffer heap = PooledBuffer.wrap(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8), 1, 2));
+        assertEquals("bc", heap.decode(StandardCharsets.UTF_8));
+    }
+
+}
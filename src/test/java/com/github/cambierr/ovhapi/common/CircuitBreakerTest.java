@@ -0,0 +1,147 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.exception.CircuitOpenException;
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+/**
+ *
+ * @author cambierr
+ */
+public class CircuitBreakerTest {
+
+    public CircuitBreakerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private static TestSubscriber<SafeResponse> call(CircuitBreaker _breaker, int _status) {
+        TestSubscriber<SafeResponse> result = new TestSubscriber<>();
+        _breaker.protect(Observable.just(new SafeResponse(_status, "", null)), (SafeResponse t) -> t.getStatus() >= 500).subscribe(result);
+        return result;
+    }
+
+    @Test
+    public void testRoute() {
+        System.out.println("route");
+        assertEquals("GET /cloud/project/{id}/storage/{id}", CircuitBreaker.route(Method.GET, "/cloud/project/8f3a2b/storage/0e4c5d?region=GRA1"));
+        assertEquals("POST /auth/credential", CircuitBreaker.route(Method.POST, "/auth/credential"));
+    }
+
+    @Test
+    public void testProtect() {
+        System.out.println("protect");
+        TestScheduler clock = new TestScheduler();
+        List<CircuitEvent> events = new ArrayList<>();
+        CircuitBreaker breaker = new CircuitBreaker("GET /cloud", new CircuitBreakerConfig()
+                .minimumCalls(4)
+                .failureRateThreshold(0.5)
+                .openDuration(10, TimeUnit.SECONDS)
+                .halfOpenCalls(2), clock, events::add);
+
+        call(breaker, 200);
+        call(breaker, 404);
+        call(breaker, 503);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        call(breaker, 502);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        call(breaker, 200).assertError(CircuitOpenException.class);
+
+        clock.advanceTimeBy(10, TimeUnit.SECONDS);
+        call(breaker, 200).assertNoErrors();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        call(breaker, 200).assertNoErrors();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertEquals(3, events.size());
+        assertEquals(CircuitBreaker.State.OPEN, events.get(0).getTo());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, events.get(1).getTo());
+        assertEquals(CircuitBreaker.State.CLOSED, events.get(2).getTo());
+    }
+
+    @Test
+    public void testProtectHalfOpenFailure() {
+        System.out.println("protectHalfOpenFailure");
+        TestScheduler clock = new TestScheduler();
+        CircuitBreaker breaker = new CircuitBreaker("GET /cloud", new CircuitBreakerConfig()
+                .minimumCalls(1)
+                .openDuration(10, TimeUnit.SECONDS), clock, null);
+
+        breaker.protect(Observable.<SafeResponse>error(new RuntimeException()), (SafeResponse t) -> false).subscribe(new TestSubscriber<>());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        clock.advanceTimeBy(10, TimeUnit.SECONDS);
+        breaker.protect(Observable.<SafeResponse>error(new RequestException(503, "Service Unavailable", null)), (SafeResponse t) -> false).subscribe(new TestSubscriber<>());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        clock.advanceTimeBy(10, TimeUnit.SECONDS);
+        breaker.protect(Observable.<SafeResponse>error(new RequestException(404, "Not Found", null)), (SafeResponse t) -> false).subscribe(new TestSubscriber<>());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testFailureRate() {
+        System.out.println("failureRate");
+        TestScheduler clock = new TestScheduler();
+        CircuitBreaker breaker = new CircuitBreaker("GET /cloud", new CircuitBreakerConfig().window(10, TimeUnit.SECONDS), clock, null);
+
+        call(breaker, 500);
+        call(breaker, 200);
+        assertEquals(0.5, breaker.getFailureRate(), 0.001);
+
+        clock.advanceTimeBy(11, TimeUnit.SECONDS);
+        assertEquals(0, breaker.getFailureRate(), 0.001);
+    }
+
+    @Test
+    public void testProtectAbandoned() {
+        System.out.println("protectAbandoned");
+        TestScheduler clock = new TestScheduler();
+        CircuitBreaker breaker = new CircuitBreaker("GET /cloud", new CircuitBreakerConfig()
+                .minimumCalls(2)
+                .openDuration(10, TimeUnit.SECONDS), clock, null);
+
+        breaker.protect(Observable.<SafeResponse>never(), (SafeResponse t) -> false, () -> false).subscribe().unsubscribe();
+        assertEquals(0, breaker.getFailureRate(), 0.001);
+        breaker.protect(Observable.<SafeResponse>never(), (SafeResponse t) -> false, () -> true).subscribe().unsubscribe();
+        breaker.protect(Observable.<SafeResponse>never(), (SafeResponse t) -> false, () -> true).subscribe().unsubscribe();
+        assertEquals(1, breaker.getFailureRate(), 0.001);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        clock.advanceTimeBy(10, TimeUnit.SECONDS);
+        breaker.protect(Observable.<SafeResponse>never(), (SafeResponse t) -> false, () -> true).subscribe().unsubscribe();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+}
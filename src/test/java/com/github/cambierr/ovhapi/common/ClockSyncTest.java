@@ -0,0 +1,189 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.auth.Credential;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.schedulers.TestScheduler;
+
+/**
+ *
+ * @author cambierr
+ */
+public class ClockSyncTest {
+
+    private static HttpServer server;
+    private static AsyncTransport transport;
+    private static Endpoint endpoint;
+
+    /**
+     * The offset of the stand-in API clock, in seconds
+     */
+    private static final AtomicLong skew = new AtomicLong();
+    private static final AtomicInteger timeRequests = new AtomicInteger();
+    private static final AtomicInteger rejections = new AtomicInteger();
+
+    public ClockSyncTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/1.0/auth/time", (exchange) -> {
+            timeRequests.incrementAndGet();
+            reply(exchange, 200, Long.toString(apiTime()));
+        });
+        server.createContext("/1.0/me", (exchange) -> {
+            long timestamp = Long.parseLong(exchange.getRequestHeaders().getFirst("X-Ovh-Timestamp"));
+            if (Math.abs(timestamp - apiTime()) > 5) {
+                rejections.incrementAndGet();
+                reply(exchange, 400, "{\"errorCode\":\"QUERY_TIME_OUT\",\"httpCode\":\"400 Bad Request\",\"message\":\"Query out of time\"}");
+            } else {
+                reply(exchange, 200, "{\"nichandle\":\"xx1234-ovh\"}");
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        endpoint = new Endpoint("http://127.0.0.1:" + server.getAddress().getPort() + "/1.0");
+        transport = new AsyncTransport();
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        transport.close();
+        server.stop(0);
+    }
+
+    @Before
+    public void setUp() {
+        skew.set(3600);
+        timeRequests.set(0);
+        rejections.set(0);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private static long apiTime() {
+        return System.currentTimeMillis() / 1000 + skew.get();
+    }
+
+    private static void reply(HttpExchange _exchange, int _status, String _body) throws IOException {
+        byte[] out = _body.getBytes(StandardCharsets.UTF_8);
+        _exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        _exchange.sendResponseHeaders(_status, out.length);
+        try (OutputStream os = _exchange.getResponseBody()) {
+            os.write(out);
+        }
+    }
+
+    private static Credential credential(ClockSync _clockSync) {
+        OvhClient client = new OvhClient(transport)
+                .endpoints(new EndpointSelector(endpoint))
+                .clockSync(_clockSync);
+        return Credential.build(client, "ak", "as", "ck").toBlocking().single();
+    }
+
+    @Test
+    public void testSync() {
+        System.out.println("sync");
+        ClockSync clock = new ClockSync();
+        assertFalse(clock.isSynced());
+        long offset = clock.sync(transport, endpoint, false).toBlocking().single();
+        assertTrue(clock.isSynced());
+        assertEquals(3600000, offset, 1000);
+        assertEquals(apiTime(), clock.currentTime(), 1);
+
+        skew.set(3610);
+        clock.smoothing(0.5);
+        assertEquals(3605000, clock.sync(transport, endpoint, false).toBlocking().single(), 1500);
+        assertEquals(3610000, clock.sync(transport, endpoint, true).toBlocking().single(), 1000);
+        assertEquals(3, clock.getSyncs());
+    }
+
+    @Test
+    public void testFirstRequest() {
+        System.out.println("firstRequest");
+        Credential credentials = credential(new ClockSync().refresh(0, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            SafeResponse result = new RequestBuilder("/me", Method.GET, credentials).build().toBlocking().single();
+            assertEquals(200, result.getStatus());
+        }
+        assertEquals(1, timeRequests.get());
+        assertEquals(0, rejections.get());
+    }
+
+    @Test
+    public void testReplay() {
+        System.out.println("replay");
+        ClockSync clock = new ClockSync().refresh(0, TimeUnit.SECONDS);
+        Credential credentials = credential(clock);
+        assertEquals(200, new RequestBuilder("/me", Method.GET, credentials).build().toBlocking().single().getStatus());
+
+        skew.set(-600);
+        assertEquals(200, new RequestBuilder("/me", Method.GET, credentials).build().toBlocking().single().getStatus());
+        assertEquals(1, rejections.get());
+        assertEquals(1, clock.getReplays());
+        assertEquals(2, timeRequests.get());
+
+        assertEquals(200, new RequestBuilder("/me", Method.GET, credentials).build().toBlocking().single().getStatus());
+        assertEquals(1, rejections.get());
+    }
+
+    @Test
+    public void testRefresh() {
+        System.out.println("refresh");
+        TestScheduler scheduler = new TestScheduler();
+        AtomicInteger sent = new AtomicInteger();
+        Transport fake = new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                sent.incrementAndGet();
+                return Observable.just(new SafeResponse(200, "OK", "1000"));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        ClockSync clock = new ClockSync(scheduler).refresh(1, TimeUnit.MINUTES);
+        assertEquals(1000500, clock.synced(fake, endpoint).toBlocking().single().longValue());
+        assertEquals(1000, clock.currentTime());
+        clock.synced(fake, endpoint).toBlocking().single();
+        assertEquals(1, sent.get());
+
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        assertEquals(2, sent.get());
+        assertEquals(2, clock.getSyncs());
+        clock.stop();
+        scheduler.advanceTimeBy(5, TimeUnit.MINUTES);
+        assertEquals(2, sent.get());
+
+        clock.synced(fake, endpoint).toBlocking().single();
+        assertEquals(3, sent.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        assertEquals(4, sent.get());
+        clock.stop();
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+
+/**
+ *
+ * @author cambierr
+ */
+public class CodecsTest {
+
+    public CodecsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testDefaults() {
+        System.out.println("defaults");
+        SafeResponse response = new SafeResponse(200, "OK", "{\"a\":1}");
+        assertEquals("{\"a\":1}", response.validateResponse(String.class).toBlocking().single());
+        assertEquals(1, response.validateResponse(JSONObject.class).toBlocking().single().getInt("a"));
+        assertNull(response.validateResponse(null).toBlocking().single());
+        assertSame(response.getBody(), response.validateResponse(String.class).toBlocking().single());
+        SafeResponse wrapped = SafeResponse.wrap(200, "OK", ByteBuffer.wrap("[1]".getBytes(StandardCharsets.UTF_8)), Collections.emptyMap());
+        assertSame(wrapped.validateResponse(String.class).toBlocking().single(), wrapped.getBody());
+        try {
+            response.validateResponse(Integer.class).toBlocking().single();
+            fail("An IllegalArgumentException should have been thrown");
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void testRegister() {
+        System.out.println("register");
+        Codecs codecs = new Codecs()
+                .register(Integer.class, (ByteBuffer t) -> Integer.valueOf(StandardCharsets.UTF_8.decode(t).toString().trim()))
+                .registerBinder(Long.class, (JsonReader t) -> {
+                    t.beginObject();
+                    t.nextName();
+                    long value = t.nextLong();
+                    t.endObject();
+                    return value;
+                });
+        assertEquals(Integer.valueOf(42), new SafeResponse(200, "OK", " 42 ").withCodecs(codecs).validateResponse(Integer.class).toBlocking().single());
+        assertEquals(Long.valueOf(7), new SafeResponse(200, "OK", "{\"v\":7}").withCodecs(codecs).validateResponse(Long.class).toBlocking().single());
+        assertNull(new Codecs().get(Integer.class));
+        assertEquals(Integer.valueOf(5), SafeResponse.wrap(200, "OK", ByteBuffer.wrap(" 5 ".getBytes(StandardCharsets.UTF_8)), Collections.emptyMap()).withCodecs(codecs).validateResponse(Integer.class).toBlocking().single());
+        assertEquals("{\"é\":1}", SafeResponse.wrap(200, "OK", ByteBuffer.wrap("{\"é\":1}".getBytes(StandardCharsets.UTF_8)), Collections.emptyMap()).getBody());
+
+        try {
+            new SafeResponse(200, "OK", "forty-two").withCodecs(codecs).validateResponse(Integer.class).toBlocking().single();
+            fail("A RequestException should have been thrown");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof RequestException);
+            assertEquals(200, ((RequestException) ex.getCause()).code());
+            assertTrue(ex.getCause().getCause() instanceof NumberFormatException);
+        }
+        try {
+            new SafeResponse(404, "Not Found", "{}").withCodecs(codecs).validateResponse(Integer.class).toBlocking().single();
+            fail("A RequestException should have been thrown");
+        } catch (RuntimeException ex) {
+            assertEquals(404, ((RequestException) ex.getCause()).code());
+        }
+    }
+
+    @Test
+    public void testClient() {
+        System.out.println("client");
+        OvhClient client = new OvhClient(new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.just(new SafeResponse(200, "OK", "12"));
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        client.getCodecs().register(Integer.class, (ByteBuffer t) -> Integer.valueOf(StandardCharsets.UTF_8.decode(t).toString()));
+        int value = new RequestBuilder("/cloud", Method.GET, "ak", client)
+                .build()
+                .flatMap((SafeResponse arg0) -> arg0.validateResponse(Integer.class))
+                .toBlocking()
+                .single();
+        assertEquals(12, value);
+        assertNull(new OvhClient(client.getTransport()).getCodecs().get(Integer.class));
+    }
+
+}
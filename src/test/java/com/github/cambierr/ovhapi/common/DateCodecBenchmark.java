@@ -0,0 +1,81 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the date codec with the former shared SimpleDateFormat, which has
+ * to be locked to be used by several threads
+ *
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.cambierr.ovhapi.common.DateCodecBenchmark</p>
+ *
+ * @author cambierr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class DateCodecBenchmark {
+
+    private final SimpleDateFormat shared = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
+    private final String date = "2016-03-24T11:10:25+01:00";
+    private final long time = 1458814225000L;
+
+    @Benchmark
+    public long parseCodec() throws ParseException {
+        return DateCodec.parse(date);
+    }
+
+    @Benchmark
+    public long parseSharedFormat() throws ParseException {
+        synchronized (shared) {
+            return shared.parse(date).getTime();
+        }
+    }
+
+    @Benchmark
+    public String formatCodec() {
+        return DateCodec.format(time);
+    }
+
+    @Benchmark
+    public String formatSharedFormat() {
+        synchronized (shared) {
+            return shared.format(new Date(time));
+        }
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DateCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author cambierr
+ */
+public class DateCodecTest {
+
+    private SimpleDateFormat reference;
+
+    public DateCodecTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        reference = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Old local mean time offsets have seconds, which XXX drops
+     */
+    private static boolean lossless(long _time) {
+        return TimeZone.getDefault().getOffset(_time) % 60000 == 0;
+    }
+
+    @Test
+    public void testParse() throws ParseException {
+        System.out.println("parse");
+        assertEquals(0, DateCodec.parse("1970-01-01T00:00:00Z"));
+        assertEquals(1458814225000L, DateCodec.parse("2016-03-24T10:10:25Z"));
+        assertEquals(1458814225000L, DateCodec.parse("2016-03-24T11:10:25+01:00"));
+        assertEquals(1458814225000L, DateCodec.parse("2016-03-24T11:10:25+0100"));
+        assertEquals(1458814225000L, DateCodec.parse("2016-03-24T11:10:25+01"));
+        assertEquals(1458814225000L, DateCodec.parse("2016-03-24T05:40:25-04:30"));
+        assertEquals(951782400000L, DateCodec.parse("2000-02-29T00:00:00Z"));
+        assertEquals(reference.parse("1500-06-01T00:00:00Z").getTime(), DateCodec.parse("1500-06-01T00:00:00Z"));
+        try {
+            DateCodec.parse("24/03/2016");
+            fail("A ParseException should have been thrown");
+        } catch (ParseException ex) {
+        }
+    }
+
+    @Test
+    public void testFormat() throws ParseException {
+        System.out.println("format");
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long time = (random.nextLong() % 4102444800L) * 1000;
+            String result = DateCodec.format(time);
+            assertEquals(reference.format(new Date(time)), result);
+            if (lossless(time)) {
+                assertEquals(time, DateCodec.parse(result));
+            }
+            assertEquals(reference.parse(result).getTime(), DateCodec.parse(result));
+        }
+    }
+
+    @Test
+    public void testFormatZones() throws ParseException {
+        System.out.println("formatZones");
+        // the codec formats in the startup zone: check the conversion with other zones through the fallback format
+        for (String zone : new String[]{"UTC", "Europe/Paris", "America/St_Johns", "Asia/Kolkata", "Pacific/Chatham"}) {
+            reference.setTimeZone(TimeZone.getTimeZone(zone));
+            Random random = new Random(zone.hashCode());
+            for (int i = 0; i < 10000; i++) {
+                long time = (random.nextLong() % 4102444800L) * 1000;
+                if (reference.getTimeZone().getOffset(time) % 60000 == 0) {
+                    assertEquals(time, DateCodec.parse(reference.format(new Date(time))));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrency() throws Exception {
+        System.out.println("concurrency");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            results.add(executor.submit((Callable<Integer>) () -> {
+                SimpleDateFormat own = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
+                Random random = new Random(seed);
+                start.await();
+                int errors = 0;
+                for (int i = 0; i < 50000; i++) {
+                    long time = (random.nextLong() % 4102444800L) * 1000;
+                    String date = OvhApi.timeToDate(time);
+                    if (!date.equals(own.format(new Date(time))) || (lossless(time) && OvhApi.dateToTime(date) != time)) {
+                        errors++;
+                    }
+                }
+                return errors;
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> result : results) {
+            assertEquals(0, result.get(1, TimeUnit.MINUTES).intValue());
+        }
+        executor.shutdown();
+    }
+
+}
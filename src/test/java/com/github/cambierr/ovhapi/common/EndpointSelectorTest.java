@@ -0,0 +1,210 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.auth.Credential;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.Subscription;
+import rx.schedulers.TestScheduler;
+
+/**
+ *
+ * @author cambierr
+ */
+public class EndpointSelectorTest {
+
+    private static final Endpoint FIRST = new Endpoint("http://first.invalid/1.0");
+    private static final Endpoint SECOND = new Endpoint("http://second.invalid/1.0/");
+
+    public EndpointSelectorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * A transport answering 503 for the second endpoint and 200 otherwise,
+     * recording the requested urls
+     */
+    private static Transport transport(List<String> _urls) {
+        return new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                _urls.add(_request.getUrl());
+                if (_request.getUrl().startsWith(SECOND.getUrl())) {
+                    return Observable.just(new SafeResponse(503, "Service Unavailable", ""));
+                }
+                return Observable.just(new SafeResponse(200, "OK", "[]"));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    public void testSelect() {
+        System.out.println("select");
+        EndpointSelector selector = new EndpointSelector(FIRST, SECOND);
+        selector.record(FIRST, 100, true);
+        selector.record(SECOND, 10, true);
+        assertEquals(FIRST, selector.select());
+        assertEquals("http://second.invalid/1.0", SECOND.getUrl());
+    }
+
+    @Test
+    public void testLatencyAware() {
+        System.out.println("latencyAware");
+        EndpointSelector selector = new EndpointSelector(FIRST, SECOND).latencyAware(0.5);
+        selector.record(FIRST, 100, true);
+        assertEquals(SECOND, selector.select());
+        selector.record(SECOND, 200, true);
+        assertEquals(FIRST, selector.select());
+        selector.record(SECOND, 0, true);
+        assertEquals(100, selector.getLatency(SECOND), 0.001);
+        selector.record(SECOND, 0, true);
+        assertEquals(50, selector.getLatency(SECOND), 0.001);
+        assertEquals(SECOND, selector.select());
+
+        for (int i = 0; i < 3; i++) {
+            selector.record(SECOND, 0, false);
+        }
+        assertFalse(selector.isHealthy(SECOND));
+        assertEquals(FIRST, selector.select());
+        for (int i = 0; i < 3; i++) {
+            selector.record(FIRST, 0, false);
+        }
+        assertEquals(SECOND, selector.select());
+        selector.record(FIRST, 100, true);
+        assertTrue(selector.isHealthy(FIRST));
+        assertEquals(FIRST, selector.select());
+    }
+
+    @Test
+    public void testProbe() {
+        System.out.println("probe");
+        TestScheduler scheduler = new TestScheduler();
+        List<String> urls = Collections.synchronizedList(new ArrayList<>());
+        EndpointSelector selector = new EndpointSelector(SECOND, FIRST).latencyAware(0.3);
+        Subscription probing = selector.probe(transport(urls), 10, TimeUnit.SECONDS, scheduler);
+
+        scheduler.advanceTimeBy(0, TimeUnit.SECONDS);
+        assertEquals(2, urls.size());
+        assertTrue(urls.contains("http://first.invalid/1.0/auth/time"));
+        assertTrue(selector.getLatency(FIRST) >= 0);
+        assertTrue(selector.isHealthy(SECOND));
+
+        scheduler.advanceTimeBy(20, TimeUnit.SECONDS);
+        assertEquals(6, urls.size());
+        assertFalse(selector.isHealthy(SECOND));
+        assertEquals(FIRST, selector.select());
+
+        probing.unsubscribe();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        assertEquals(6, urls.size());
+    }
+
+    @Test
+    public void testRouting() {
+        System.out.println("routing");
+        List<String> urls = Collections.synchronizedList(new ArrayList<>());
+        OvhClient client = new OvhClient(transport(urls))
+                .retryPolicy(RetryPolicy.none())
+                .clockSync(null)
+                .endpoints(new EndpointSelector(SECOND, FIRST).latencyAware(0.3));
+        Credential credentials = Credential.build(client, "ak", "as", "ck").toBlocking().single();
+
+        for (int i = 0; i < 3; i++) {
+            new RequestBuilder("/cloud/project", Method.GET, credentials).build().toBlocking().single();
+        }
+        new RequestBuilder("/cloud/project", Method.GET, credentials).build().toBlocking().single();
+        assertEquals("http://first.invalid/1.0/cloud/project", urls.get(urls.size() - 1));
+
+        new RequestBuilder("/cloud/project", Method.GET, credentials.withEndpoints(new EndpointSelector(new Endpoint("http://third.invalid/1.0")))).build().toBlocking().single();
+        assertEquals("http://third.invalid/1.0/cloud/project", urls.get(urls.size() - 1));
+    }
+
+    @Test
+    public void testRecordStream() {
+        System.out.println("recordStream");
+        EndpointSelector selector = new EndpointSelector(SECOND, FIRST).latencyAware(0.3);
+        OvhClient client = new OvhClient(transport(new ArrayList<>()))
+                .retryPolicy(RetryPolicy.none())
+                .clockSync(null)
+                .endpoints(selector);
+        Credential credentials = Credential.build(client, "ak", "as", "ck").toBlocking().single();
+
+        for (int i = 0; i < 3; i++) {
+            new RequestBuilder("/cloud/project", Method.GET, credentials).streamArray(Object.class).onErrorResumeNext(Observable.empty()).toList().toBlocking().single();
+        }
+        assertFalse(selector.isHealthy(SECOND));
+        assertEquals(-1, selector.getLatency(SECOND), 0.001);
+
+        new RequestBuilder("/cloud/project", Method.GET, credentials).streamArray(Object.class).toList().toBlocking().single();
+        assertTrue(selector.isHealthy(FIRST));
+        assertEquals(-1, selector.getLatency(FIRST), 0.001);
+
+        selector.record(SECOND, true);
+        assertTrue(selector.isHealthy(SECOND));
+        assertEquals(-1, selector.getLatency(SECOND), 0.001);
+    }
+
+    @Test
+    public void testCooldown() {
+        System.out.println("cooldown");
+        TestScheduler clock = new TestScheduler();
+        EndpointSelector selector = new EndpointSelector(clock, FIRST, SECOND).latencyAware(0.5).cooldown(10, TimeUnit.SECONDS);
+        selector.record(FIRST, 10, true);
+        selector.record(SECOND, 100, true);
+        assertEquals(FIRST, selector.select());
+
+        for (int i = 0; i < 3; i++) {
+            selector.record(FIRST, 0, false);
+        }
+        assertEquals(SECOND, selector.select());
+        clock.advanceTimeBy(9, TimeUnit.SECONDS);
+        assertEquals(SECOND, selector.select());
+
+        clock.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(FIRST, selector.select());
+        assertEquals(SECOND, selector.select());
+        selector.record(FIRST, 0, false);
+        assertFalse(selector.isHealthy(FIRST));
+        clock.advanceTimeBy(9, TimeUnit.SECONDS);
+        assertEquals(SECOND, selector.select());
+
+        clock.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(FIRST, selector.select());
+        selector.record(FIRST, 10, true);
+        assertTrue(selector.isHealthy(FIRST));
+        assertEquals(FIRST, selector.select());
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+/**
+ *
+ * @author cambierr
+ */
+public class HedgingPolicyTest {
+
+    private static final String ROUTE = "GET /cloud/project/{id}";
+
+    public HedgingPolicyTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * A call whose first attempt takes 1s and the next ones 10ms
+     */
+    private static Observable<SafeResponse> call(TestScheduler _scheduler, AtomicInteger _sent, AtomicInteger _cancelled) {
+        return Observable.defer(() -> {
+            int attempt = _sent.incrementAndGet();
+            return Observable
+                    .timer((attempt == 1) ? 1000 : 10, TimeUnit.MILLISECONDS, _scheduler)
+                    .map((Long t) -> new SafeResponse(200, "OK", "attempt " + attempt))
+                    .doOnUnsubscribe(_cancelled::incrementAndGet);
+        });
+    }
+
+    @Test
+    public void testApply() {
+        System.out.println("apply");
+        TestScheduler scheduler = new TestScheduler();
+        HedgingPolicy policy = new HedgingPolicy(scheduler).delays(0, 100, TimeUnit.MILLISECONDS);
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger cancelled = new AtomicInteger();
+
+        TestSubscriber<SafeResponse> result = new TestSubscriber<>();
+        policy.apply(ROUTE, call(scheduler, sent, cancelled)).subscribe(result);
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        assertEquals(1, sent.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(2, sent.get());
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+
+        result.assertCompleted();
+        assertEquals("attempt 2", result.getOnNextEvents().get(0).getBody());
+        assertEquals(1, policy.getHedged());
+        assertEquals(1, policy.getHedgeWins());
+        assertTrue(cancelled.get() >= 1);
+    }
+
+    @Test
+    public void testApplyFast() {
+        System.out.println("applyFast");
+        TestScheduler scheduler = new TestScheduler();
+        HedgingPolicy policy = new HedgingPolicy(scheduler).delays(0, 100, TimeUnit.MILLISECONDS);
+        AtomicInteger sent = new AtomicInteger(1);
+
+        policy.apply(ROUTE, call(scheduler, sent, new AtomicInteger())).subscribe();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(2, sent.get());
+        assertEquals(0, policy.getHedged());
+    }
+
+    @Test
+    public void testApplyBudget() {
+        System.out.println("applyBudget");
+        TestScheduler scheduler = new TestScheduler();
+        HedgingPolicy policy = new HedgingPolicy(scheduler).delays(0, 100, TimeUnit.MILLISECONDS).budget(0);
+
+        for (int i = 0; i < 3; i++) {
+            policy.apply(ROUTE, call(scheduler, new AtomicInteger(), new AtomicInteger())).subscribe();
+        }
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        assertEquals(1, policy.getHedged());
+    }
+
+    @Test
+    public void testGetDelay() {
+        System.out.println("getDelay");
+        TestScheduler scheduler = new TestScheduler();
+        HedgingPolicy policy = new HedgingPolicy(scheduler).delays(5, 100, TimeUnit.MILLISECONDS).percentile(0.9);
+        assertEquals(100, policy.getDelay(ROUTE));
+
+        AtomicInteger sent = new AtomicInteger(1);
+        for (int i = 0; i < 100; i++) {
+            policy.apply(ROUTE, call(scheduler, sent, new AtomicInteger())).subscribe();
+            scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        }
+        assertEquals(10, policy.getDelay(ROUTE));
+    }
+
+    @Test
+    public void testGetDelayByRoute() {
+        System.out.println("getDelayByRoute");
+        TestScheduler scheduler = new TestScheduler();
+        HedgingPolicy policy = new HedgingPolicy(scheduler).delays(5, 100, TimeUnit.MILLISECONDS).percentile(0.9);
+
+        AtomicInteger sent = new AtomicInteger(1);
+        for (int i = 0; i < 100; i++) {
+            policy.apply(ROUTE, call(scheduler, sent, new AtomicInteger())).subscribe();
+            policy.apply("GET /cloud/project/{id}/instance", Observable
+                    .timer(500, TimeUnit.MILLISECONDS, scheduler)
+                    .map((Long t) -> new SafeResponse(200, "OK", "[]"))).subscribe();
+            scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        }
+        assertEquals(10, policy.getDelay(ROUTE));
+        assertEquals(500, policy.getDelay("GET /cloud/project/{id}/instance"));
+        assertEquals(100, policy.getDelay("GET /me"));
+    }
+
+    @Test
+    public void testApplyMeasuresLosers() {
+        System.out.println("applyMeasuresLosers");
+        TestScheduler scheduler = new TestScheduler();
+        HedgingPolicy policy = new HedgingPolicy(scheduler).delays(5, 100, TimeUnit.MILLISECONDS).budget(1);
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger cancelled = new AtomicInteger();
+        Observable<SafeResponse> call = Observable.defer(() -> Observable
+                .timer((sent.incrementAndGet() % 2 == 1) ? 1000 : 10, TimeUnit.MILLISECONDS, scheduler)
+                .map((Long t) -> new SafeResponse(200, "OK", ""))
+                .doOnUnsubscribe(cancelled::incrementAndGet));
+
+        for (int i = 0; i < 100; i++) {
+            TestSubscriber<SafeResponse> result = new TestSubscriber<>();
+            policy.apply(ROUTE, call).subscribe(result);
+            scheduler.advanceTimeBy(110, TimeUnit.MILLISECONDS);
+            result.assertCompleted();
+            scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        }
+        assertEquals(100, policy.getHedged());
+        assertEquals(100, policy.getHedgeWins());
+        assertEquals(1000, policy.getDelay(ROUTE));
+    }
+
+}
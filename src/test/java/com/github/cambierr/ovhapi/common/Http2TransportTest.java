@@ -0,0 +1,255 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+/**
+ *
+ * @author cambierr
+ */
+public class Http2TransportTest {
+
+    private static HttpAsyncServer h2Server;
+    private static HttpServer h1Server;
+    private static HttpsServer tlsServer;
+    private static SSLContext sslContext;
+    private static final AtomicInteger h2Connections = new AtomicInteger();
+    private static String h2Url;
+    private static String h1Url;
+    private static String tlsUrl;
+    private static Http2Transport transport;
+
+    public Http2TransportTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        h2Server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .setIOSessionListener(new ConnectionCounter())
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, String>>() {
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, String>> prepare(HttpRequest request, EntityDetails entityDetails, HttpContext context) {
+                        return new BasicRequestConsumer<>(entityDetails == null ? null : new StringAsyncEntityConsumer());
+                    }
+
+                    @Override
+                    public void handle(Message<HttpRequest, String> message, AsyncServerRequestHandler.ResponseTrigger responseTrigger, HttpContext context) throws IOException, org.apache.hc.core5.http.HttpException {
+                        String body = message.getHead().getMethod() + " " + message.getHead().getFirstHeader("X-Test").getValue() + " " + (message.getBody() == null ? "" : message.getBody());
+                        responseTrigger.submitResponse(AsyncResponseBuilder.create(200).setEntity(body, ContentType.TEXT_PLAIN).build(), context);
+                    }
+                })
+                .create();
+        h2Server.start();
+        ListenerEndpoint endpoint = h2Server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+        h2Url = "http://127.0.0.1:" + ((InetSocketAddress) endpoint.getAddress()).getPort();
+
+        h1Server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        h1Server.createContext("/", (exchange) -> {
+            byte[] out = ("HTTP/1.1 " + exchange.getRequestHeaders().getFirst("X-Test")).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, out.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(out);
+            }
+        });
+        h1Server.start();
+        h1Url = "http://127.0.0.1:" + h1Server.getAddress().getPort();
+
+        KeyStore keys = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Http2TransportTest.class.getResourceAsStream("/localhost.p12")) {
+            keys.load(in, "changeit".toCharArray());
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keys, "changeit".toCharArray());
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keys);
+        sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+
+        tlsServer = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        tlsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+        tlsServer.createContext("/", (exchange) -> {
+            byte[] out = ("HTTP/1.1 " + exchange.getRequestHeaders().getFirst("X-Test")).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, out.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(out);
+            }
+        });
+        tlsServer.start();
+        tlsUrl = "https://127.0.0.1:" + tlsServer.getAddress().getPort();
+
+        transport = new Http2Transport(new Http2Config().maxConcurrentStreams(8), new AsyncTransport(), Schedulers.computation());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        transport.close();
+        h2Server.close(CloseMode.IMMEDIATE);
+        h1Server.stop(0);
+        tlsServer.stop(0);
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testExecuteMultiplexed() {
+        System.out.println("execute multiplexed");
+        List<SafeResponse> result = Observable
+                .range(0, 50)
+                .flatMap((Integer t) -> transport.execute(new PreparedRequest(Method.POST, h2Url + "/echo", "{\"i\":" + t + "}").header("X-Test", "h2")))
+                .toList()
+                .toBlocking()
+                .single();
+        assertEquals(50, result.size());
+        for (SafeResponse response : result) {
+            assertEquals(200, response.getStatus());
+            assertEquals("OK", response.getStatusText());
+            assertTrue(response.getBody().startsWith("POST h2 {\"i\":"));
+        }
+        assertEquals(1, h2Connections.get());
+        assertTrue(transport.isHttp2(h2Url));
+        assertEquals(0, transport.getActiveStreams());
+        assertEquals(0, transport.getPendingStreams());
+    }
+
+    @Test
+    public void testExecuteNotNegotiated() throws IOException {
+        System.out.println("execute not negotiated");
+        AtomicInteger fallbackCalls = new AtomicInteger();
+        Http2Transport h2 = new Http2Transport(new Http2Config(), new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                fallbackCalls.incrementAndGet();
+                return Observable.just(new SafeResponse(200, "OK", "fallback"));
+            }
+
+            @Override
+            public void close() {
+            }
+        }, Schedulers.computation());
+        try {
+            Throwable error = h2.execute(new PreparedRequest(Method.POST, h1Url + "/", "{}").header("X-Test", "h1"))
+                    .map((SafeResponse t) -> (Throwable) null)
+                    .onErrorReturn((Throwable t) -> t)
+                    .toBlocking()
+                    .single();
+            assertNotNull(error);
+            assertEquals(0, fallbackCalls.get());
+            assertFalse(h2.isHttp2(h1Url));
+        } finally {
+            h2.close();
+        }
+    }
+
+    @Test
+    public void testExecuteFallback() throws IOException {
+        System.out.println("execute fallback");
+        AtomicInteger fallbackCalls = new AtomicInteger();
+        AsyncTransport http1 = new AsyncTransport(new PoolConfig().sslContext(sslContext), Schedulers.computation());
+        Http2Transport h2 = new Http2Transport(new Http2Config().sslContext(sslContext), new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                fallbackCalls.incrementAndGet();
+                return http1.execute(_request);
+            }
+
+            @Override
+            public void close() throws IOException {
+                http1.close();
+            }
+        }, Schedulers.computation());
+        try {
+            for (int i = 0; i < 2; i++) {
+                SafeResponse result = h2.execute(new PreparedRequest(Method.POST, tlsUrl + "/", "{}").header("X-Test", "tls")).toBlocking().single();
+                assertEquals(200, result.getStatus());
+                assertEquals("HTTP/1.1 tls", result.getBody());
+            }
+            assertEquals(2, fallbackCalls.get());
+            assertFalse(h2.isHttp2(tlsUrl));
+        } finally {
+            h2.close();
+        }
+    }
+
+    private static class ConnectionCounter implements IOSessionListener {
+
+        @Override
+        public void connected(IOSession session) {
+            h2Connections.incrementAndGet();
+        }
+
+        @Override
+        public void startTls(IOSession session) {
+        }
+
+        @Override
+        public void inputReady(IOSession session) {
+        }
+
+        @Override
+        public void outputReady(IOSession session) {
+        }
+
+        @Override
+        public void timeout(IOSession session) {
+        }
+
+        @Override
+        public void exception(IOSession session, Exception ex) {
+        }
+
+        @Override
+        public void disconnected(IOSession session) {
+        }
+    }
+
+}
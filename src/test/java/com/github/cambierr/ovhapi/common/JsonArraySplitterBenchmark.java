@@ -0,0 +1,108 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the word-at-a-time scan of the array splitter with the byte by
+ * byte one, on image and instance lists fed in 8KB chunks
+ *
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.cambierr.ovhapi.common.JsonArraySplitterBenchmark</p>
+ *
+ * @author cambierr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonArraySplitterBenchmark {
+
+    private static final int CHUNK = 8192;
+
+    @Param({"image", "instance"})
+    private String payload;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < 10000; i++) {
+            if (payload.equals("image")) {
+                array.put(new JSONObject()
+                        .put("id", "9c9b3772-5320-414a-90bf-" + String.format("%012d", i))
+                        .put("visibility", "public")
+                        .put("creationDate", "2016-03-24T11:10:25+01:00")
+                        .put("status", "active")
+                        .put("region", "GRA1")
+                        .put("name", "Ubuntu 16.04 #" + i)
+                        .put("type", "linux")
+                        .put("minDisk", 10));
+            } else {
+                array.put(new JSONObject()
+                        .put("id", "5f4d1a2c-7a44-4d3e-8b1a-" + String.format("%012d", i))
+                        .put("status", "ACTIVE")
+                        .put("region", "GRA1")
+                        .put("name", "instance-" + i)
+                        .put("imageId", "9c9b3772-5320-414a-90bf-" + String.format("%012d", i % 8))
+                        .put("created", "2016-03-24T11:10:25+01:00")
+                        .put("flavorId", "flavor-" + (i % 4))
+                        .put("sshKeyId", JSONObject.NULL)
+                        .put("ipAddresses", new JSONArray().put(new JSONObject().put("ip", "10.0.0." + (i % 250)).put("version", 4).put("type", "public"))));
+            }
+        }
+        bytes = array.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int split(JsonArraySplitter _splitter) {
+        int count = 0;
+        for (int offset = 0; offset < bytes.length; offset += CHUNK) {
+            count += _splitter.feed(ByteBuffer.wrap(bytes, offset, Math.min(CHUNK, bytes.length - offset))).size();
+        }
+        _splitter.finish();
+        return count;
+    }
+
+    @Benchmark
+    public int scalar() {
+        return split(new JsonArraySplitter(false));
+    }
+
+    @Benchmark
+    public int swar() {
+        return split(new JsonArraySplitter(true));
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonArraySplitterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author cambierr
+ */
+public class JsonArraySplitterTest {
+
+    private static final String array = " [ {\"id\":\"a\",\"tags\":[\"x\",\"]\"],\"name\":\"e\\\"\\\\{\"} , \"GRA1\",42,true,null,[1,[2]],{\"k\":\"été\"}]\n";
+    private static final List<String> elements = Arrays.asList(
+            "{\"id\":\"a\",\"tags\":[\"x\",\"]\"],\"name\":\"e\\\"\\\\{\"}",
+            "\"GRA1\"",
+            "42",
+            "true",
+            "null",
+            "[1,[2]]",
+            "{\"k\":\"été\"}");
+
+    public JsonArraySplitterTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testFeedWhole() {
+        System.out.println("feed whole");
+        JsonArraySplitter instance = new JsonArraySplitter();
+        List<String> result = instance.feed(ByteBuffer.wrap(array.getBytes(StandardCharsets.UTF_8)));
+        instance.finish();
+        assertEquals(elements, result);
+    }
+
+    @Test
+    public void testFeedByteByByte() {
+        System.out.println("feed byte by byte");
+        JsonArraySplitter instance = new JsonArraySplitter();
+        List<String> result = new ArrayList<>();
+        for (byte b : array.getBytes(StandardCharsets.UTF_8)) {
+            result.addAll(instance.feed(ByteBuffer.wrap(new byte[]{b})));
+        }
+        instance.finish();
+        assertEquals(elements, result);
+    }
+
+    @Test
+    public void testFeedDirect() {
+        System.out.println("feed direct");
+        byte[] bytes = array.getBytes(StandardCharsets.UTF_8);
+        for (int size : new int[]{bytes.length, 7, 1}) {
+            JsonArraySplitter instance = new JsonArraySplitter();
+            List<String> result = new ArrayList<>();
+            for (int offset = 0; offset < bytes.length; offset += size) {
+                ByteBuffer chunk = ByteBuffer.allocateDirect(Math.min(size, bytes.length - offset));
+                chunk.put(bytes, offset, chunk.capacity()).flip();
+                result.addAll(instance.feed(chunk));
+                assertFalse(chunk.hasRemaining());
+            }
+            instance.finish();
+            assertEquals(elements, result);
+        }
+    }
+
+    @Test
+    public void testFeedEmpty() {
+        System.out.println("feed empty");
+        JsonArraySplitter instance = new JsonArraySplitter();
+        assertTrue(instance.feed(ByteBuffer.wrap("[ ]".getBytes(StandardCharsets.UTF_8))).isEmpty());
+        instance.finish();
+    }
+
+    @Test(expected = JSONException.class)
+    public void testFeedNotArray() {
+        System.out.println("feed not array");
+        new JsonArraySplitter().feed(ByteBuffer.wrap("{\"message\":\"x\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = JSONException.class)
+    public void testFinishTruncated() {
+        System.out.println("finish truncated");
+        JsonArraySplitter instance = new JsonArraySplitter();
+        instance.feed(ByteBuffer.wrap("[{\"id\":1},{\"id\"".getBytes(StandardCharsets.UTF_8)));
+        instance.finish();
+    }
+
+    @Test
+    public void testWordScan() {
+        System.out.println("word scan");
+        StringBuilder text = new StringBuilder("[");
+        Random random = new Random(42);
+        String alphabet = "abc {}[]\",:\\\u00e9\u00ff0123";
+        for (int i = 0; i < 200; i++) {
+            StringBuilder value = new StringBuilder();
+            for (int j = random.nextInt(40); j > 0; j--) {
+                value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            text.append((i == 0) ? "" : ",")
+                    .append("{\"id\":").append(i)
+                    .append(",\"v\":").append(JSONObject.quote(value.toString()))
+                    .append(",\"nested\":[[{\"k\":").append(JSONObject.quote(value.toString())).append("}],{}]")
+                    .append(",\"s\":").append(JSONObject.quote(elements.get(0))).append("}");
+        }
+        text.append(']');
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        JsonArraySplitter reference = new JsonArraySplitter(false);
+        List<String> expected = reference.feed(ByteBuffer.wrap(bytes));
+        reference.finish();
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            JsonArraySplitter instance = new JsonArraySplitter(true);
+            List<String> result = new ArrayList<>();
+            for (int offset = 0; offset < bytes.length;) {
+                int size = Math.min(bytes.length - offset, 1 + random.nextInt(64));
+                result.addAll(instance.feed(ByteBuffer.wrap(bytes, offset, size).slice().order(order)));
+                offset += size;
+            }
+            instance.finish();
+            assertEquals(expected, result);
+        }
+    }
+
+}
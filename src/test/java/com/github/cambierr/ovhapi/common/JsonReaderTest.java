@@ -0,0 +1,148 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author cambierr
+ */
+public class JsonReaderTest {
+
+    public JsonReaderTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testObject() {
+        System.out.println("object");
+        JsonReader reader = new JsonReader(" {\"id\" : \"a\\\"b\\u00e9\", \"disk\":-12, \"size\":4294967296, \"ratio\":1.5e1, \"public\":true, \"key\":null, \"nested\":{\"x\":[1,{\"y\":\"}\"}]}, \"last\":\"z\"} ");
+        reader.beginObject();
+        assertTrue(reader.hasNext());
+        assertEquals("id", reader.nextName());
+        assertEquals("a\"bé", reader.nextString());
+        assertEquals("disk", reader.nextName());
+        assertEquals(-12, reader.nextInt());
+        assertEquals("size", reader.nextName());
+        assertEquals(4294967296L, reader.nextLong());
+        assertEquals("ratio", reader.nextName());
+        assertEquals(15, reader.nextLong());
+        assertEquals("public", reader.nextName());
+        assertTrue(reader.nextBoolean());
+        assertEquals("key", reader.nextName());
+        assertNull(reader.nextStringOrNull());
+        assertEquals("nested", reader.nextName());
+        reader.skipValue();
+        assertEquals("last", reader.nextName());
+        assertEquals("z", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        reader.end();
+    }
+
+    @Test
+    public void testArray() {
+        System.out.println("array");
+        JsonReader reader = new JsonReader("[\"a\", 12, \"13\", []]");
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        values.add(reader.nextString());
+        values.add(reader.nextString());
+        assertTrue(reader.hasNext());
+        assertEquals(13, reader.nextInt());
+        reader.beginArray();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        reader.end();
+        assertEquals("a", values.get(0));
+        assertEquals("12", values.get(1));
+    }
+
+    @Test
+    public void testMalformed() {
+        System.out.println("malformed");
+        try {
+            JsonReader reader = new JsonReader("{\"id\":\"abc");
+            reader.beginObject();
+            reader.nextName();
+            reader.nextString();
+            fail("A JSONException should have been thrown");
+        } catch (JSONException ex) {
+        }
+        try {
+            JsonReader reader = new JsonReader("{\"id\":{}}");
+            reader.beginObject();
+            reader.nextName();
+            reader.nextString();
+            fail("A JSONException should have been thrown");
+        } catch (JSONException ex) {
+        }
+        try {
+            JsonReader reader = new JsonReader("{} {}");
+            reader.skipValue();
+            reader.end();
+            fail("A JSONException should have been thrown");
+        } catch (JSONException ex) {
+        }
+        try {
+            JsonReader.require(null, "id");
+            fail("A JSONException should have been thrown");
+        } catch (JSONException ex) {
+            assertEquals("JSONObject[\"id\"] not found.", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testSeparators() {
+        System.out.println("separators");
+        for (String json : new String[]{"{\"a\":1 \"b\":2}", "[1 2]", "{,\"a\":1}", "[1,,2]", "[1,]", "{\"a\":1,}"}) {
+            try {
+                JsonReader reader = new JsonReader(json);
+                boolean isArray = json.startsWith("[");
+                if (isArray) {
+                    reader.beginArray();
+                } else {
+                    reader.beginObject();
+                }
+                while (reader.hasNext()) {
+                    if (!isArray) {
+                        reader.nextName();
+                    }
+                    reader.nextInt();
+                }
+                fail("A JSONException should have been thrown for " + json);
+            } catch (JSONException ex) {
+            }
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+
+/**
+ *
+ * @author cambierr
+ */
+public class ParallelDecodingTest {
+
+    private static ForkJoinPool pool;
+    private List<String> elements;
+
+    public ParallelDecodingTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        pool.shutdown();
+    }
+
+    @Before
+    public void setUp() {
+        elements = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            elements.add(Integer.toString(i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testOrdered() {
+        System.out.println("ordered");
+        List<Integer> result = new ParallelDecoding(pool).batchSize(300).threshold(16)
+                .decode(Observable.from(elements), (String t) -> Integer.valueOf(t))
+                .toList()
+                .toBlocking()
+                .single();
+        assertEquals(10000, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i, result.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testUnordered() {
+        System.out.println("unordered");
+        List<Integer> result = new ArrayList<>(new ParallelDecoding(pool).batchSize(100).ordered(false)
+                .decode(Observable.from(elements), (String t) -> Integer.valueOf(t))
+                .toList()
+                .toBlocking()
+                .single());
+        Collections.sort(result);
+        assertEquals(10000, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i, result.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testError() {
+        System.out.println("error");
+        try {
+            new ParallelDecoding(pool).batchSize(100)
+                    .decode(Observable.from(elements), (String t) -> {
+                        if (t.equals("5000")) {
+                            throw new JSONException("bad element");
+                        }
+                        return t;
+                    })
+                    .toBlocking()
+                    .last();
+            fail("A JSONException should have been thrown");
+        } catch (JSONException ex) {
+            assertEquals("bad element", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testStreamArray() {
+        System.out.println("streamArray");
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < 5000; i++) {
+            array.put(i);
+        }
+        OvhClient client = new OvhClient(new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.just(new SafeResponse(200, "OK", array.toString()));
+            }
+
+            @Override
+            public void close() {
+            }
+        }).parallelDecoding(new ParallelDecoding(pool).batchSize(256));
+        List<Integer> result = new RequestBuilder("/cloud", Method.GET, "ak", client)
+                .streamArray((JsonReader t) -> t.nextInt())
+                .toList()
+                .toBlocking()
+                .single();
+        assertEquals(5000, result.size());
+        assertEquals(4999, result.get(4999).intValue());
+    }
+
+}
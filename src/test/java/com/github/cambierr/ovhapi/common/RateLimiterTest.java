@@ -0,0 +1,132 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.Subscription;
+import rx.schedulers.TestScheduler;
+
+/**
+ *
+ * @author cambierr
+ */
+public class RateLimiterTest {
+
+    public RateLimiterTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testThrottle() {
+        System.out.println("throttle");
+        TestScheduler scheduler = new TestScheduler();
+        RateLimiter limiter = new RateLimiter(new RateLimitConfig().burst(2).rate(1, 1, TimeUnit.SECONDS), scheduler);
+        AtomicInteger sent = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            limiter.throttle(Observable.defer(() -> Observable.just(sent.incrementAndGet()))).subscribe();
+        }
+        assertEquals(2, sent.get());
+        assertEquals(3, limiter.getStats().getQueued());
+
+        scheduler.advanceTimeBy(999, TimeUnit.MILLISECONDS);
+        assertEquals(2, sent.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(3, sent.get());
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+        assertEquals(5, sent.get());
+
+        RateLimitStats stats = limiter.getStats();
+        assertEquals(0, stats.getQueued());
+        assertEquals(3, stats.getDelayed());
+        assertEquals(6000, stats.getTotalWait());
+        assertEquals(3000, stats.getMaxWait());
+        assertEquals(0, stats.getAvailable());
+
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertEquals(2, limiter.getStats().getAvailable());
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        System.out.println("unsubscribe");
+        TestScheduler scheduler = new TestScheduler();
+        RateLimiter limiter = new RateLimiter(new RateLimitConfig().burst(1).rate(1, 1, TimeUnit.SECONDS), scheduler);
+        AtomicInteger sent = new AtomicInteger();
+
+        limiter.throttle(Observable.defer(() -> Observable.just(sent.incrementAndGet()))).subscribe();
+        Subscription waiting = limiter.throttle(Observable.defer(() -> Observable.just(sent.incrementAndGet()))).subscribe();
+        assertEquals(1, limiter.getStats().getQueued());
+        waiting.unsubscribe();
+        assertEquals(0, limiter.getStats().getQueued());
+
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+        assertEquals(1, sent.get());
+        assertEquals(1, limiter.getStats().getAvailable());
+    }
+
+    @Test
+    public void testUnsubscribeRefund() {
+        System.out.println("unsubscribeRefund");
+        TestScheduler scheduler = new TestScheduler();
+        RateLimiter limiter = new RateLimiter(new RateLimitConfig().burst(1).rate(1, 1, TimeUnit.SECONDS), scheduler);
+        AtomicInteger sent = new AtomicInteger();
+
+        limiter.throttle(Observable.defer(() -> Observable.just(sent.incrementAndGet()))).subscribe();
+        for (int i = 0; i < 10; i++) {
+            limiter.throttle(Observable.defer(() -> Observable.just(sent.incrementAndGet()))).subscribe().unsubscribe();
+        }
+        limiter.throttle(Observable.defer(() -> Observable.just(sent.incrementAndGet()))).subscribe();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testQueuedDispatched() {
+        System.out.println("queuedDispatched");
+        TestScheduler scheduler = new TestScheduler();
+        RateLimiter limiter = new RateLimiter(new RateLimitConfig().burst(1).rate(1, 1, TimeUnit.SECONDS), scheduler);
+
+        limiter.throttle(Observable.never()).subscribe();
+        Subscription pending = limiter.throttle(Observable.never()).subscribe();
+        assertEquals(1, limiter.getStats().getQueued());
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(0, limiter.getStats().getQueued());
+        pending.unsubscribe();
+        assertEquals(0, limiter.getStats().getQueued());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRateSubMillisecond() {
+        System.out.println("rateSubMillisecond");
+        new RateLimitConfig().rate(1, 500, TimeUnit.MICROSECONDS);
+    }
+
+}
@@ -5,8 +5,17 @@
  */
 package com.github.cambierr.ovhapi.common;
 
+import com.github.cambierr.ovhapi.auth.Credential;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.junit.After;
@@ -15,7 +24,11 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import org.json.JSONObject;
 import rx.Observable;
+import rx.functions.Action1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
 
 /**
  *
@@ -67,4 +80,152 @@ public class RequestBuilderTest {
 
     }
 
+    @Test
+    public void testStreamArray() {
+        System.out.println("streamArray");
+        OvhClient client = new OvhClient(new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.error(new UnsupportedOperationException());
+            }
+
+            @Override
+            public Observable<PooledBuffer> stream(PreparedRequest _request, Action1<? super SafeResponse> _onHead) {
+                _onHead.call(new SafeResponse(200, "OK", null));
+                return Observable
+                        .from(Arrays.asList("[{\"id\":", "1},{\"i", "d\":2}", "]"))
+                        .map((String t) -> PooledBuffer.wrap(ByteBuffer.wrap(t.getBytes(StandardCharsets.UTF_8))));
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        List<JSONObject> result = new RequestBuilder("/cloud", Method.GET, Settings.applicationKey, client)
+                .streamArray(JSONObject.class)
+                .toList()
+                .toBlocking()
+                .single();
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getInt("id"));
+        assertEquals(2, result.get(1).getInt("id"));
+    }
+
+    @Test
+    public void testDeadline() throws InterruptedException {
+        System.out.println("deadline");
+        AtomicInteger sent = new AtomicInteger();
+        Semaphore cancelled = new Semaphore(0);
+        OvhClient client = new OvhClient(new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                sent.incrementAndGet();
+                return Observable.<SafeResponse>never().doOnUnsubscribe(cancelled::release);
+            }
+
+            @Override
+            public void close() {
+            }
+        }).clockSync(null);
+        Credential credentials = Credential.build(client, "ak", "as", "ck").toBlocking().single()
+                .withDeadline(Deadline.after(100, TimeUnit.MILLISECONDS));
+
+        try {
+            new RequestBuilder("/cloud/project", Method.GET, credentials).build().toBlocking().single();
+            fail("A TimeoutException should have been thrown");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        assertEquals(1, sent.get());
+        awaitCancelled(cancelled);
+
+        try {
+            new RequestBuilder("/cloud/project", Method.GET, credentials).build().toBlocking().single();
+            fail("A TimeoutException should have been thrown");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        assertEquals(1, sent.get());
+
+        try {
+            new RequestBuilder("/cloud/project", Method.GET, "ak", client)
+                    .timeouts(new Timeouts().request(50, TimeUnit.MILLISECONDS))
+                    .build()
+                    .toBlocking()
+                    .single();
+            fail("A TimeoutException should have been thrown");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        awaitCancelled(cancelled);
+    }
+
+    /**
+     * The exchange is unsubscribed from by the timer thread right after the
+     * TimeoutException has been delivered
+     */
+    private static void awaitCancelled(Semaphore _cancelled) throws InterruptedException {
+        assertTrue(_cancelled.tryAcquire(1, TimeUnit.SECONDS));
+        assertEquals(0, _cancelled.availablePermits());
+    }
+
+    @Test
+    public void testTimeoutScheduler() {
+        System.out.println("timeoutScheduler");
+        Semaphore cancelled = new Semaphore(0);
+        OvhClient client = new OvhClient(new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.<SafeResponse>never().doOnUnsubscribe(cancelled::release);
+            }
+
+            @Override
+            public void close() {
+            }
+        }).clockSync(null);
+        TestScheduler scheduler = new TestScheduler();
+        TestSubscriber<SafeResponse> call = new TestSubscriber<>();
+        new RequestBuilder("/cloud/project", Method.GET, "ak", client)
+                .timeouts(new Timeouts(scheduler).request(1, TimeUnit.MINUTES))
+                .build()
+                .subscribe(call);
+
+        scheduler.advanceTimeBy(59, TimeUnit.SECONDS);
+        call.assertNoTerminalEvent();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        call.assertError(TimeoutException.class);
+        assertEquals(1, cancelled.availablePermits());
+    }
+
+    @Test
+    public void testTimeoutOpensCircuit() {
+        System.out.println("timeoutOpensCircuit");
+        OvhClient client = new OvhClient(new Transport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.never();
+            }
+
+            @Override
+            public void close() {
+            }
+        }).clockSync(null).circuitBreaker(new CircuitBreakerConfig().minimumCalls(1));
+        TestSubscriber<CircuitEvent> events = new TestSubscriber<>();
+        client.getCircuitEvents().take(1).subscribe(events);
+
+        try {
+            new RequestBuilder("/cloud/project", Method.GET, "ak", client)
+                    .timeouts(new Timeouts().request(50, TimeUnit.MILLISECONDS))
+                    .build()
+                    .toBlocking()
+                    .single();
+            fail("A TimeoutException should have been thrown");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        events.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        events.assertValueCount(1);
+        assertEquals(CircuitBreaker.State.OPEN, events.getOnNextEvents().get(0).getTo());
+    }
+
 }
@@ -0,0 +1,94 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.Subscription;
+import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+
+/**
+ *
+ * @author cambierr
+ */
+public class RequestCoalescerTest {
+
+    public RequestCoalescerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testCoalesce() {
+        System.out.println("coalesce");
+        RequestCoalescer instance = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger();
+        PublishSubject<SafeResponse> network = PublishSubject.create();
+        Observable<SafeResponse> call = network.doOnSubscribe(() -> calls.incrementAndGet());
+
+        List<TestSubscriber<SafeResponse>> subscribers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            TestSubscriber<SafeResponse> subscriber = new TestSubscriber<>();
+            instance.coalesce("GET /flavor/1", call).subscribe(subscriber);
+            subscribers.add(subscriber);
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, instance.getInFlight());
+
+        SafeResponse response = new SafeResponse(200, "OK", "{}");
+        network.onNext(response);
+        network.onCompleted();
+        for (TestSubscriber<SafeResponse> subscriber : subscribers) {
+            subscriber.assertValue(response);
+            subscriber.assertCompleted();
+        }
+        assertEquals(0, instance.getInFlight());
+
+        instance.coalesce("GET /flavor/1", Observable.just(response).doOnSubscribe(() -> calls.incrementAndGet())).subscribe();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testCoalesceDistinctKeys() {
+        System.out.println("coalesce distinct keys");
+        RequestCoalescer instance = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger();
+        Observable<SafeResponse> call = Observable.<SafeResponse>never().doOnSubscribe(() -> calls.incrementAndGet());
+
+        Subscription first = instance.coalesce("GET /flavor/1", call).subscribe();
+        Subscription second = instance.coalesce("GET /flavor/2", call).subscribe();
+        assertEquals(2, calls.get());
+        assertEquals(2, instance.getInFlight());
+
+        first.unsubscribe();
+        second.unsubscribe();
+        assertEquals(0, instance.getInFlight());
+    }
+
+}
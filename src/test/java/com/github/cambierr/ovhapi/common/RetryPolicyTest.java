@@ -0,0 +1,153 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import com.github.cambierr.ovhapi.exception.RequestException;
+import java.net.ConnectException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+/**
+ *
+ * @author cambierr
+ */
+public class RetryPolicyTest {
+
+    public RetryPolicyTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private static Observable<SafeResponse> failing(AtomicInteger _calls, int _failures, SafeResponse _failure) {
+        return Observable.defer(() -> Observable.just((_calls.incrementAndGet() <= _failures) ? _failure : new SafeResponse(200, "OK", "{}")));
+    }
+
+    @Test
+    public void testApply() {
+        System.out.println("apply");
+        TestScheduler scheduler = new TestScheduler();
+        RetryPolicy policy = new RetryPolicy(scheduler).delays(100, 1000, TimeUnit.MILLISECONDS);
+        AtomicInteger calls = new AtomicInteger();
+
+        TestSubscriber<SafeResponse> result = new TestSubscriber<>();
+        policy.apply(Method.GET, failing(calls, 2, new SafeResponse(503, "Service Unavailable", null))).subscribe(result);
+        assertEquals(1, calls.get());
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        assertEquals(3, calls.get());
+        result.assertCompleted();
+        assertEquals(200, result.getOnNextEvents().get(0).getStatus());
+        assertEquals(2, policy.getRetries());
+    }
+
+    @Test
+    public void testApplyRetryAfter() {
+        System.out.println("applyRetryAfter");
+        TestScheduler scheduler = new TestScheduler();
+        RetryPolicy policy = new RetryPolicy(scheduler).delays(100, 1000, TimeUnit.MILLISECONDS);
+        AtomicInteger calls = new AtomicInteger();
+
+        policy.apply(Method.DELETE, failing(calls, 1, new SafeResponse(429, "Too Many Requests", null, Collections.singletonMap("Retry-After", "5")))).subscribe();
+        scheduler.advanceTimeBy(4999, TimeUnit.MILLISECONDS);
+        assertEquals(1, calls.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testApplyToStreamRetryAfter() {
+        System.out.println("applyToStreamRetryAfter");
+        TestScheduler scheduler = new TestScheduler();
+        RetryPolicy policy = new RetryPolicy(scheduler).delays(100, 1000, TimeUnit.MILLISECONDS);
+        AtomicInteger calls = new AtomicInteger();
+        RequestException throttled = new RequestException(429, "Too Many Requests", "", Collections.singletonMap("Retry-After", "5"));
+
+        policy.applyToStream(Method.GET, Observable.defer(() -> (calls.incrementAndGet() == 1) ? Observable.<Integer>error(throttled) : Observable.just(1))).subscribe();
+        scheduler.advanceTimeBy(4999, TimeUnit.MILLISECONDS);
+        assertEquals(1, calls.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testApplyExhausted() {
+        System.out.println("applyExhausted");
+        TestScheduler scheduler = new TestScheduler();
+        RetryPolicy policy = new RetryPolicy(scheduler).maxAttempts(3);
+        AtomicInteger calls = new AtomicInteger();
+
+        TestSubscriber<SafeResponse> result = new TestSubscriber<>();
+        policy.apply(Method.PUT, failing(calls, 10, new SafeResponse(502, "Bad Gateway", null))).subscribe(result);
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(3, calls.get());
+        assertEquals(502, result.getOnNextEvents().get(0).getStatus());
+        assertEquals(1, policy.getExhausted());
+    }
+
+    @Test
+    public void testApplyNotRetried() {
+        System.out.println("applyNotRetried");
+        TestScheduler scheduler = new TestScheduler();
+        RetryPolicy policy = new RetryPolicy(scheduler);
+        AtomicInteger calls = new AtomicInteger();
+
+        policy.apply(Method.POST, failing(calls, 1, new SafeResponse(503, "Service Unavailable", null))).subscribe();
+        policy.apply(Method.GET, failing(calls, 2, new SafeResponse(500, "Internal Server Error", null))).subscribe();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, policy.getRetries());
+    }
+
+    @Test
+    public void testApplyToStream() {
+        System.out.println("applyToStream");
+        TestScheduler scheduler = new TestScheduler();
+        RetryPolicy policy = new RetryPolicy(scheduler);
+        AtomicInteger calls = new AtomicInteger();
+
+        TestSubscriber<Integer> result = new TestSubscriber<>();
+        policy.applyToStream(Method.GET, Observable.defer(() -> (calls.incrementAndGet() == 1) ? Observable.<Integer>error(new ConnectException()) : Observable.just(1, 2))).subscribe(result);
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        result.assertValues(1, 2);
+
+        TestSubscriber<Integer> partial = new TestSubscriber<>();
+        policy.applyToStream(Method.GET, Observable.defer(() -> {
+            calls.incrementAndGet();
+            return Observable.just(1).concatWith(Observable.error(new RequestException(503, "Service Unavailable", null)));
+        })).subscribe(partial);
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        partial.assertValues(1);
+        partial.assertError(RequestException.class);
+        assertEquals(3, calls.get());
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+/**
+ *
+ * @author cambierr
+ */
+public class TtlCacheTest {
+
+    public TtlCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testGet() {
+        System.out.println("get");
+        TestScheduler clock = new TestScheduler();
+        TtlCache<String, String> cache = new TtlCache<>(new CacheConfig().timeToLive(1, TimeUnit.MINUTES), (String t) -> 1, clock);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get("a", () -> Observable.just("v" + loads.incrementAndGet())).toBlocking().single());
+        assertEquals("v1", cache.get("a", () -> Observable.just("v" + loads.incrementAndGet())).toBlocking().single());
+        assertEquals(1, loads.get());
+
+        clock.advanceTimeBy(61, TimeUnit.SECONDS);
+        assertEquals("v2", cache.get("a", () -> Observable.just("v" + loads.incrementAndGet())).toBlocking().single());
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getSize());
+
+        cache.invalidate("a");
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testGetConcurrent() {
+        System.out.println("getConcurrent");
+        TtlCache<String, String> cache = new TtlCache<>(new CacheConfig());
+        PublishSubject<String> source = PublishSubject.create();
+        AtomicInteger loads = new AtomicInteger();
+
+        TestSubscriber<String> first = new TestSubscriber<>();
+        TestSubscriber<String> second = new TestSubscriber<>();
+        cache.get("a", () -> source.doOnSubscribe(loads::incrementAndGet)).subscribe(first);
+        cache.get("a", () -> source.doOnSubscribe(loads::incrementAndGet)).subscribe(second);
+        source.onNext("v");
+        source.onCompleted();
+
+        assertEquals(1, loads.get());
+        first.assertValue("v");
+        second.assertValue("v");
+        assertEquals("v", cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testInvalidateWhileLoading() {
+        System.out.println("invalidateWhileLoading");
+        TtlCache<String, String> cache = new TtlCache<>(new CacheConfig());
+        PublishSubject<String> stale = PublishSubject.create();
+        TestSubscriber<String> first = new TestSubscriber<>();
+        TestSubscriber<String> second = new TestSubscriber<>();
+
+        cache.get("a", () -> stale).subscribe(first);
+        cache.invalidateAll();
+        cache.get("a", () -> Observable.just("fresh")).subscribe(second);
+        stale.onNext("stale");
+        stale.onCompleted();
+
+        first.assertValue("stale");
+        second.assertValue("fresh");
+        assertEquals("fresh", cache.getIfPresent("a"));
+
+        PublishSubject<String> dropped = PublishSubject.create();
+        cache.get("b", () -> dropped).subscribe(new TestSubscriber<>());
+        cache.invalidate("b");
+        dropped.onNext("stale");
+        dropped.onCompleted();
+        assertNull(cache.getIfPresent("b"));
+    }
+
+    @Test
+    public void testEviction() {
+        System.out.println("eviction");
+        TtlCache<String, List<Integer>> cache = new TtlCache<>(new CacheConfig().maxEntries(3).maxWeight(5), (List<Integer> t) -> t.size(), new TestScheduler());
+
+        cache.put("a", Arrays.asList(1, 2));
+        cache.put("b", Arrays.asList(1, 2));
+        cache.getIfPresent("a");
+        cache.put("c", Arrays.asList(1, 2));
+        assertNotNull(cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertNotNull(cache.getIfPresent("c"));
+        assertEquals(4, cache.getStats().getWeight());
+        assertEquals(1, cache.getStats().getEvictions());
+
+        cache.put("d", Arrays.asList(1, 2, 3, 4, 5, 6));
+        assertNull(cache.getIfPresent("d"));
+        assertFalse(cache.accepts("d"));
+        assertTrue(cache.accepts("e"));
+        cache.put("d", Arrays.asList(1));
+        assertTrue(cache.accepts("d"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(0, cache.getStats().getWeight());
+    }
+
+    @Test
+    public void testDisabled() {
+        System.out.println("disabled");
+        TtlCache<String, String> cache = new TtlCache<>(new CacheConfig().timeToLive(0, TimeUnit.SECONDS));
+        cache.put("a", "v");
+        assertNull(cache.getIfPresent("a"));
+        assertFalse(cache.accepts("a"));
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.github.cambierr.ovhapi.common;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import rx.Observable;
+
+/**
+ *
+ * @author cambierr
+ */
+public class ValidatorCacheTest {
+
+    public ValidatorCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Fake API answering with an ETag, and with a 304 when it is sent back
+     */
+    private static class EtagTransport implements Transport {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger notModified = new AtomicInteger();
+
+        private SafeResponse respond(PreparedRequest _request, String _body) {
+            calls.incrementAndGet();
+            Map<String, String> headers = new HashMap<>();
+            headers.put("ETag", "\"v1\"");
+            if ("\"v1\"".equals(_request.getHeaders().get("If-None-Match"))) {
+                notModified.incrementAndGet();
+                return new SafeResponse(304, "Not Modified", null, headers);
+            }
+            return new SafeResponse(200, "OK", _body, headers);
+        }
+
+        @Override
+        public Observable<SafeResponse> execute(PreparedRequest _request) {
+            return Observable.just(respond(_request, "{\"id\":1}"));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void testBuild() {
+        System.out.println("build");
+        EtagTransport transport = new EtagTransport();
+        ValidatorCache cache = new ValidatorCache();
+        OvhClient client = new OvhClient(transport).coalescing(false).validatorCache(cache);
+
+        SafeResponse first = new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, client).build().toBlocking().single();
+        SafeResponse second = new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, client).build().toBlocking().single();
+
+        assertEquals(200, first.getStatus());
+        assertSame(first, second);
+        assertEquals(2, transport.calls.get());
+        assertEquals(1, transport.notModified.get());
+        assertEquals(1, cache.getRevalidated());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testBuildPerEndpoint() {
+        System.out.println("buildPerEndpoint");
+        EtagTransport transport = new EtagTransport();
+        ValidatorCache cache = new ValidatorCache();
+        OvhClient eu = new OvhClient(transport).coalescing(false).validatorCache(cache).endpoints(new EndpointSelector(Endpoint.OVH_EU));
+        OvhClient ca = new OvhClient(transport).coalescing(false).validatorCache(cache).endpoints(new EndpointSelector(Endpoint.OVH_CA));
+
+        new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, eu).build().toBlocking().single();
+        new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, ca).build().toBlocking().single();
+
+        assertEquals(0, transport.notModified.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testBuildDisabled() {
+        System.out.println("buildDisabled");
+        EtagTransport transport = new EtagTransport();
+        OvhClient client = new OvhClient(transport).coalescing(false);
+
+        new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, client).build().toBlocking().single();
+        new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, client).build().toBlocking().single();
+
+        assertEquals(0, transport.notModified.get());
+    }
+
+    @Test
+    public void testStreamArray() {
+        System.out.println("streamArray");
+        EtagTransport transport = new EtagTransport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.just(super.execute(_request).toBlocking().single())
+                        .map((SafeResponse t) -> (t.getStatus() == 200) ? new SafeResponse(200, "OK", "[{\"id\":1},{\"id\":2}]", t.getHeaders()) : t);
+            }
+        };
+        ValidatorCache cache = new ValidatorCache();
+        OvhClient client = new OvhClient(transport).validatorCache(cache);
+
+        List<JSONObject> first = new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, client).streamArray(JSONObject.class).toList().toBlocking().single();
+        List<JSONObject> second = new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, client).streamArray(JSONObject.class).toList().toBlocking().single();
+
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(first.get(1).toString(), second.get(1).toString());
+        assertEquals(1, transport.notModified.get());
+        assertEquals(1, cache.getRevalidated());
+    }
+
+    @Test
+    public void testStreamArrayBound() {
+        System.out.println("streamArrayBound");
+        EtagTransport transport = new EtagTransport() {
+            @Override
+            public Observable<SafeResponse> execute(PreparedRequest _request) {
+                return Observable.just(super.execute(_request).toBlocking().single())
+                        .map((SafeResponse t) -> (t.getStatus() == 200) ? new SafeResponse(200, "OK", "[{\"id\":1},{\"id\":2}]", t.getHeaders()) : t);
+            }
+        };
+        ValidatorCache cache = new ValidatorCache();
+        OvhClient client = new OvhClient(transport).validatorCache(cache);
+        AtomicInteger binds = new AtomicInteger();
+        JsonBinder<Integer> binder = (JsonReader t) -> {
+            binds.incrementAndGet();
+            t.beginObject();
+            t.nextName();
+            int id = t.nextInt();
+            t.endObject();
+            return id;
+        };
+
+        List<Integer> first = new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, client).streamArray(binder).toList().toBlocking().single();
+        List<Integer> second = new RequestBuilder("/cloud/project", Method.GET, Settings.applicationKey, client).streamArray(binder).toList().toBlocking().single();
+
+        assertEquals(Arrays.asList(1, 2), first);
+        assertEquals(first, second);
+        assertEquals(4, binds.get());
+        assertEquals(1, cache.getRevalidated());
+    }
+
+    @Test
+    public void testEviction() {
+        System.out.println("eviction");
+        ValidatorCache cache = new ValidatorCache(2);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("ETag", "\"v1\"");
+        SafeResponse response = new SafeResponse(200, "OK", "{}", headers);
+        cache.store("a", response, response, null);
+        cache.store("b", response, response, null);
+        cache.get("a");
+        cache.store("c", response, response, null);
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+
+        cache.store("a", new SafeResponse(200, "OK", "{}"), null, null);
+        assertNull(cache.get("a"));
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+}